@@ -1,7 +1,10 @@
 package compiler;
 
-import java.io.FileWriter; // <-- PASSO 1: Importar FileWriter
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 
@@ -17,13 +20,19 @@ import compiler.ast.AST;
 import compiler.ast.ASTPrinter;
 import compiler.checker.GoSemanticChecker;
 import compiler.interpreter.GoInterpreter;
+import compiler.exec.ClosureInterpreter;
+import compiler.vm.VirtualMachine;
 import compiler.codegen.GoCodegenVisitor;
+import compiler.codegen.ir.IRFileWriter;
+import compiler.opt.ConstantFolder;
+import compiler.opt.DeadCodeEliminator;
+import compiler.opt.TailCallMarker;
 
 public class Main {
 
     public static void main(String[] args) throws IOException {
         if (args.length == 0) {
-            System.err.println("Uso: java compiler.Main [--llvm | -c] <ficheiro_entrada.go>");
+            System.err.println("Uso: java compiler.Main [--llvm | -c | --closure | --vm] [--print-ir] [--loop-hints] [--stats] <ficheiro_entrada.go>");
             System.err.println("Exemplo (interpretar): make rc FILE=valid_tests/declarations/test1.go");
             System.err.println("Exemplo (compilar):  make rc FILE=\"--llvm valid_tests/declarations/test1.go\"");
             return;
@@ -32,9 +41,15 @@ public class Main {
         // --- Processamento dos Argumentos ---
         List<String> argsList = Arrays.asList(args);
         boolean compileMode = argsList.contains("--llvm") || argsList.contains("-c");
+        boolean closureMode = argsList.contains("--closure"); // Interpreta com o motor de closures
+        boolean vmMode = argsList.contains("--vm");           // Interpreta com a VM de bytecode
+        boolean printIr = argsList.contains("--print-ir");    // Também mostra o .ll gerado no console
+        boolean loopHints = argsList.contains("--loop-hints"); // Dicas de vetorização/desenrolamento nos laços
+        PhaseStats stats = new PhaseStats(argsList.contains("--stats")); // Métricas por fase, gravadas em JSON
         String filePath = "";
         for (String arg : args) {
-            if (!arg.equals("--llvm") && !arg.equals("-c")) {
+            if (!arg.equals("--llvm") && !arg.equals("-c") && !arg.equals("--closure") && !arg.equals("--vm")
+                    && !arg.equals("--print-ir") && !arg.equals("--loop-hints") && !arg.equals("--stats")) {
                 filePath = arg;
                 break;
             }
@@ -53,39 +68,65 @@ public class Main {
         try {
             // === 1. ANÁLISE LÉXICA ===
             System.out.println("1. Análise Léxica...");
+            stats.begin("lexing");
             CharStream input = CharStreams.fromFileName(filePath);
             Go_Lexer lexer = new Go_Lexer(input);
             CommonTokenStream tokens = new CommonTokenStream(lexer);
+            tokens.fill(); // Todos os tokens agora, e não sob demanda durante o parsing
+            stats.end();
+            stats.count("tokens", tokens::size);
 
             // === 2. ANÁLISE SINTÁTICA ===
             System.out.println("2. Análise Sintática...");
+            stats.begin("parsing");
             Go_Parser parser = new Go_Parser(tokens);
             ParseTree tree = parser.program();
+            stats.end();
+            stats.count("parseTreeNodes", () -> PhaseStats.countNodes(tree));
 
             // === 3. ANÁLISE SEMÂNTICA ===
             System.out.println("3. Análise Semântica...");
+            stats.begin("semantic");
             GoSemanticChecker checker = new GoSemanticChecker();
             AST ast = checker.visit(tree);
+            stats.end();
+            stats.count("astNodes", () -> PhaseStats.countNodes(ast));
             checker.printReport();
 
             if (checker.hasSemanticErrors() || parser.getNumberOfSyntaxErrors() > 0) {
                 System.err.println("\nRESULTADO: Compilação falhou devido a erros.");
                 return;
             }
+
+            // === 4. DOBRA DE CONSTANTES ===
+            // Feita uma vez sobre a AST anotada, vale para os interpretadores e para o LLVM.
+            stats.begin("optimization"); // Passes de compiler.opt sobre a AST (4 a 6)
+            int folded = new ConstantFolder().fold(ast);
+            System.out.println("4. Dobra de Constantes... (" + folded + " nós simplificados)");
+
+            // === 5. ELIMINAÇÃO DE CÓDIGO MORTO ===
+            DeadCodeEliminator eliminator = new DeadCodeEliminator();
+            eliminator.eliminate(ast);
+            System.out.println("5. Eliminação de Código Morto... (" + eliminator.getRemovedStatements() + " statements inalcançáveis removidos)");
+            if (!eliminator.getRemovedFunctions().isEmpty()) {
+                System.out.println("   Funções não alcançáveis a partir de main: " + String.join(", ", eliminator.getRemovedFunctions()));
+            }
+
+            // === 6. CHAMADAS EM CAUDA ===
+            // Depois do DCE: um 'return' que sobrou no fim de um bloco pode ter virado a cauda
+            int tailCalls = new TailCallMarker().mark(ast);
+            stats.end();
+            stats.count("astNodes", () -> PhaseStats.countNodes(ast));
+            System.out.println("6. Chamadas em Cauda... (" + tailCalls + " chamadas marcadas)");
             
             System.out.println("\n--------------------------------------------------");
 
             if (compileMode) {
-                // --- 4. GERAÇÃO DE CÓDIGO LLVM ---
+                // --- 7. GERAÇÃO DE CÓDIGO LLVM ---
                 System.out.println(">>> Gerando código LLVM IR...");
                 GoCodegenVisitor codegen = new GoCodegenVisitor();
-                String llvmIr = codegen.run(ast);
-                
-                // --- Print LLVM IR to console for testing ---
-                System.out.println("\n--- INÍCIO DO CÓDIGO LLVM IR ---");
-                System.out.println(llvmIr);
-                System.out.println("--- FIM DO CÓDIGO LLVM IR ---\n");
-                
+                codegen.setLoopHints(loopHints);
+
                 // --- PASSO 2: Determinar o nome do arquivo de saída ---
                 String outputFilePath;
                 int dotIndex = filePath.lastIndexOf('.');
@@ -95,10 +136,23 @@ public class Main {
                     outputFilePath = filePath + ".ll";
                 }
 
-                // --- PASSO 3: Escrever o código LLVM no arquivo ---
-                try (FileWriter writer = new FileWriter(outputFilePath)) {
-                    writer.write(llvmIr);
+                // --- PASSO 3: Gerar o código LLVM direto no arquivo ---
+                // As funções são gravadas à medida que ficam prontas, sem montar o IR inteiro numa String
+                Path outputPath = Paths.get(outputFilePath);
+                try (IRFileWriter output = new IRFileWriter(outputPath)) {
+                    stats.begin("codegen");
+                    codegen.write(ast, output);
+                    stats.end();
+                    stats.count("irInstructions", output::getInstructionCount);
+                    stats.count("irBytes", () -> outputPath.toFile().length());
                     System.out.println("✅ Código LLVM IR gerado com sucesso em: " + outputFilePath);
+
+                    // Com --print-ir o arquivo gerado também é copiado para o console
+                    if (printIr) {
+                        System.out.println("\n--- INÍCIO DO CÓDIGO LLVM IR ---");
+                        Files.copy(outputPath, System.out);
+                        System.out.println("--- FIM DO CÓDIGO LLVM IR ---");
+                    }
                 } catch (IOException e) {
                     System.err.println("❌ Erro ao escrever o arquivo de saída: " + e.getMessage());
                 }
@@ -110,7 +164,7 @@ public class Main {
                 System.out.println("3. Execute o programa: ./myprogram");
 
             } else {
-                // --- 4. MODO INTERPRETADOR ---
+                // --- 7. MODO INTERPRETADOR ---
                 System.out.println(">>> Gerando Abstract Syntax Tree (AST)...");
                 if (ast != null) {
                     System.out.println("Para visualizar a árvore, copie o código DOT abaixo");
@@ -121,8 +175,16 @@ public class Main {
                 }
 
                 System.out.println(">>> Executando o interpretador...");
-                GoInterpreter interpreter = new GoInterpreter();
-                interpreter.execute(ast);
+                stats.begin("interpretation");
+                if (vmMode) {
+                    new VirtualMachine().execute(ast);
+                } else if (closureMode) {
+                    new ClosureInterpreter().execute(ast);
+                } else {
+                    GoInterpreter interpreter = new GoInterpreter();
+                    interpreter.execute(ast);
+                }
+                stats.end();
                 System.out.println(">>> Execução concluída.");
             }
 
@@ -131,6 +193,24 @@ public class Main {
         } catch (Exception e) {
             System.err.println("❌ Erro durante a análise: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // Também quando a análise falha: ficam as fases que chegaram a rodar
+            if (stats.isEnabled()) {
+                String statsMode = compileMode ? "llvm" : vmMode ? "vm" : closureMode ? "closure" : "interpreter";
+                writeStats(stats, filePath, statsMode);
+            }
+        }
+    }
+
+    // Grava as métricas do --stats ao lado do arquivo de entrada, como o .ll
+    private static void writeStats(PhaseStats stats, String filePath, String mode) {
+        int dotIndex = filePath.lastIndexOf('.');
+        String statsPath = (dotIndex > 0 ? filePath.substring(0, dotIndex) : filePath) + ".stats.json";
+        try {
+            Files.write(Paths.get(statsPath), stats.toJson(filePath, mode).getBytes(StandardCharsets.UTF_8));
+            System.out.println("Métricas das fases gravadas em: " + statsPath);
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao gravar as métricas: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
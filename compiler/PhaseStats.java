@@ -0,0 +1,164 @@
+package compiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import compiler.ast.AST;
+
+/**
+ * Métricas de cada fase do pipeline, para o --stats: tempo de relógio, bytes alocados
+ * pela thread (ThreadMXBean da HotSpot; -1 se a JVM não mede) e contadores da fase
+ * (tokens, nós, instruções...). O resultado sai em JSON, para comparar versões do
+ * compilador sobre o mesmo conjunto de programas.
+ *
+ * Desativado, begin/end/count não fazem nada, e os contadores, que podem percorrer a
+ * árvore inteira, nem são calculados.
+ */
+public class PhaseStats {
+
+    private static final class Phase {
+        final String name;
+        long wallNanos;
+        long allocatedBytes;
+        final Map<String, Long> counters = new LinkedHashMap<>();
+
+        Phase(String name) {
+            this.name = name;
+        }
+    }
+
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean threads; // null se a JVM não mede alocação
+    private final List<Phase> phases = new ArrayList<>();
+    private Phase current;
+    private long startNanos;
+    private long startBytes;
+
+    public PhaseStats(boolean enabled) {
+        this.enabled = enabled;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (enabled && bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            this.threads = (com.sun.management.ThreadMXBean) bean;
+            this.threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threads = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Começa a medir a fase 'name'; a fase anterior, se ainda aberta, é encerrada.
+     */
+    public void begin(String name) {
+        if (!enabled) return;
+        if (current != null) end();
+        current = new Phase(name);
+        startBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    public void end() {
+        if (!enabled || current == null) return;
+        current.wallNanos = System.nanoTime() - startNanos;
+        current.allocatedBytes = threads == null ? -1 : allocatedBytes() - startBytes;
+        phases.add(current);
+        current = null;
+    }
+
+    /**
+     * Acrescenta um contador à última fase encerrada (ou à que está aberta).
+     */
+    public void count(String counter, LongSupplier value) {
+        if (!enabled) return;
+        Phase phase = current != null ? current : phases.isEmpty() ? null : phases.get(phases.size() - 1);
+        if (phase != null) phase.counters.put(counter, value.getAsLong());
+    }
+
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public String toJson(String file, String mode) {
+        long totalNanos = 0;
+        long totalBytes = 0;
+        StringBuilder out = new StringBuilder();
+        out.append("{\n  \"file\": ").append(quote(file))
+           .append(",\n  \"mode\": ").append(quote(mode))
+           .append(",\n  \"phases\": [");
+        for (int i = 0; i < phases.size(); i++) {
+            Phase phase = phases.get(i);
+            totalNanos += phase.wallNanos;
+            totalBytes = phase.allocatedBytes < 0 || totalBytes < 0 ? -1 : totalBytes + phase.allocatedBytes;
+            out.append(i == 0 ? "\n" : ",\n")
+               .append("    {\"name\": ").append(quote(phase.name))
+               .append(", \"wallMs\": ").append(millis(phase.wallNanos))
+               .append(", \"allocatedBytes\": ").append(phase.allocatedBytes);
+            for (Map.Entry<String, Long> counter : phase.counters.entrySet()) {
+                out.append(", ").append(quote(counter.getKey())).append(": ").append(counter.getValue());
+            }
+            out.append('}');
+        }
+        out.append("\n  ],\n  \"totalWallMs\": ").append(millis(totalNanos))
+           .append(",\n  \"totalAllocatedBytes\": ").append(totalBytes)
+           .append("\n}\n");
+        return out.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String quote(String text) {
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.append('"').toString();
+    }
+
+    // Contagens percorrem as árvores com pilha explícita: programas grandes geram
+    // árvores mais profundas do que a pilha Java aguenta em recursão.
+
+    public static long countNodes(ParseTree tree) {
+        long count = 0;
+        Deque<ParseTree> pending = new ArrayDeque<>();
+        if (tree != null) pending.push(tree);
+        while (!pending.isEmpty()) {
+            ParseTree node = pending.pop();
+            count++;
+            for (int i = 0; i < node.getChildCount(); i++) {
+                pending.push(node.getChild(i));
+            }
+        }
+        return count;
+    }
+
+    public static long countNodes(AST root) {
+        long count = 0;
+        Deque<AST> pending = new ArrayDeque<>();
+        if (root != null) pending.push(root);
+        while (!pending.isEmpty()) {
+            AST node = pending.pop();
+            count++;
+            for (AST child : node.getChildren()) {
+                if (child != null) pending.push(child);
+            }
+        }
+        return count;
+    }
+}
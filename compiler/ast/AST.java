@@ -3,6 +3,7 @@ package compiler.ast;
 import java.util.ArrayList;
 import java.util.List;
 
+import compiler.tables.BuiltinFunction;
 import compiler.tables.VarTable;
 import compiler.typing.GoType;
 
@@ -25,6 +26,20 @@ public class AST {
 	public final GoType type;           // Tipo inicial (pode ser null)
 	private GoType annotatedType;       // Tipo inferido pelo semantic checker
 
+	// Endereço da variável resolvido pelo ScopeResolver do interpretador:
+	// profundidade do escopo (global ou local) e slot dentro do frame.
+	private int scopeDepth;
+	private int slot;
+	private int frameSize;              // Só para PROGRAM_NODE e FUNC_DECL_NODE: nº de slots do frame
+
+	// Ligação de CALL_NODE feita pelo ScopeResolver: a declaração da função chamada
+	// ou, para funções nativas, qual delas é.
+	private AST callee;
+	private BuiltinFunction builtin;
+
+	// Marca do TailCallMarker: CALL_NODE em posição de cauda (depois dela a função só retorna).
+	private boolean tailCall;
+
 	private final List<AST> children; // Privado para que a manipulação da lista seja controlável.
 
 	// Construtor completo para poder tornar todos os campos finais.
@@ -40,6 +55,12 @@ public class AST {
 		this.line = line;
 		this.column = column;
 		this.annotatedType = null;
+		this.scopeDepth = 0;
+		this.slot = -1;
+		this.frameSize = 0;
+		this.callee = null;
+		this.builtin = null;
+		this.tailCall = false;
 		this.children = new ArrayList<AST>();
 	}
 
@@ -81,6 +102,16 @@ public class AST {
 	    return this.children.get(idx);
 	}
 
+	// Troca o filho no índice passado (usado pelos passes que reescrevem a árvore).
+	public void setChild(int idx, AST child) {
+		this.children.set(idx, child);
+	}
+
+	// Remove o filho no índice passado; os seguintes andam uma posição.
+	public void removeChild(int idx) {
+		this.children.remove(idx);
+	}
+
 	public int getChildCount() {
 		return this.children.size();
 	}
@@ -106,6 +137,57 @@ public class AST {
 		return annotatedType != null;
 	}
 
+	// Métodos para o endereço resolvido (depth, slot)
+	public void setAddress(int scopeDepth, int slot) {
+		this.scopeDepth = scopeDepth;
+		this.slot = slot;
+	}
+
+	public int getScopeDepth() {
+		return scopeDepth;
+	}
+
+	public int getSlot() {
+		return slot;
+	}
+
+	public boolean isResolved() {
+		return slot >= 0;
+	}
+
+	public int getFrameSize() {
+		return frameSize;
+	}
+
+	public void setFrameSize(int frameSize) {
+		this.frameSize = frameSize;
+	}
+
+	// Métodos para a ligação de chamadas
+	public AST getCallee() {
+		return callee;
+	}
+
+	public void setCallee(AST callee) {
+		this.callee = callee;
+	}
+
+	public BuiltinFunction getBuiltin() {
+		return builtin;
+	}
+
+	public void setBuiltin(BuiltinFunction builtin) {
+		this.builtin = builtin;
+	}
+
+	public boolean isTailCall() {
+		return tailCall;
+	}
+
+	public void setTailCall(boolean tailCall) {
+		this.tailCall = tailCall;
+	}
+
 	// Métodos factory estáticos
 
 	// Cria um nó e pendura todos os filhos passados como argumento.
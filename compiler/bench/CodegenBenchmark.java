@@ -0,0 +1,158 @@
+package compiler.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import Go_Parser.Go_Lexer;
+import Go_Parser.Go_Parser;
+import compiler.ast.AST;
+import compiler.checker.GoSemanticChecker;
+import compiler.codegen.GoCodegenVisitor;
+import compiler.opt.ConstantFolder;
+import compiler.opt.DeadCodeEliminator;
+import compiler.opt.TailCallMarker;
+
+/**
+ * Mede o tempo do GoCodegenVisitor em programas sintéticos de tamanhos crescentes.
+ * Se a geração for linear, o tempo por mil linhas fica constante entre os tamanhos.
+ *
+ * Com --scopes o programa é uma função só, com muitas variáveis locais e muitos blocos
+ * aninhados, o caso em que o custo de abrir um escopo na tabela de símbolos aparece.
+ *
+ * Uso: java compiler.bench.CodegenBenchmark [--scopes] [linhas ...]   (padrão: 5000 10000 25000 50000)
+ */
+public class CodegenBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    public static void main(String[] args) {
+        boolean scopes = args.length > 0 && args[0].equals("--scopes");
+        int first = scopes ? 1 : 0;
+        int[] sizes = {5000, 10000, 25000, 50000};
+        if (args.length > first) {
+            sizes = new int[args.length - first];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = Integer.parseInt(args[first + i]);
+            }
+        }
+
+        System.out.printf("%10s %10s %12s %14s%n", "linhas", scopes ? "blocos" : "loops", "codegen (ms)", "ms/1000 linhas");
+        for (int targetLines : sizes) {
+            String source = scopes ? generateScopes(targetLines) : generate(targetLines);
+            int lines = source.split("\n", -1).length;
+            AST ast = check(source);
+
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                new GoCodegenVisitor().run(ast);
+            }
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                new GoCodegenVisitor().run(ast);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            double ms = best / 1e6;
+            int count = scopes ? blockCount(targetLines) : loopCount(targetLines);
+            System.out.printf("%10d %10d %12.1f %14.3f%n", lines, count, ms, ms * 1000 / lines);
+        }
+    }
+
+    // Cada função gerada tem FUNCTION_LINES linhas e dois laços (um for clássico e um "while").
+    private static final int FUNCTION_LINES = 16;
+
+    private static int loopCount(int targetLines) {
+        return 2 * Math.max(1, targetLines / FUNCTION_LINES);
+    }
+
+    // Programa válido com ~targetLines linhas: funções com laços, ifs e breaks, chamadas pelo main.
+    static String generate(int targetLines) {
+        int functions = Math.max(1, targetLines / FUNCTION_LINES);
+        StringBuilder sb = new StringBuilder();
+        for (int f = 0; f < functions; f++) {
+            sb.append("func f").append(f).append("(n int) int {\n")
+              .append("    s := 0\n")
+              .append("    for i := 0; i < n; i++ {\n")
+              .append("        if i % 3 == 0 {\n")
+              .append("            s = s + i\n")
+              .append("        } else {\n")
+              .append("            s = s - ").append(f % 7 + 1).append("\n")
+              .append("        }\n")
+              .append("    }\n")
+              .append("    for s > 100 {\n")
+              .append("        s = s / 2\n")
+              .append("        if s == 17 {\n")
+              .append("            break\n")
+              .append("        }\n")
+              .append("    }\n")
+              .append("    return s\n}\n");
+        }
+        sb.append("func main() {\n    total := 0\n");
+        for (int f = 0; f < functions; f++) {
+            sb.append("    total = total + f").append(f).append("(").append(f % 50).append(")\n");
+        }
+        sb.append("    println(total)\n}\n");
+        return sb.toString();
+    }
+
+    // Profundidade de cada grupo de ifs aninhados em generateScopes; um grupo ocupa
+    // 2 * SCOPE_DEPTH + 1 linhas.
+    private static final int SCOPE_DEPTH = 4;
+
+    private static int blockCount(int targetLines) {
+        return SCOPE_DEPTH * Math.max(1, targetLines / 2 / (2 * SCOPE_DEPTH + 1));
+    }
+
+    // main com ~targetLines linhas: metade declarações de variáveis locais, metade grupos de
+    // ifs aninhados. Cada bloco vê todas as variáveis, então copiar o escopo ao entrar
+    // num bloco custaria O(variáveis x blocos).
+    static String generateScopes(int targetLines) {
+        int variables = Math.max(1, targetLines / 2);
+        int groups = Math.max(1, targetLines / 2 / (2 * SCOPE_DEPTH + 1));
+        StringBuilder sb = new StringBuilder("func main() {\n");
+        for (int v = 0; v < variables; v++) {
+            sb.append("    v").append(v).append(" := ").append(v).append("\n");
+        }
+        for (int g = 0; g < groups; g++) {
+            for (int d = 0; d < SCOPE_DEPTH; d++) {
+                sb.append("    ".repeat(d + 1)).append("if v").append((g + d) % variables)
+                  .append(" < ").append(g + d).append(" {\n");
+            }
+            int target = (g * 7) % variables;
+            sb.append("    ".repeat(SCOPE_DEPTH + 1)).append("v").append(target)
+              .append(" = v").append(target).append(" + 1\n");
+            for (int d = SCOPE_DEPTH - 1; d >= 0; d--) {
+                sb.append("    ".repeat(d + 1)).append("}\n");
+            }
+        }
+        sb.append("    println(v0)\n}\n");
+        return sb.toString();
+    }
+
+    // Análise completa do programa (com os passes de compiler.opt, como no Main); a saída de depuração do checker é descartada.
+    private static AST check(String source) {
+        Go_Parser parser = new Go_Parser(new CommonTokenStream(new Go_Lexer(CharStreams.fromString(source))));
+        ParseTree tree = parser.program();
+        GoSemanticChecker checker = new GoSemanticChecker();
+        PrintStream out = System.out;
+        AST ast;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            ast = checker.visit(tree);
+        } finally {
+            System.setOut(out);
+        }
+        if (parser.getNumberOfSyntaxErrors() > 0 || checker.hasSemanticErrors()) {
+            throw new IllegalStateException("Programa sintético inválido");
+        }
+        new ConstantFolder().fold(ast);
+        new DeadCodeEliminator().eliminate(ast);
+        new TailCallMarker().mark(ast);
+        return ast;
+    }
+}
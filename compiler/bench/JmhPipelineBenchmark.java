@@ -0,0 +1,118 @@
+package compiler.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Go_Parser.Go_Lexer;
+import Go_Parser.Go_Parser;
+import compiler.ast.AST;
+import compiler.checker.GoSemanticChecker;
+import compiler.codegen.GoCodegenVisitor;
+import compiler.interpreter.GoInterpreter;
+import compiler.opt.ConstantFolder;
+import compiler.opt.DeadCodeEliminator;
+import compiler.opt.TailCallMarker;
+
+/**
+ * Benchmarks JMH de cada fase do pipeline (lexer, parser, checker, gerador de código e
+ * interpretador) sobre programas do ProgramGenerator, com o tamanho em linhas e a
+ * profundidade de aninhamento como parâmetros. Cada fase recebe pronta, do @Setup, a
+ * saída das anteriores, então mede só o próprio trabalho.
+ *
+ * Não entra no build normal, que não tem os jars do JMH; roda com 'make jmh'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JmhPipelineBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int lines;
+
+    @Param({"2"})
+    public int depth;
+
+    private String source;
+    private List<? extends Token> tokens;
+    private ParseTree tree;
+    private AST ast;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // O checker imprime mensagens de depuração e o programa imprime o total
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        source = new ProgramGenerator().setDepth(depth).sized(lines).generate();
+        tokens = new Go_Lexer(CharStreams.fromString(source)).getAllTokens();
+        tree = parse();
+        GoSemanticChecker checker = new GoSemanticChecker();
+        ast = checker.visit(tree);
+        if (checker.hasSemanticErrors()) {
+            throw new IllegalStateException("Programa sintético inválido");
+        }
+        new ConstantFolder().fold(ast);
+        new DeadCodeEliminator().eliminate(ast);
+        new TailCallMarker().mark(ast);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public List<? extends Token> lexer() {
+        return new Go_Lexer(CharStreams.fromString(source)).getAllTokens();
+    }
+
+    @Benchmark
+    public ParseTree parser() {
+        return parse();
+    }
+
+    @Benchmark
+    public AST checker() {
+        return new GoSemanticChecker().visit(tree);
+    }
+
+    @Benchmark
+    public String codegen() {
+        return new GoCodegenVisitor().run(ast);
+    }
+
+    @Benchmark
+    public void interpreter() {
+        new GoInterpreter().execute(ast);
+    }
+
+    // Os tokens já lidos voltam ao parser por um ListTokenSource, sem passar pelo lexer
+    private ParseTree parse() {
+        return new Go_Parser(new CommonTokenStream(new ListTokenSource(tokens))).program();
+    }
+}
@@ -0,0 +1,227 @@
+package compiler.bench;
+
+/**
+ * Gera programas Go válidos para a gramática aceita (grammar/Go_Parser.g), com tamanho e
+ * forma ajustáveis, para medir como o tempo de cada fase cresce com a entrada (com o
+ * --stats do Main ou com os benchmarks deste pacote). Os casos de teste têm poucas
+ * dezenas de linhas, e comportamento quadrático só aparece em entradas grandes.
+ *
+ * Parâmetros:
+ * - functions: funções geradas além de main, cada uma chamada uma vez por main;
+ * - depth: profundidade de aninhamento em cada função. Cada bloco acima dela começa com
+ *   um for (enquanto a função tiver laços) ou um if/else que abre o nível seguinte;
+ * - statements: statements por bloco, contando o que abre o nível seguinte;
+ * - literalSize: elementos do literal de slice e caracteres do literal string;
+ * - loops: laços for por função. Eles ocupam os primeiros níveis, um dentro do outro;
+ * - iterations: iterações de cada laço. Como os laços estão aninhados, o tempo de
+ *   execução cresce como iterations^min(loops, depth).
+ *
+ * Os blocos misturam declarações, aritmética de int e float64, condições com && e ||,
+ * indexação de slice, len, concatenação de strings, chamadas e atribuições a global. Os
+ * valores ficam sempre pequenos (sem overflow de int de 32 bits) e o programa imprime um
+ * único inteiro, igual em todos os modos de execução.
+ *
+ * Uso: java compiler.bench.ProgramGenerator [--lines N] [--functions N] [--depth N]
+ *          [--statements N] [--literal-size N] [--loops N] [--iterations N] > programa.go
+ * (--lines escolhe o número de funções para chegar perto de N linhas.)
+ */
+public class ProgramGenerator {
+
+    // Módulo que mantém o acumulador de cada função pequeno
+    private static final int MODULUS = 100003;
+    private static final int STATEMENT_KINDS = 6;
+
+    private int functions = 10;
+    private int depth = 2;
+    private int statements = 4;
+    private int literalSize = 8;
+    private int loops = 2;
+    private int iterations = 10;
+
+    // Estado da função sendo gerada
+    private int nextKind;
+    private int nextLocal;
+    private int loopsLeft;
+
+    public ProgramGenerator setFunctions(int functions) {
+        this.functions = Math.max(1, functions);
+        return this;
+    }
+
+    public ProgramGenerator setDepth(int depth) {
+        this.depth = Math.max(0, depth);
+        return this;
+    }
+
+    public ProgramGenerator setStatements(int statements) {
+        this.statements = Math.max(1, statements);
+        return this;
+    }
+
+    public ProgramGenerator setLiteralSize(int literalSize) {
+        this.literalSize = Math.max(1, literalSize);
+        return this;
+    }
+
+    public ProgramGenerator setLoops(int loops) {
+        this.loops = Math.max(0, loops);
+        return this;
+    }
+
+    public ProgramGenerator setIterations(int iterations) {
+        this.iterations = Math.max(0, iterations);
+        return this;
+    }
+
+    /**
+     * Ajusta o número de funções para o programa ter cerca de targetLines linhas,
+     * mantendo a forma de cada função.
+     */
+    public ProgramGenerator sized(int targetLines) {
+        // As funções variam um pouco de tamanho com o rodízio dos statements; a média de
+        // um rodízio completo vale para todas
+        StringBuilder sample = new StringBuilder();
+        for (int f = 0; f < STATEMENT_KINDS; f++) {
+            function(sample, f);
+        }
+        double linesPerFunction = (double) countLines(sample) / STATEMENT_KINDS + 1; // Mais a chamada em main
+        return setFunctions((int) Math.round(targetLines / linesPerFunction));
+    }
+
+    public String generate() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("const M = ").append(MODULUS).append("\n\n")
+          .append("var total int\n")
+          .append("var calls int\n\n")
+          .append("func mix(a int, b int) int {\n")
+          .append("    return (a * 31 + b) % M\n")
+          .append("}\n");
+        for (int f = 0; f < functions; f++) {
+            sb.append('\n');
+            function(sb, f);
+        }
+
+        sb.append("\nfunc main() {\n    xs := []int{");
+        for (int i = 0; i < literalSize; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(i % 100 + 1);
+        }
+        sb.append("}\n    s := \"");
+        for (int i = 0; i < literalSize; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        sb.append("\"\n    total = 0\n    calls = 0\n");
+        for (int f = 0; f < functions; f++) {
+            sb.append("    total = (total + f").append(f).append("(").append(iterations).append(", xs, s)) % M\n");
+        }
+        sb.append("    println((total + calls) % M)\n}\n");
+        return sb.toString();
+    }
+
+    private void function(StringBuilder sb, int index) {
+        nextKind = index;
+        nextLocal = 0;
+        loopsLeft = loops;
+        sb.append("func f").append(index).append("(n int, xs []int, s string) int {\n")
+          .append("    acc := ").append(index % 7).append('\n')
+          .append("    var x float64 = 1.0\n");
+        block(sb, 0, 1);
+        sb.append("    if x > 1000.0 {\n")
+          .append("        acc = acc + 1\n")
+          .append("    }\n")
+          .append("    return acc\n")
+          .append("}\n");
+    }
+
+    private void block(StringBuilder sb, int level, int indent) {
+        int simple = statements;
+        if (level < depth) {
+            nested(sb, level, indent);
+            simple--;
+        }
+        for (int i = 0; i < simple; i++) {
+            statement(sb, indent);
+        }
+    }
+
+    // Abre o nível seguinte: um for enquanto a função ainda tem laços, depois um if/else.
+    // Só o ramo then desce mais; com os dois ramos descendo, o número de blocos seria
+    // exponencial na profundidade.
+    private void nested(StringBuilder sb, int level, int indent) {
+        String pad = "    ".repeat(indent);
+        if (loopsLeft > 0) {
+            loopsLeft--;
+            String counter = "i" + nextLocal++;
+            sb.append(pad).append("for ").append(counter).append(" := 0; ").append(counter).append(" < n; ")
+              .append(counter).append("++ {\n")
+              .append(pad).append("    acc = (acc + ").append(counter).append(") % M\n");
+            block(sb, level + 1, indent + 1);
+            sb.append(pad).append("}\n");
+        } else {
+            sb.append(pad).append("if acc % 2 == 0 && n > 0 || acc > 50000 {\n");
+            block(sb, level + 1, indent + 1);
+            sb.append(pad).append("} else {\n");
+            statement(sb, indent + 1);
+            sb.append(pad).append("}\n");
+        }
+    }
+
+    // Os tipos de statement simples se alternam em rodízio, continuando de um bloco para o outro
+    private void statement(StringBuilder sb, int indent) {
+        String pad = "    ".repeat(indent);
+        switch (nextKind++ % STATEMENT_KINDS) {
+            case 0: {
+                String local = "v" + nextLocal++;
+                sb.append(pad).append(local).append(" := (acc + ").append(nextLocal % 89 + 1).append(") % 97\n")
+                  .append(pad).append("acc = (acc + ").append(local).append(") % M\n");
+                break;
+            }
+            case 1:
+                sb.append(pad).append("acc = (acc * 3 + n) % M\n");
+                break;
+            case 2:
+                sb.append(pad).append("x = x * 0.5 + 1.0\n");
+                break;
+            case 3:
+                sb.append(pad).append("acc = (acc + xs[acc % len(xs)]) % M\n");
+                break;
+            case 4:
+                sb.append(pad).append("acc = (acc + len(s + \"ab\")) % M\n");
+                break;
+            default:
+                sb.append(pad).append("acc = mix(acc, n)\n")
+                  .append(pad).append("calls = (calls + 1) % M\n");
+                break;
+        }
+    }
+
+    private static int countLines(CharSequence text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') lines++;
+        }
+        return lines;
+    }
+
+    public static void main(String[] args) {
+        ProgramGenerator generator = new ProgramGenerator();
+        int lines = -1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            int value = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--lines":        lines = value; break;
+                case "--functions":    generator.setFunctions(value); break;
+                case "--depth":        generator.setDepth(value); break;
+                case "--statements":   generator.setStatements(value); break;
+                case "--literal-size": generator.setLiteralSize(value); break;
+                case "--loops":        generator.setLoops(value); break;
+                case "--iterations":   generator.setIterations(value); break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    return;
+            }
+        }
+        if (lines > 0) generator.sized(lines);
+        System.out.print(generator.generate());
+    }
+}
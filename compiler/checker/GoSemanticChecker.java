@@ -11,6 +11,7 @@ import compiler.tables.ArrayTable;
 import compiler.ast.AST;
 import compiler.ast.NodeKind;
 import compiler.tables.ArrayInfo;
+import compiler.tables.BuiltinFunction;
 import compiler.typing.GoType;
 import compiler.typing.TypeTable;
 import java.util.List;
@@ -593,12 +594,8 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
     public AST visitCompositeLiteralExpr(Go_Parser.CompositeLiteralExprContext ctx) {
         System.out.println("DEBUG: CompositeLiteralExpr");
         
-        // Criar nó principal para o composite literal
-        AST compositeLiteralNode = new AST(NodeKind.COMPOSITE_LITERAL_NODE, GoType.UNKNOWN);
-        
-        // Por enquanto, retornamos um nó simples
-        // A inferência de tipo será tratada no método inferArgumentType
-        return compositeLiteralNode;
+        // O único composite literal da gramática é o de slice ([]T{...})
+        return visit(ctx.compositeLiteral());
     }
 
     /**
@@ -611,23 +608,33 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
         // Criar nó para array/slice literal
         AST arrayLiteralNode = new AST(NodeKind.COMPOSITE_LITERAL_NODE, GoType.UNKNOWN);
         
-        // Processar tipo se disponível
+        // O tipo do literal é []T, onde T é o typeSpec entre ']' e '{'
+        GoType elementType = GoType.UNKNOWN;
         if (ctx.typeSpec() != null) {
-            // Para agora, vamos usar o toString() como fallback
-            String typeText = ctx.typeSpec().toString();
-            GoType arrayType = GoType.fromString(typeText);
+            elementType = GoType.fromString(ctx.typeSpec().getText());
+            GoType arrayType = GoType.arrayOf(elementType);
             arrayLiteralNode.setAnnotatedType(arrayType);
             
             System.out.println("DEBUG: ArraySliceLiteral type inferred: " + arrayType.getTypeName());
         }
         
-        // Processar lista de expressões se disponível
+        // Os elementos ficam num EXPR_LIST_NODE e precisam ter o tipo do elemento
+        AST exprListNode = new AST(NodeKind.EXPR_LIST_NODE, GoType.NO_TYPE);
+        arrayLiteralNode.addChild(exprListNode);
         if (ctx.expressionList() != null) {
-            AST exprListNode = new AST(NodeKind.EXPR_LIST_NODE, GoType.NO_TYPE);
-            arrayLiteralNode.addChild(exprListNode);
-            
-            // Por enquanto, apenas criamos o nó sem processar as expressões detalhadamente
-            // Isso pode ser expandido mais tarde conforme necessário
+            Go_Parser.ExprListContext exprList = (Go_Parser.ExprListContext) ctx.expressionList();
+            for (Go_Parser.ExprContext exprCtx : exprList.expr()) {
+                AST elementNode = visit(exprCtx);
+                if (elementNode == null) {
+                    reportSemanticError(exprCtx, "invalid element in slice literal");
+                    continue;
+                }
+                if (!areTypesCompatible(elementNode.getAnnotatedType(), elementType)) {
+                    reportSemanticError(exprCtx, "cannot use " + elementNode.getAnnotatedType().getTypeName() +
+                                        " as type " + elementType.getTypeName() + " in slice literal");
+                }
+                exprListNode.addChild(elementNode);
+            }
         }
         
         return arrayLiteralNode;
@@ -979,6 +986,15 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
                  callNode.setAnnotatedType(GoType.VOID); // Fallback
             }
 
+            // len e append têm regras de tipo que dependem dos argumentos
+            BuiltinFunction builtin = BuiltinFunction.lookup(functionName);
+            if (builtin == BuiltinFunction.LEN) {
+                checkLenCall(ctx, callNode);
+            } else if (builtin == BuiltinFunction.APPEND) {
+                checkAppendCall(ctx, callNode);
+                funcIdNode.setAnnotatedType(callNode.getAnnotatedType());
+            }
+
         } else {
             // --- Lógica Padrão para Funções Definidas pelo Usuário ---
             FunctionInfo funcInfo = functionTable.getFunction(functionName);
@@ -1021,11 +1037,52 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
         return callNode;
     }
 
+    /**
+     * len(x): um argumento, slice ou string; o resultado é int
+     */
+    private void checkLenCall(Go_Parser.CallExpressionContext ctx, AST callNode) {
+        if (callNode.getChildCount() != 2) {
+            reportSemanticError(ctx, "len expects 1 argument, but got " + (callNode.getChildCount() - 1));
+            return;
+        }
+        GoType argType = callNode.getChild(1).getAnnotatedType();
+        if (argType != GoType.UNKNOWN && argType != GoType.STRING && !argType.isArray()) {
+            reportSemanticError(ctx, "invalid argument for len: " + argType.getTypeName());
+        }
+    }
+
+    /**
+     * append(s, x...): o primeiro argumento é um slice e os demais, elementos dele.
+     * O resultado tem o tipo do slice.
+     */
+    private void checkAppendCall(Go_Parser.CallExpressionContext ctx, AST callNode) {
+        if (callNode.getChildCount() < 2) {
+            reportSemanticError(ctx, "append expects at least 1 argument");
+            callNode.setAnnotatedType(GoType.UNKNOWN);
+            return;
+        }
+        GoType sliceType = callNode.getChild(1).getAnnotatedType();
+        if (!sliceType.isArray()) {
+            reportSemanticError(ctx, "first argument to append must be a slice, got " + sliceType.getTypeName());
+            callNode.setAnnotatedType(GoType.UNKNOWN);
+            return;
+        }
+        GoType elementType = sliceType.getElementType();
+        for (int i = 2; i < callNode.getChildCount(); i++) {
+            GoType argType = callNode.getChild(i).getAnnotatedType();
+            if (!areTypesCompatible(argType, elementType)) {
+                reportSemanticError(ctx, "cannot use " + argType.getTypeName() + " as type " +
+                                    elementType.getTypeName() + " in argument to append");
+            }
+        }
+        callNode.setAnnotatedType(sliceType);
+    }
+
     /**
      * Verifica se uma função é built-in do Go
      */
     private boolean isBuiltInFunction(String functionName) {
-        return "println".equals(functionName) || "len".equals(functionName) || "scanln".equals(functionName);
+        return BuiltinFunction.lookup(functionName) != null;
     }
 
 
@@ -1268,7 +1325,9 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
         AST rvalueNode = visit(ctx.expr());
 
         if (lvalueNode != null && rvalueNode != null) {
-            String varName = lvalueNode.text;
+            // Em arr[i] = x, a variável é o array (primeiro filho do INDEX_NODE)
+            String varName = lvalueNode.kind == NodeKind.INDEX_NODE && lvalueNode.hasChildren()
+                    ? lvalueNode.getChild(0).text : lvalueNode.text;
             GoType lvalueType = lvalueNode.getAnnotatedType();
             GoType rvalueType = rvalueNode.getAnnotatedType();
             VarEntry varEntry = varTable.lookup(varName);
@@ -1280,11 +1339,6 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
                     reportSemanticError(ctx, "cannot assign to constant '" + varName + "'");
                 }
 
-                if (lvalueNode.kind == NodeKind.INDEX_NODE) {
-                    // TODO: Implementar a lógica de verificação para atribuição em arrays aqui.
-                    System.out.println("DEBUG: Array assignment detected but not yet fully implemented.");
-                }
-
                 if (!areTypesCompatible(rvalueType, lvalueType)) {
                     reportSemanticError(ctx, "cannot use " + rvalueType.getTypeName() + 
                                         " as type " + lvalueType.getTypeName() + " in assignment");
@@ -1416,8 +1470,18 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
         // Este método apenas coleta os 3 componentes da cláusula.
         AST clauseNode = new AST(NodeKind.FOR_CLAUSE_NODE, GoType.NO_TYPE);
 
+        // init e post são ambos simpleStmt opcionais: a posição em relação ao primeiro
+        // ';' é que diz qual é qual (em 'for ; i < n; i++' o único simpleStmt é o post).
+        Go_Parser.SimpleStmtContext initCtx = null;
+        Go_Parser.SimpleStmtContext postCtx = null;
+        int firstSemicolon = ctx.SEMICOLON(0).getSymbol().getTokenIndex();
+        for (Go_Parser.SimpleStmtContext stmtCtx : ctx.simpleStmt()) {
+            if (stmtCtx.getStart().getTokenIndex() < firstSemicolon) initCtx = stmtCtx;
+            else postCtx = stmtCtx;
+        }
+
         // 1. Inicialização (opcional)
-        clauseNode.addChild(ctx.simpleStmt(0) != null ? visit(ctx.simpleStmt(0)) : null);
+        clauseNode.addChild(initCtx != null ? visit(initCtx) : null);
         
         // 2. Condição (opcional)
         AST conditionNode = null;
@@ -1430,7 +1494,7 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
         clauseNode.addChild(conditionNode);
 
         // 3. Pós-execução (opcional)
-        clauseNode.addChild(ctx.simpleStmt(1) != null ? visit(ctx.simpleStmt(1)) : null);
+        clauseNode.addChild(postCtx != null ? visit(postCtx) : null);
 
         return clauseNode;
     }
@@ -1456,6 +1520,39 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
             return new AST(NodeKind.INDEX_NODE, GoType.UNKNOWN);
         }
         
+        return checkIndexAccess(ctx, arrayNode, indexNode);
+    }
+
+    /**
+     * Processa arrays usados como lvalue (arr[index] = ..., arr[index]++)
+     */
+    @Override
+    public AST visitArrayAccessLvalue(Go_Parser.ArrayAccessLvalueContext ctx) {
+        return visit(ctx.arrayAccess());
+    }
+
+    @Override
+    public AST visitArrayIndex(Go_Parser.ArrayIndexContext ctx) {
+        String arrayName = ctx.ID().getText();
+        AST arrayNode = AST.id(arrayName, ctx.start.getLine(), 0);
+        VarEntry entry = varTable.lookup(arrayName);
+        if (entry != null) {
+            arrayNode.setAnnotatedType(entry.getType());
+        }
+
+        AST indexNode = visit(ctx.expr());
+        if (indexNode == null) {
+            reportSemanticError(ctx, "invalid index expression");
+            return new AST(NodeKind.INDEX_NODE, GoType.UNKNOWN);
+        }
+        return checkIndexAccess(ctx, arrayNode, indexNode);
+    }
+
+    /**
+     * Verificações comuns a arr[index] em expressões e em lvalues.
+     * Devolve o INDEX_NODE anotado com o tipo do elemento.
+     */
+    private AST checkIndexAccess(org.antlr.v4.runtime.ParserRuleContext ctx, AST arrayNode, AST indexNode) {
         String arrayName = arrayNode.text;
         
         System.out.println("DEBUG: Array access - name: " + arrayName + ", index: " + indexNode.text);
@@ -1578,8 +1675,9 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
             return new AST(NodeKind.INC_DEC_STMT_NODE, GoType.NO_TYPE);
         }
 
-        // Verificar se a variável existe e é numérica
-        String varName = lvalueNode.text;
+        // Verificar se a variável existe e é numérica (em arr[i]++, a variável é o array)
+        boolean isIndex = lvalueNode.kind == NodeKind.INDEX_NODE && lvalueNode.hasChildren();
+        String varName = isIndex ? lvalueNode.getChild(0).text : lvalueNode.text;
         VarEntry varEntry = varTable.lookup(varName);
         if (varEntry == null) {
             reportSemanticError(ctx, "undefined variable '" + varName + "'");
@@ -1591,7 +1689,7 @@ public class GoSemanticChecker extends Go_ParserBaseVisitor<AST> {
             return new AST(NodeKind.INC_DEC_STMT_NODE, GoType.NO_TYPE);
         }
 
-        GoType varType = varEntry.getType();
+        GoType varType = isIndex ? lvalueNode.getAnnotatedType() : varEntry.getType();
         if (!varType.isNumeric()) {
             reportSemanticError(ctx, "invalid operation: increment/decrement on non-numeric type " + varType.getTypeName());
             return new AST(NodeKind.INC_DEC_STMT_NODE, GoType.NO_TYPE);
@@ -2,8 +2,22 @@ package compiler.codegen;
 
 import compiler.ast.AST;
 import compiler.ast.NodeKind;
+import compiler.codegen.ir.BasicBlock;
+import compiler.codegen.ir.Constant;
+import compiler.codegen.ir.Function;
+import compiler.codegen.ir.IRBuilder;
+import compiler.codegen.ir.IRFileWriter;
+import compiler.codegen.ir.IRPrinter;
+import compiler.codegen.ir.Instruction;
+import compiler.codegen.ir.Mem2Reg;
+import compiler.codegen.ir.Module;
+import compiler.codegen.ir.Register;
+import compiler.codegen.ir.Value;
+import compiler.opt.FunctionEffects;
 import compiler.typing.GoType;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -11,88 +25,105 @@ import java.util.Map;
 import java.util.Stack;
 
 /**
- * GoCodegenVisitor gera código LLVM IR manualmente percorrendo a AST.
- * A saída é uma string de texto que pode ser salva em um arquivo .ll.
+ * GoCodegenVisitor gera código LLVM IR percorrendo a AST.
+ * As instruções são montadas num Module em memória (compiler.codegen.ir) com o IRBuilder.
+ * Em write(), cada função é otimizada e gravada pelo IRFileWriter assim que termina, e só o
+ * cabeçalho (tipos, globais e runtime) é gravado no fim; run() e generate() mantêm o
+ * módulo inteiro, que o IRPrinter transforma em texto .ll.
  */
 public class GoCodegenVisitor {
 
-    // Define um tamanho fixo para buffers de string alocados na pilha.
-    private static final int STRING_BUFFER_SIZE = 1024;
-
     // Classe interna para representar uma entrada na tabela de símbolos específica para a geração de código LLVM
     private static class SymbolTableEntry {
         final boolean isConstant; // Se é constante ou variável
-        final String value; // Valor literal (constantes) ou ponteiro LLVM (variáveis)
+        final Value value; // Valor literal (constantes) ou ponteiro LLVM (variáveis)
         final GoType type; // Tipo Go da variável/constante
 
-        SymbolTableEntry(boolean isConstant, String value, GoType type) {
+        SymbolTableEntry(boolean isConstant, Value value, GoType type) {
             this.isConstant = isConstant;
             this.value = value;
             this.type = type;
         }
     }
 
-    private StringBuilder irBuilder; // Constrói o código LLVM das funções (instruções, labels, etc.)
-    private StringBuilder headerBuilder; // Constrói declarações globais, constantes e protótipos de função
+    private Module module; // Declarações, globais e funções do arquivo .ll sendo gerado
+    private IRBuilder builder; // Insere instruções no bloco atual da função sendo gerada
     //  LLVM:
     //  Módulo: Arquivo .ll completo
     //  Funções: Blocos de código executável
     //  Globais: Variáveis e constantes globais
 
-    // Contadores para Nomes Únicos
-    private int regCounter; // Gera nomes únicos para registradores virtuais (%0, %1, etc.)
-    private int labelCounter; // Gera nomes únicos para labels de bloco (%if.then.0, etc.)
-    private int strCounter; // Gera nomes únicos para strings globais
+    private StringPool strings; // Strings constantes do módulo (literais e formatos), uma global por conteúdo
     //  LLVM:
     //  SSA (Static Single Assignment): Cada registrador virtual é atribuído apenas uma vez
-    //  Registradores Virtuais: %nome são temporários criados pelo compilador
+    //  Registradores Virtuais: %0, %1, ... são numerados pelo IRPrinter na ordem de definição
     //  Labels: Identificam blocos básicos para controle de fluxo
-
-    
-    private String currentBlock; // Rastreia o bloco básico atual
-    private boolean lastInstructionWasTerminator; // Controla se a última instrução termina o bloco
-    //  LLVM:
     //  Blocos Básicos: Sequências lineares de instruções terminadas por branch/return
-    //  Terminators: Instruções que terminam blocos (br, ret, etc.) 
 
-    private Stack<Map<String, SymbolTableEntry>> symbolTable; // Pilha de escopos para variáveis locais
+    private ScopeTable<SymbolTableEntry> symbolTable; // Escopos das variáveis locais (abrir um bloco é O(1))
     private Map<String, SymbolTableEntry> globalSymbols; // Mapa para variáveis globais
     //  LLVM:
     //  Escopos: LLVM não tem escopos implícitos - o compilador deve gerenciá-los
-    //  Variáveis Locais: Alocadas na pilha com alloca
+    //  Variáveis Locais: Alocadas na pilha com alloca; o Mem2Reg depois as promove para registradores
     //  Variáveis Globais: Declaradas no topo do módulo
 
     private Map<String, AST> functionDeclarations; // Cache das declarações de função para resolução
-    private Map<GoType, String> printfFormatStrings; // Cache de strings de formato para I/O
-    private Map<GoType, String> scanfFormatStrings; // Cache de strings de formato para I/O
-    private Map<String, Integer> stringLengths; // Cache dos comprimentos das strings
+    private FunctionEffects effects; // Efeitos de cada função sobre a memória, para os atributos do define
+    private Map<String, Constant> stringConstants; // Literais string { i8*, i64 } já montados, por conteúdo
     //  LLVM:
     //  Strings como Arrays: Strings são arrays de bytes ([N x i8])
     //  Constantes Globais: Strings são armazenadas como globais constantes
     //  Garbage Collection: Reuse de strings idênticas
 
-    private Stack<String> loopPostLabels; // Pilha de labels para instruções continue
-    private Stack<String> loopEndLabels; // Pilha de labels para instruções break
+    private RuntimeLibrary runtime; // Funções de runtime em IR (slices e strings), emitidas sob demanda
+    private IRFileWriter output; // Em write(), cada função vai para o arquivo assim que termina
+
+    // Laço 'for i := k; i < len(s); i++' (k >= 0) em que nem i nem s mudam no corpo:
+    // dentro dele s[i] está sempre nos limites e dispensa @go.slice.bounds
+    private static class InBoundsLoop {
+        final SymbolTableEntry index;
+        final SymbolTableEntry slice;
+
+        InBoundsLoop(SymbolTableEntry index, SymbolTableEntry slice) {
+            this.index = index;
+            this.slice = slice;
+        }
+    }
+
+    private Function currentFunction; // Função sendo gerada
+    private List<Register> paramSlots; // Allocas dos parâmetros da função atual, na ordem
+    private BasicBlock tailRecurseBlock; // Início do corpo, destino da recursão em cauda (null se não houver)
+
+    private Stack<BasicBlock> loopPostLabels; // Pilha de blocos de destino para instruções continue
+    private Stack<BasicBlock> loopEndLabels; // Pilha de blocos de destino para instruções break
+    private List<InBoundsLoop> inBoundsLoops; // Laços abertos em que s[i] dispensa a verificação de limites
+    private boolean loopHints; // Pede vetorização e desenrolamento no !llvm.loop de cada laço
+    private String loopHintRefs; // Nós das dicas, criados no primeiro laço (ex.: "!0, !1")
     //  LLVM:
     //  Estrutura de Loop: LLVM requer labels explícitas para controle de fluxo
     //  Break/Continue: Mapeiam para branches condicionais para labels específicas
 
     public GoCodegenVisitor() {
-        this.irBuilder = new StringBuilder();
-        this.headerBuilder = new StringBuilder();
-        this.regCounter = 0;
-        this.labelCounter = 0;
-        this.strCounter = 0;
-        this.currentBlock = "entry"; // Initialize with entry block
-        this.symbolTable = new Stack<>();
+        this.module = new Module();
+        this.builder = new IRBuilder();
+        this.symbolTable = new ScopeTable<>();
         this.globalSymbols = new HashMap<>();
         this.functionDeclarations = new HashMap<>();
-        this.printfFormatStrings = new HashMap<>();
-        this.scanfFormatStrings = new HashMap<>();
-        this.stringLengths = new HashMap<>();
+        this.effects = new FunctionEffects();
+        this.strings = new StringPool(module);
+        this.stringConstants = new HashMap<>();
+        this.runtime = new RuntimeLibrary(strings);
         this.loopPostLabels = new Stack<>();
         this.loopEndLabels = new Stack<>();
-        this.lastInstructionWasTerminator = false;
+        this.inBoundsLoops = new ArrayList<>();
+    }
+
+    /**
+     * Acrescenta ao !llvm.loop de cada laço as dicas llvm.loop.vectorize.enable e
+     * llvm.loop.unroll.enable.
+     */
+    public void setLoopHints(boolean loopHints) {
+        this.loopHints = loopHints;
     }
 
     /**
@@ -104,15 +135,47 @@ public class GoCodegenVisitor {
      * @throws IllegalArgumentException se root for null
      */
     public String run(AST root) {
+        return IRPrinter.print(generate(root));
+    }
+
+    /**
+     * Gera o código direto para um arquivo .ll. Cada função é otimizada e gravada
+     * assim que termina e não fica no módulo, então o IR do programa inteiro nunca
+     * está em memória de uma vez; o cabeçalho é gravado no fim por output.finish().
+     *
+     * @param root Nó raiz da Abstract Syntax Tree (AST) do programa Go
+     * @param output Arquivo de saída
+     * @throws IOException se a escrita falhar
+     */
+    public void write(AST root, IRFileWriter output) throws IOException {
+        this.output = output;
+        try {
+            generate(root);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.output = null;
+        }
+        output.finish(module);
+    }
+
+    /**
+     * Gera o módulo em memória, antes da serialização, para que passes de
+     * otimização possam trabalhar sobre ele.
+     *
+     * @param root Nó raiz da Abstract Syntax Tree (AST) do programa Go
+     * @return O Module com as declarações, globais, runtime e funções do programa
+     * @throws IllegalArgumentException se root for null
+     */
+    public Module generate(AST root) {
         // Validação de entrada - AST não pode ser null
         if (root == null) {
             throw new IllegalArgumentException("AST root cannot be null");
         }
 
         // FASE 1: Configuração do cabeçalho LLVM
-        // Declara as funções da biblioteca C que serão usadas pelo programa
-        headerBuilder.append("declare i32 @printf(i8*, ...)\n");
-        headerBuilder.append("declare i32 @scanf(i8*, ...)\n\n");
+        // As funções da biblioteca C (write, read, malloc...) são declaradas pelo
+        // runtime, só quando alguma função de runtime usada pelo programa precisa delas
 
         // FASE 2: Coleta de declarações de função
         // Percorre a AST para encontrar todas as declarações de função
@@ -123,28 +186,35 @@ public class GoCodegenVisitor {
                 functionDeclarations.put(funcName, child);
             }
         }
+        effects.analyze(root);
 
         // FASE 3: Geração do código LLVM
-        // Inicia a travessia da AST para gerar código LLVM IR
+        // Inicia a travessia da AST, que preenche o módulo
         visit(root);
 
-        // FASE 4: Montagem do código final
-        // Combina o cabeçalho (declarações globais + protótipos)
-        // com o corpo (implementações das funções)
-        return headerBuilder.toString() + irBuilder.toString();
+        // FASE 4: Promoção de variáveis locais para registradores SSA (mem2reg)
+        // Locais cujo endereço não escapa deixam de passar pela pilha. Em write() as
+        // funções já foram promovidas e gravadas uma a uma, e o módulo não tem nenhuma
+        Mem2Reg.run(module);
+
+        // FASE 5: Runtime
+        // Só agora se sabe quais funções de runtime o programa usou
+        module.addVerbatim(runtime.render());
+        return module;
     }
 
-    // Esta é a função despachante principal do padrão Visitor no gerador de código LLVM. 
-    // Ela funciona como um roteador que direciona cada nó da AST para o método específico 
+    // Esta é a função despachante principal do padrão Visitor no gerador de código LLVM.
+    // Ela funciona como um roteador que direciona cada nó da AST para o método específico
     // responsável por gerar código LLVM para aquele tipo de nó.
-    private String visit(AST node) {
-        if (node == null) return "";
+    // Expressões devolvem o Value com o resultado; comandos devolvem null.
+    private Value visit(AST node) {
+        if (node == null) return null;
 
         switch (node.kind) {
             case PROGRAM_NODE:      return visitProgramNode(node);
             case FUNC_DECL_NODE:    return visitFuncDeclNode(node);
             case BLOCK_NODE:        return visitBlockNode(node);
-            
+
             // Statements
             case IF_NODE:           return visitIfNode(node);
             case FOR_CLAUSE_NODE:   return visitForClauseNode(node);
@@ -159,7 +229,7 @@ public class GoCodegenVisitor {
             case SHORT_VAR_DECL_NODE: return visitShortVarDeclNode(node);
             case ASSIGN_NODE:       return visitAssignNode(node);
             case RETURN_NODE:       return visitReturnNode(node);
-            
+
             // Expressões
             case CALL_NODE:         return visitCallNode(node);
             case TYPE_CONV_NODE:    return visitTypeConvNode(node);
@@ -172,14 +242,14 @@ public class GoCodegenVisitor {
             case TIMES_NODE:        return visitBinaryOpNode(node, "mul", null);
             case OVER_NODE:         return visitBinaryOpNode(node, "div", null);
             case MOD_NODE:          return visitBinaryOpNode(node, "rem", null);
-            
+
             case EQUAL_NODE:        return visitBinaryOpNode(node, "cmp", "eq");
             case NOT_EQUAL_NODE:    return visitBinaryOpNode(node, "cmp", "ne");
             case LESS_NODE:         return visitBinaryOpNode(node, "cmp", "lt");
             case LESS_EQ_NODE:      return visitBinaryOpNode(node, "cmp", "le");
             case GREATER_NODE:      return visitBinaryOpNode(node, "cmp", "gt");
             case GREATER_EQ_NODE:   return visitBinaryOpNode(node, "cmp", "ge");
-            
+
             // Literais e Identificadores
             case INT_VAL_NODE:      return visitIntValNode(node);
             case REAL_VAL_NODE:     return visitRealValNode(node);
@@ -188,7 +258,7 @@ public class GoCodegenVisitor {
             case ID_NODE:           return visitIdNode(node);
             case INDEX_NODE:        return visitIndexNode(node);
             case COMPOSITE_LITERAL_NODE: return visitCompositeLiteralNode(node);
-            
+
             // Lists and specifications (mostly just visit children)
             case EXPR_LIST_NODE:
             case IDENTIFIER_LIST_NODE:
@@ -197,7 +267,7 @@ public class GoCodegenVisitor {
                 for (AST child : node.getChildren()) {
                     visit(child);
                 }
-                return "";
+                return null;
 
             default:
                 System.err.println("ERROR: Unsupported AST node type: " + node.kind + " (text: '" + node.text + "')");
@@ -206,55 +276,27 @@ public class GoCodegenVisitor {
                 }
                 break;
         }
-        return "";
+        return null;
     }
 
     // --- Métodos Auxiliares ---
 
-    // Gera nomes únicos para registradores virtuais no LLVM IR.
-    private String newReg() { return "%" + regCounter++; }
-
-    // Gera nomes únicos para labels de bloco no LLVM IR.
-    private String newLabel(String prefix) { return prefix + "." + labelCounter++; }
-    
-    // Cria constantes de string globais no LLVM IR e retorna um ponteiro para elas.
-    private String createGlobalString(String value, String namePrefix) {
-        // Cria nomes únicos como @.const.str.0, @.fmt.printf.1, etc.
-        String strName = "@" + namePrefix + "." + strCounter++;
-        
-        // Usar byte count em UTF-8
-        byte[] utf8Bytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-        int len = utf8Bytes.length + 1; // +1 para null terminator
-        
-        // Converte caracteres especiais para formato LLVM
-        String escapedValue = value.replace("\\", "\\5C").replace("\n", "\\0A").replace("\"", "\\22");
-        
-        headerBuilder.append(strName).append(" = private unnamed_addr constant [")
-                     .append(len).append(" x i8] c\"").append(escapedValue).append("\\00\"\n");
-        
-        // Armazena o tamanho para uso posterior em getelementptr
-        stringLengths.put(strName, len);
-        
-        return strName;
-    }
-
-    // Adiciona instruções LLVM IR ao corpo da função sendo gerada.
-    private void emit(String instruction) { 
-        irBuilder.append("\t").append(instruction).append("\n");
-        // Check if this is a terminator instruction
-        String trimmed = instruction.trim().toLowerCase();
-        lastInstructionWasTerminator = trimmed.startsWith("ret ") || trimmed.startsWith("br ");
+    // Dá a uma constante o tipo LLVM esperado pelo contexto (ex.: o literal 0 num
+    // parâmetro i64). Registradores já têm o tipo certo e são devolvidos como estão.
+    private Value withType(Value value, String llvmType) {
+        if (value instanceof Constant && !value.getType().equals(llvmType)) {
+            return Constant.of(llvmType, value.ref());
+        }
+        return value;
     }
 
-    // Adiciona labels de bloco ao código LLVM IR.
-    private void emitLabel(String label) { 
-        irBuilder.append(label).append(":\n");
-        lastInstructionWasTerminator = false; // Labels iniciam novos blocos, então lastInstructionWasTerminator = false
-        currentBlock = label; // Atualiza o bloco atual
-    }
-    
-    private String getCurrentBlock() {
-        return currentBlock;
+    // Valor zero de Go para o tipo: 0, 0.0, false, "" ou slice nil.
+    private Constant zeroValue(GoType goType) {
+        String llvmType = getLLVMType(goType);
+        if (goType.isInteger()) return Constant.of(llvmType, "0");
+        if (goType.isFloat()) return Constant.of(llvmType, "0.0");
+        if (goType == GoType.BOOL) return Constant.bool(false);
+        return Constant.zero(llvmType);
     }
 
     // Converte tipos Go para seus equivalentes em LLVM IR para uso geral (parâmetros, retornos, operações).
@@ -263,11 +305,11 @@ public class GoCodegenVisitor {
             case INT: case INT32: return "i32";
             case BOOL: return "i1";
             case FLOAT64: return "double";
-            case STRING: return "i8*"; // Semanticamente, uma string é um ponteiro para char
-            case ARRAY_INT: return "[10 x i32]*";
-            case ARRAY_BOOL: return "[10 x i1]*";
-            case ARRAY_FLOAT64: return "[10 x double]*";
-            case ARRAY_STRING: return "[10 x i8*]*";
+            case STRING: return runtime.require(RuntimeLibrary.STRING_TYPE); // { i8*, i64 } por valor
+            case ARRAY_INT:
+            case ARRAY_BOOL:
+            case ARRAY_FLOAT64:
+            case ARRAY_STRING: return runtime.require(RuntimeLibrary.SLICE_TYPE); // { i8*, i64, i64 } por valor
             case VOID: return "void";
             default: return "void";
         }
@@ -279,110 +321,46 @@ public class GoCodegenVisitor {
             case INT: case INT32: return "i32";
             case BOOL: return "i1";
             case FLOAT64: return "double";
-            case STRING: return "[" + STRING_BUFFER_SIZE + " x i8]"; // Aloca um buffer de char
-            case ARRAY_INT: return "[10 x i32]";
-            case ARRAY_BOOL: return "[10 x i1]";
-            case ARRAY_FLOAT64: return "[10 x double]";
-            case ARRAY_STRING: return "[10 x i8*]";
+            case STRING: return runtime.require(RuntimeLibrary.STRING_TYPE); // Só o cabeçalho; os bytes ficam fora da pilha
+            case ARRAY_INT:
+            case ARRAY_BOOL:
+            case ARRAY_FLOAT64:
+            case ARRAY_STRING: return runtime.require(RuntimeLibrary.SLICE_TYPE);
             case VOID: return "void";
             default: return "void";
         }
     }
 
-    // Gera strings de formato para a função printf (saída formatada).
-    private String getOrCreateFormatString(GoType type) {
-        if (printfFormatStrings.containsKey(type)) { // Verifica se já existe uma string de formato em cache
-            return printfFormatStrings.get(type);
-        }
-        String formatSpecifier;
-        if (type == null) {
-            // Caso especial para println() sem argumentos - apenas quebra de linha
-            formatSpecifier = "\n";
-        } else {
-            switch (type) {
-                case INT: case INT32: formatSpecifier = "%d\n"; break;
-                case BOOL: formatSpecifier = "%d\n"; break; 
-                case FLOAT64: formatSpecifier = "%f\n"; break;
-                case STRING: formatSpecifier = "%s\n"; break;
-                default: formatSpecifier = "Unsupported type\n";
-            }
-        }
-        String formatStrName = createGlobalString(formatSpecifier, ".fmt.printf"); // Se não existir, cria uma nova usando createGlobalString
-        printfFormatStrings.put(type, formatStrName);
-        return formatStrName;
-    }
-
-    // Gera strings de formato para a função scanf (entrada formatada).
-    private String getOrCreateScanfFormatString(GoType type) {
-        if (scanfFormatStrings.containsKey(type)) { // Verifica se já existe uma string de formato em cache
-            return scanfFormatStrings.get(type);
-        }
-        String formatSpecifier;
-        switch (type) {
-            case INT: case INT32:  case BOOL: formatSpecifier = "%d"; break;
-            case FLOAT64: formatSpecifier = "%lf"; break;
-            case STRING: formatSpecifier = "%s"; break;
-            default: formatSpecifier = "";
-        }
-        String formatStrName = createGlobalString(formatSpecifier, ".fmt.scanf"); // Se não existir, cria uma nova usando createGlobalString
-        scanfFormatStrings.put(type, formatStrName);
-        return formatStrName;
-    }
 
     // --- Visitantes da AST ---
 
-    private String visitProgramNode(AST node) {
+    private Value visitProgramNode(AST node) {
         for (AST child : node.getChildren()) {
             visit(child);
         }
-        return "";
-    }
-
-    // Método auxiliar para identificar tipos simples
-    private static class GoTypeHelper {
-        public static boolean isSimpleType(GoType type) {
-            return type == GoType.INT || type == GoType.INT32 || 
-                type == GoType.BOOL || type == GoType.FLOAT64;
-        }
+        return null;
     }
 
-    private String visitFuncDeclNode(AST node) {
+    private Value visitFuncDeclNode(AST node) {
         String funcName = node.getChild(0).text;
         AST paramListNode = node.getChild(1);
         AST resultNode = node.getChild(2);
         AST bodyNode = node.getChild(3);
         String returnType = getLLVMType(resultNode.type);
-        
-        regCounter = paramListNode.getChildCount();
 
-        Map<GoType, String> typeCache = new HashMap<>();
-        Map<GoType, String> allocTypeCache = new HashMap<>();
-    
-        // Pre-computar tipos para todos os parâmetros
+        List<String> paramTypes = new ArrayList<>();
         for (AST paramNode : paramListNode.getChildren()) {
             AST paramIdNode = paramNode.getChild(0);
-            GoType paramType = paramIdNode.getAnnotatedType();
-            typeCache.put(paramType, getLLVMType(paramType));
-            allocTypeCache.put(paramType, getLLVMTypeForAlloc(paramType));
+            paramTypes.add(getLLVMType(paramIdNode.getAnnotatedType()));
         }
 
-        StringBuilder paramsBuilder = new StringBuilder();
-        boolean first = true;
-        for (AST paramNode : paramListNode.getChildren()) {
-            if (!first) {
-                paramsBuilder.append(", ");
-            }
-            AST paramIdNode = paramNode.getChild(0);
-            paramsBuilder.append(getLLVMType(paramIdNode.getAnnotatedType()));
-            first = false;
-        }
-        String paramsString = paramsBuilder.toString();
-
-        irBuilder.append("\ndefine ").append(returnType).append(" @").append(funcName)
-                 .append("(").append(paramsString).append(") {\n");
-        
-        symbolTable.push(new HashMap<>());
-        emitLabel("entry");
+        Function function = new Function(funcName, returnType, paramTypes);
+        addFunctionAttributes(function);
+        if (output == null) module.addFunction(function);
+        builder.startFunction(function);
+        symbolTable.enterScope();
+        currentFunction = function;
+        paramSlots = new ArrayList<>();
 
         for (int i = 0; i < paramListNode.getChildCount(); i++) {
             AST paramNode = paramListNode.getChild(i);
@@ -390,239 +368,376 @@ public class GoCodegenVisitor {
             String paramName = paramIdNode.text;
             GoType paramType = paramIdNode.getAnnotatedType();
 
-            String pointerName = newReg(); // Use simple register naming
-
-            String llvmType = typeCache.get(paramType);
-            String llvmAllocType = allocTypeCache.get(paramType);
-
-            if (GoTypeHelper.isSimpleType(paramType)) {  // int, bool, float64
-                // CORREÇÃO: Parâmetros precisam ser alocados para permitir modificação
-                emit(pointerName + " = alloca " + llvmType);
-                emit("store " + llvmType + " %" + i + ", " + llvmType + "* " + pointerName);
-                symbolTable.peek().put(paramName, new SymbolTableEntry(false, pointerName, paramType));
-            } else if (paramType.isArray()) {
-                symbolTable.peek().put(paramName, new SymbolTableEntry(false, "%" + i, paramType));
-            } else if (paramType == GoType.STRING) {
-                emit(pointerName + " = alloca " + llvmType);  // i8* para strings
-                emit("store " + llvmType + " %" + i + ", " + llvmType + "* " + pointerName);
-                symbolTable.peek().put(paramName, new SymbolTableEntry(false, pointerName, paramType));
+            // Parâmetros precisam ser alocados para permitir modificação
+            Register pointer = builder.alloca(getLLVMTypeForAlloc(paramType));
+            builder.store(function.getParams().get(i), pointer);
+            symbolTable.declare(paramName, new SymbolTableEntry(false, pointer, paramType));
+            paramSlots.add(pointer);
+        }
+
+        // Recursão em cauda vira laço: a chamada grava os argumentos nos parâmetros e
+        // desvia para o início do corpo (o Mem2Reg transforma os parâmetros em phi)
+        tailRecurseBlock = null;
+        if (hasSelfTailCall(bodyNode, funcName)) {
+            tailRecurseBlock = builder.createBlock("tailrecurse");
+            builder.br(tailRecurseBlock);
+            builder.positionAt(tailRecurseBlock);
+        }
+
+        visit(bodyNode);
+
+        if (!builder.isTerminated()) {
+            // Função void pode terminar sem return; nas outras, como em Go, o fim do corpo
+            // não deve ser alcançável (ex.: depois de um for infinito ou de um if/else que retorna)
+            if (returnType.equals("void")) {
+                builder.retVoid();
             } else {
-                // Para outros tipos complexos, manter alocação
-                emit(pointerName + " = alloca " + llvmAllocType);
-                emit("store " + llvmType + " %" + i + ", " + llvmType + "* " + pointerName);
-                symbolTable.peek().put(paramName, new SymbolTableEntry(false, pointerName, paramType));
+                builder.unreachable();
             }
         }
 
-        visit(bodyNode);
-        
-        if (returnType.equals("void")) {
-             if (irBuilder.length() > 0 && !irBuilder.toString().trim().endsWith("ret") && !irBuilder.toString().trim().endsWith("br")) {
-                 emit("ret void");
-             }
+        symbolTable.exitScope();
+        if (output != null) {
+            // Com saída em arquivo a função não entra no módulo: os passes da FASE 4 rodam aqui
+            Mem2Reg.run(function);
+            try {
+                output.writeFunction(function);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
-        
-        irBuilder.append("}\n");
-        symbolTable.pop();
-        return "";
+        return null;
     }
 
-    private String visitBlockNode(AST node) {
-        symbolTable.push(new HashMap<>(symbolTable.peek())); // Cria um novo escopo na tabela de símbolos fazendo push() de uma cópia do escopo atual
+    // Linkage e atributos do define, a partir da análise de efeitos:
+    // - internal: só main é chamada de fora do módulo, então o LLVM pode mudar a
+    //   convenção de chamada e remover as funções que ficarem sem uso depois do inline
+    // - nounwind: nada no código gerado lança exceção (o panic encerra com exit)
+    // - readnone/readonly: a chamada pode ser reordenada, combinada ou removida
+    // - alwaysinline: funções pequenas que não chamam outras do programa
+    private void addFunctionAttributes(Function function) {
+        String name = function.getName();
+        boolean isMain = name.equals("main");
+        if (!isMain) function.setLinkage("internal");
+        if (!isMain && effects.isSmallLeaf(name)) function.addAttribute("alwaysinline");
+        function.addAttribute("nounwind");
+        switch (effects.getEffect(name)) {
+            case NONE:  function.addAttribute("readnone"); break;
+            case READS: function.addAttribute("readonly"); break;
+            default:    break;
+        }
+    }
+
+    private Value visitBlockNode(AST node) {
+        symbolTable.enterScope(); // Declarações do bloco sombreiam as externas até exitScope()
         for (AST child : node.getChildren()) {
             visit(child);
         }
-        symbolTable.pop(); // Remove o escopo da pilha com pop()
-        return ""; // Retorna string vazia pois blocos não produzem valores em LLVM
+        symbolTable.exitScope(); // Desfaz as declarações do bloco
+        return null; // Blocos não produzem valores em LLVM
     }
-    
+
     // --- Statements ---
 
-    private String visitIfNode(AST node) {
-        String condValue = visit(node.getChild(0));
-        String thenLabel = newLabel("if.then");
-        String elseLabel = newLabel("if.else");
-        String endLabel = newLabel("if.end");
+    private Value visitIfNode(AST node) {
+        Value condValue = visit(node.getChild(0));
+        BasicBlock thenBlock = builder.createBlock("if.then");
+        BasicBlock elseBlock = builder.createBlock("if.else");
+        BasicBlock endBlock = builder.createBlock("if.end");
         boolean hasElse = node.getChildCount() > 2;
-        
+
         boolean endLabelReferenced = false;
 
         if (hasElse) {
-            emit("br i1 " + condValue + ", label %" + thenLabel + ", label %" + elseLabel);
+            builder.condBr(condValue, thenBlock, elseBlock);
         } else {
-            emit("br i1 " + condValue + ", label %" + thenLabel + ", label %" + endLabel);
+            builder.condBr(condValue, thenBlock, endBlock);
             endLabelReferenced = true; // O branch condicional referencia endLabel
         }
 
         // Process THEN branch
-        emitLabel(thenLabel);
+        builder.positionAt(thenBlock);
         visit(node.getChild(1));
-        boolean thenHasTerminator = lastInstructionWasTerminator;
-        if (!thenHasTerminator) {
-            emit("br label %" + endLabel);
+        if (!builder.isTerminated()) {
+            builder.br(endBlock);
             endLabelReferenced = true;
         }
 
         // Process ELSE branch (if exists)
-        boolean elseHasTerminator = false;
         if (hasElse) {
-            emitLabel(elseLabel);
+            builder.positionAt(elseBlock);
             visit(node.getChild(2));
-            elseHasTerminator = lastInstructionWasTerminator;
-            if (!elseHasTerminator) {
-                emit("br label %" + endLabel);
+            if (!builder.isTerminated()) {
+                builder.br(endBlock);
                 endLabelReferenced = true;
             }
         }
 
         // Only emit the end label if it was referenced
         if (endLabelReferenced) {
-            emitLabel(endLabel);
+            builder.positionAt(endBlock);
         }
-        
-        return "";
+
+        return null;
     }
 
-    private String visitForClauseNode(AST node) {
+    // Os laços saem em forma canônica, a que os passes de laço do LLVM esperam: o bloco
+    // onde o laço começa só desvia para o cabeçalho (preheader), há um único desvio de
+    // volta (latch), que carrega o !llvm.loop, e break só sai para loop.end. As variáveis
+    // de indução viram phis no cabeçalho pelo Mem2Reg.
+    private Value visitForClauseNode(AST node) {
         AST initNode = node.getChild(0);
         AST condNode = node.getChild(1);
         AST postNode = node.getChild(2);
         AST bodyNode = node.getChild(3);
 
-        String condLabel = newLabel("loop.cond");
-        String bodyLabel = newLabel("loop.body");
-        String postLabel = newLabel("loop.post");
-        String endLabel = newLabel("loop.end");
+        BasicBlock condBlock = builder.createBlock("loop.cond");
+        BasicBlock bodyBlock = builder.createBlock("loop.body");
+        BasicBlock postBlock = builder.createBlock("loop.post"); // Latch: fim do corpo e continue
+        BasicBlock endBlock = builder.createBlock("loop.end");
 
-        loopPostLabels.push(postLabel);
-        loopEndLabels.push(endLabel);
+        loopPostLabels.push(postBlock);
+        loopEndLabels.push(endBlock);
 
         if (initNode != null) visit(initNode);
-        emit("br label %" + condLabel);
+        builder.br(condBlock);
 
-        emitLabel(condLabel);
+        builder.positionAt(condBlock);
         if (condNode != null) {
-            String condValue = visit(condNode);
-            emit("br i1 " + condValue + ", label %" + bodyLabel + ", label %" + endLabel);
+            Value condValue = visit(condNode);
+            builder.condBr(condValue, bodyBlock, endBlock);
         } else {
             // For infinite loop (empty condition), always branch to body
-            emit("br label %" + bodyLabel);
+            builder.br(bodyBlock);
         }
 
-        emitLabel(bodyLabel);
+        InBoundsLoop inBounds = inBoundsLoop(initNode, condNode, postNode, bodyNode);
+        if (inBounds != null) inBoundsLoops.add(inBounds);
+
+        builder.positionAt(bodyBlock);
         visit(bodyNode);
-        if (irBuilder.length() > 0 && !irBuilder.toString().trim().endsWith("ret") && !irBuilder.toString().trim().endsWith("br")) {
-            emit("br label %" + postLabel);
+        if (!builder.isTerminated()) {
+            builder.br(postBlock);
         }
 
-        emitLabel(postLabel);
+        if (inBounds != null) inBoundsLoops.remove(inBoundsLoops.size() - 1);
+
+        builder.positionAt(postBlock);
         if (postNode != null) visit(postNode);
-        emit("br label %" + condLabel);
+        builder.latchBr(condBlock, loopMetadata());
 
-        emitLabel(endLabel);
+        builder.positionAt(endBlock);
 
         loopPostLabels.pop();
         loopEndLabels.pop();
-        return "";
+        return null;
     }
-    
-    private String visitForCondNode(AST node) {
+
+    // Reconhece 'for i := k; i < len(s); i++', com k >= 0, i e s locais e nenhuma
+    // atribuição a i ou a s no corpo. Então 0 <= i < len(s) vale em todo o corpo, e os
+    // acessos s[i] não precisam da verificação de limites, cuja saída para exit impede
+    // a vetorização do laço. Globais ficam de fora: uma chamada no corpo pode mudá-las.
+    private InBoundsLoop inBoundsLoop(AST initNode, AST condNode, AST postNode, AST bodyNode) {
+        if (initNode == null || initNode.kind != NodeKind.SHORT_VAR_DECL_NODE
+                || initNode.getChild(0).getChildCount() != 1) {
+            return null;
+        }
+        AST start = initNode.getChild(1).getChild(0);
+        if (start.kind != NodeKind.INT_VAL_NODE || start.intData < 0) return null;
+        String index = initNode.getChild(0).getChild(0).text;
+
+        if (condNode == null || condNode.kind != NodeKind.LESS_NODE || !isId(condNode.getChild(0), index)) return null;
+        AST lenCall = condNode.getChild(1);
+        if (lenCall.kind != NodeKind.CALL_NODE || !lenCall.getChild(0).text.equals("len")
+                || lenCall.getChildCount() != 2) {
+            return null;
+        }
+        AST sliceNode = lenCall.getChild(1);
+        GoType sliceType = sliceNode.getAnnotatedType();
+        if (sliceNode.kind != NodeKind.ID_NODE || sliceType == null || !sliceType.isArray()) return null;
+        String slice = sliceNode.text;
+
+        if (postNode == null || postNode.kind != NodeKind.INC_DEC_STMT_NODE
+                || !isId(postNode.getChild(0), index) || !postNode.getChild(1).text.equals("++")) {
+            return null;
+        }
+        if (writes(bodyNode, index) || writes(bodyNode, slice)) return null;
+
+        SymbolTableEntry indexEntry = symbolTable.lookup(index);
+        SymbolTableEntry sliceEntry = symbolTable.lookup(slice);
+        if (indexEntry == null || sliceEntry == null) return null;
+        return new InBoundsLoop(indexEntry, sliceEntry);
+    }
+
+    private static boolean isId(AST node, String name) {
+        return node != null && node.kind == NodeKind.ID_NODE && node.text.equals(name);
+    }
+
+    // Se algum comando em 'node' atribui à variável 'name' (=, ++/-- ou scanln). Compara só
+    // o nome, então atribuir a uma variável homônima de um bloco interno também conta. As
+    // redeclarações em si não passam por aqui: isInBounds compara a SymbolTableEntry.
+    private static boolean writes(AST node, String name) {
+        if (node == null) return false;
+        switch (node.kind) {
+            case ASSIGN_NODE:
+            case INC_DEC_STMT_NODE:
+                if (isId(node.getChild(0), name)) return true;
+                break;
+            case CALL_NODE:
+                if (node.getChild(0).text.equals("scanln")) {
+                    for (int i = 1; i < node.getChildCount(); i++) {
+                        if (isId(node.getChild(i), name)) return true;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        for (AST child : node.getChildren()) {
+            if (writes(child, name)) return true;
+        }
+        return false;
+    }
+
+    private Value visitForCondNode(AST node) {
         AST condNode = node.getChild(0);
         AST bodyNode = node.getChild(1);
 
-        String condLabel = newLabel("loop.cond");
-        String bodyLabel = newLabel("loop.body");
-        String endLabel = newLabel("loop.end");
+        BasicBlock condBlock = builder.createBlock("loop.cond");
+        BasicBlock bodyBlock = builder.createBlock("loop.body");
+        BasicBlock latchBlock = builder.createBlock("loop.latch"); // Fim do corpo e continue
+        BasicBlock endBlock = builder.createBlock("loop.end");
 
-        loopPostLabels.push(condLabel);
-        loopEndLabels.push(endLabel);
+        loopPostLabels.push(latchBlock);
+        loopEndLabels.push(endBlock);
 
-        emit("br label %" + condLabel);
+        builder.br(condBlock);
 
-        emitLabel(condLabel);
+        builder.positionAt(condBlock);
         if (condNode != null) {
-            String condValue = visit(condNode);
-            emit("br i1 " + condValue + ", label %" + bodyLabel + ", label %" + endLabel);
+            Value condValue = visit(condNode);
+            builder.condBr(condValue, bodyBlock, endBlock);
         } else {
-            emit("br label %" + bodyLabel);
+            builder.br(bodyBlock);
         }
 
-        emitLabel(bodyLabel);
+        builder.positionAt(bodyBlock);
         visit(bodyNode);
-        if (irBuilder.length() > 0 && !irBuilder.toString().trim().endsWith("ret") && !irBuilder.toString().trim().endsWith("br")) {
-            emit("br label %" + condLabel);
+        if (!builder.isTerminated()) {
+            builder.br(latchBlock);
         }
 
-        emitLabel(endLabel);
+        builder.positionAt(latchBlock);
+        builder.latchBr(condBlock, loopMetadata());
+
+        builder.positionAt(endBlock);
 
         loopPostLabels.pop();
         loopEndLabels.pop();
-        return "";
+        return null;
     }
 
-    private String visitBreakNode(AST node) {
+    // Nó !llvm.loop de um laço novo. Sem dicas ele só identifica o laço; com
+    // setLoopHints(true) também pede vetorização e desenrolamento ao otimizador.
+    private String loopMetadata() {
+        if (loopHints && loopHintRefs == null) {
+            loopHintRefs = module.addMetadata("!{!\"llvm.loop.vectorize.enable\", i1 true}") + ", "
+                         + module.addMetadata("!{!\"llvm.loop.unroll.enable\"}");
+        }
+        String self = module.nextMetadataRef();
+        return module.addMetadata("distinct !{" + self + (loopHints ? ", " + loopHintRefs : "") + "}");
+    }
+
+    private Value visitBreakNode(AST node) {
         if (!loopEndLabels.isEmpty()) { // Checa se a pilha não está vazia antes de acessar
-            emit("br label %" + loopEndLabels.peek()); // Usa peek() para obter o label sem remover da pilha
+            builder.br(loopEndLabels.peek()); // Usa peek() para obter o bloco sem remover da pilha
         }
-        return "";
+        return null;
     }
 
-    private String visitContinueNode(AST node) {
+    private Value visitContinueNode(AST node) {
         if (!loopPostLabels.isEmpty()) { // Checa se a pilha não está vazia antes de acessar
-            emit("br label %" + loopPostLabels.peek()); // Usa peek() para obter o label sem remover da pilha
+            builder.br(loopPostLabels.peek()); // Usa peek() para obter o bloco sem remover da pilha
         }
-        return "";
+        return null;
     }
 
-    private String visitIncDecStmtNode(AST node) {
+    private Value visitIncDecStmtNode(AST node) {
         AST lvalueNode = node.getChild(0);
         AST opNode = node.getChild(1);
-        String varName = lvalueNode.text;
-        SymbolTableEntry entry = symbolTable.peek().get(varName);
-        String pointerName = entry.value;
-        String llvmType = getLLVMType(entry.type);
-        
-        String currentValue = newReg();
-        emit(currentValue + " = load " + llvmType + ", " + llvmType + "* " + pointerName);
+        Value pointer;
+        String llvmType;
+        if (lvalueNode.kind == NodeKind.INDEX_NODE) {
+            // s[i]++ altera o elemento no array de dados do slice
+            pointer = visitSliceElementPtr(lvalueNode);
+            llvmType = getLLVMType(lvalueNode.getAnnotatedType());
+        } else {
+            SymbolTableEntry entry = symbolTable.lookup(lvalueNode.text);
+            pointer = entry.value;
+            llvmType = getLLVMType(entry.type);
+        }
+
+        Register currentValue = builder.load(pointer);
 
-        String newValue = newReg();
         String op = opNode.text.equals("++") ? "add" : "sub";
         String one = llvmType.equals("double") ? "1.0" : "1";
-        
+
         String prefix = llvmType.equals("double") ? "f" : "";
-        emit(newValue + " = " + prefix + op + " " + llvmType + " " + currentValue + ", " + one);
-        emit("store " + llvmType + " " + newValue + ", " + llvmType + "* " + pointerName);
-        return "";
+        Register newValue = builder.binary(prefix + op, currentValue, Constant.of(llvmType, one));
+        builder.store(newValue, pointer);
+        return null;
     }
 
-    private String visitConstDeclNode(AST node) {
+    private Value visitConstDeclNode(AST node) {
         for (AST spec : node.getChildren()) visit(spec);
-        return "";
+        return null;
     }
-    
-    private String visitConstSpecNode(AST node) {
+
+    // O ConstantFolder já reduziu a expressão de cada constante a um literal, então o
+    // valor é uma Constant usada direto nos usos, sem alloca.
+    private Value visitConstSpecNode(AST node) {
         AST exprListNode = node.getChild(node.getChildCount() - 1);
         int exprIndex = 0;
         for (AST idNode : node.getChildren()) {
             if (idNode.kind != NodeKind.ID_NODE) continue;
-            
+
             String constName = idNode.text;
             GoType constType = idNode.getAnnotatedType();
-            
-            String value = evaluateConstantExpression(exprListNode.getChild(exprIndex));
-            
-            symbolTable.peek().put(constName, new SymbolTableEntry(true, value, constType));
-            exprIndex++;
+            AST exprNode = exprListNode.getChild(exprIndex++);
+
+            if (symbolTable.isEmpty()) {
+                // Constante global: fora de uma função não há onde emitir instruções
+                if (!isLiteral(exprNode)) {
+                    System.err.println("ERROR: Constant initializer is not constant: " + constName);
+                    continue;
+                }
+                globalSymbols.put(constName, new SymbolTableEntry(true, withType(visit(exprNode), getLLVMType(constType)), constType));
+            } else {
+                Value value = withType(visit(exprNode), getLLVMType(constType));
+                symbolTable.declare(constName, new SymbolTableEntry(true, value, constType));
+            }
         }
-        return "";
+        return null;
     }
 
-    private String visitVarDeclNode(AST node) {
+    private static boolean isLiteral(AST node) {
+        switch (node.kind) {
+            case INT_VAL_NODE:
+            case REAL_VAL_NODE:
+            case BOOL_VAL_NODE:
+            case STR_VAL_NODE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private Value visitVarDeclNode(AST node) {
         for (AST spec : node.getChildren()) visit(spec);
-        return "";
+        return null;
     }
-    
-    private String visitVarSpecNode(AST node) {
+
+    private Value visitVarSpecNode(AST node) {
         AST exprListNode = null;
         if (node.getChild(node.getChildCount() - 1).kind == NodeKind.EXPR_LIST_NODE) {
             exprListNode = node.getChild(node.getChildCount() - 1);
@@ -630,53 +745,41 @@ public class GoCodegenVisitor {
         int exprIndex = 0;
         for (AST idNode : node.getChildren()) {
             if (idNode.kind != NodeKind.ID_NODE) continue;
-            
+
             String varName = idNode.text;
             GoType varType = idNode.getAnnotatedType();
             String llvmAllocType = getLLVMTypeForAlloc(varType);
-            
+
             // Check if we're in a function scope or global scope
             if (symbolTable.isEmpty()) {
                 // Global variable - create as global
                 String globalName = "@" + varName + ".global";
-                headerBuilder.append(globalName).append(" = global ")
-                             .append(llvmAllocType).append(" ");
-                
+
                 // Initialize with default value
-                if (varType.isInteger()) {
-                    headerBuilder.append("0");
-                } else if (varType.isFloat()) {
-                    headerBuilder.append("0.0");
-                } else if (varType == GoType.BOOL) {
-                    headerBuilder.append("0");
-                } else {
-                    headerBuilder.append("zeroinitializer");
-                }
-                headerBuilder.append("\n");
-                
+                module.addGlobal(globalName + " = global " + llvmAllocType + " " + zeroValue(varType).ref());
+
                 // Add to global symbol table
-                globalSymbols.put(varName, new SymbolTableEntry(false, globalName, varType));
+                globalSymbols.put(varName, new SymbolTableEntry(false, Constant.of(llvmAllocType + "*", globalName), varType));
             } else {
                 // Local variable
-                String pointerName = newReg(); // Use simple register naming
-                // For strings, allocate space for a pointer, not a buffer
-                String allocType = (varType == GoType.STRING) ? getLLVMType(varType) : getLLVMTypeForAlloc(varType);
-                emit(pointerName + " = alloca " + allocType);
-                symbolTable.peek().put(varName, new SymbolTableEntry(false, pointerName, varType));
+                Register pointer = builder.alloca(llvmAllocType);
+                symbolTable.declare(varName, new SymbolTableEntry(false, pointer, varType));
 
                 if (exprListNode != null && exprIndex < exprListNode.getChildCount()) {
-                    String value = visit(exprListNode.getChild(exprIndex));
-                    if (!varType.isArray()) {
-                        emit("store " + getLLVMType(varType) + " " + value + ", " + getLLVMType(varType) + "* " + pointerName);
-                    }
+                    Value value = visit(exprListNode.getChild(exprIndex));
+                    builder.store(withType(value, getLLVMType(varType)), pointer);
                     exprIndex++;
+                } else {
+                    // Sem inicializador a variável começa com o valor zero do tipo (slice nil e
+                    // string "" têm data null, len e cap 0); sem o store o mem2reg leria undef
+                    builder.store(zeroValue(varType), pointer);
                 }
             }
         }
-        return "";
+        return null;
     }
-    
-    private String visitShortVarDeclNode(AST node) {
+
+    private Value visitShortVarDeclNode(AST node) {
         AST idListNode = node.getChild(0);
         AST exprListNode = node.getChild(1);
 
@@ -685,98 +788,71 @@ public class GoCodegenVisitor {
             AST exprNode = exprListNode.getChild(i);
             String varName = idNode.text;
             GoType varType = idNode.getAnnotatedType();
-            // For strings, allocate space for a pointer, not a buffer
-            String allocType = (varType == GoType.STRING) ? getLLVMType(varType) : getLLVMTypeForAlloc(varType);
-            String pointerName = newReg();
 
-            emit(pointerName + " = alloca " + allocType);
-            symbolTable.peek().put(varName, new SymbolTableEntry(false, pointerName, varType));
+            Register pointer = builder.alloca(getLLVMTypeForAlloc(varType));
+            symbolTable.declare(varName, new SymbolTableEntry(false, pointer, varType));
 
-            String value = visit(exprNode);
+            Value value = visit(exprNode);
             // Store the value
-            if (!value.isEmpty()) {
-                emit("store " + getLLVMType(varType) + " " + value + ", " + getLLVMType(varType) + "* " + pointerName);
+            if (value != null) {
+                builder.store(withType(value, getLLVMType(varType)), pointer);
             }
         }
-        return "";
+        return null;
     }
 
-    private String visitAssignNode(AST node) {
+    private Value visitAssignNode(AST node) {
         AST lvalueNode = node.getChild(0);
         AST rvalueNode = node.getChild(1);
-        
+
         if (lvalueNode == null || rvalueNode == null) {
             // Handle null children gracefully - this may be due to unsupported AST structures
-            return "";
+            return null;
         }
-        
+
         if (lvalueNode.kind == NodeKind.INDEX_NODE) {
-            AST arrayNode = lvalueNode.getChild(0);
-            AST indexNode = lvalueNode.getChild(1);
-            
-            String arrayPtr = visit(arrayNode);
-            String indexValue = visit(indexNode);
-            String value = visit(rvalueNode);
-            
-            GoType arrayType = arrayNode.getAnnotatedType();
-            GoType elementType = arrayType.getElementType();
-            String elementLLVMType = getLLVMType(elementType);
-            String arrayBaseType = getLLVMType(arrayType).replace("*", "");
-            
-            String elementPtr = newReg();
-            emit(elementPtr + " = getelementptr inbounds " + arrayBaseType + ", " + 
-                getLLVMType(arrayType) + " " + arrayPtr + ", i64 0, i32 " + indexValue);
-            
-            emit("store " + elementLLVMType + " " + value + ", " + elementLLVMType + "* " + elementPtr);
+            Register elementPtr = visitSliceElementPtr(lvalueNode);
+            String elementLLVMType = getLLVMType(lvalueNode.getChild(0).getAnnotatedType().getElementType());
+            Value value = visit(rvalueNode);
+            builder.store(withType(value, elementLLVMType), elementPtr);
         } else {
             String varName = lvalueNode.text;
             SymbolTableEntry entry = null;
-            
+
             // First try to find in local scope
             if (!symbolTable.isEmpty()) {
-                entry = symbolTable.peek().get(varName);
+                entry = symbolTable.lookup(varName);
             }
-            
+
             // If not found in local scope, try global scope
             if (entry == null) {
                 entry = globalSymbols.get(varName);
             }
-            
+
             if (entry == null) {
                 System.err.println("ERROR: Variable not found for assignment: " + varName);
-                return "";
+                return null;
             }
-            
+
             // Verificar se é constante antes de permitir atribuição
             if (entry.isConstant) {
                 System.err.println("ERROR: Cannot assign to constant: " + varName);
-                return "";
+                return null;
             }
-            
+
             // Validação de tipos entre lvalue e rvalue
             GoType rvalueType = rvalueNode.getAnnotatedType();
             if (rvalueType != null && !areTypesCompatible(entry.type, rvalueType)) {
-                System.err.println("ERROR: Type mismatch in assignment to " + varName + 
+                System.err.println("ERROR: Type mismatch in assignment to " + varName +
                                 ": expected " + entry.type + ", got " + rvalueType);
-                return "";
+                return null;
             }
 
-            // Tratamento especial para strings com implementação básica
-            if (entry.type == GoType.STRING) {
-                String value = visit(rvalueNode);
-                String pointerName = entry.value;
-                
-                // Para strings, copiamos o ponteiro (implementação simplificada)
-                // Em uma implementação completa, seria necessário usar memcpy ou strcpy
-                emit("store i8* " + value + ", i8** " + pointerName);
-            } else {
-                String pointerName = entry.value;
-                String llvmType = getLLVMType(entry.type);
-                String value = visit(rvalueNode);
-                emit("store " + llvmType + " " + value + ", " + llvmType + "* " + pointerName);
-            }
+            // Strings são imutáveis, então copiar o cabeçalho { data, len } basta
+            Value value = visit(rvalueNode);
+            builder.store(withType(value, getLLVMType(entry.type)), entry.value);
         }
-        return "";
+        return null;
     }
 
     // Método auxiliar para verificar compatibilidade de tipos
@@ -819,191 +895,180 @@ public class GoCodegenVisitor {
         return false;
     }
 
-    private String visitReturnNode(AST node) {
+
+    private Value visitReturnNode(AST node) {
+        if (builder.isTerminated()) {
+            // 'return' vazio logo depois de uma chamada em cauda, que já desviou para o início
+            return null;
+        }
+        if (node.hasChildren() && isSelfTailCall(node.getChild(0))) {
+            emitSelfTailCall(node.getChild(0));
+            return null;
+        }
         if (node.hasChildren()) {
             // Return com expressão: return x
             String returnType = getLLVMType(node.getChild(0).getAnnotatedType());
-            String exprResult = visit(node.getChild(0));
-            emit("ret " + returnType + " " + exprResult);
+            Value exprResult = visit(node.getChild(0));
+            builder.ret(withType(exprResult, returnType));
         } else {
             // Return vazio: return
-            emit("ret void");
+            builder.retVoid();
         }
-        return "";
+        return null;
     }
 
     // --- Expressões ---
 
-    private String visitCallNode(AST node) {
+    private Value visitCallNode(AST node) {
         String funcName = node.getChild(0).text;
-        
+
         switch (funcName) {
             case "println": return handlePrintln(node);
             case "len": return handleLen(node);
+            case "append": return handleAppend(node);
             case "scanln": return handleScanln(node);
             default: return handleUserFunctionCall(node, funcName);
         }
     }
 
-    // Método para tratar chamadas println
-    private String handlePrintln(AST node) {
-        if (node.getChildCount() == 1) {
-            // println() sem argumentos - apenas quebra de linha
-            String newlineFormat = getOrCreateFormatString(null); // Especial para quebra de linha
-            int formatStrLen = stringLengths.get(newlineFormat);
-            String formatStrPtr = newReg();
-            emit(formatStrPtr + " = getelementptr inbounds [" + formatStrLen + " x i8], [" + formatStrLen + " x i8]* " + newlineFormat + ", i64 0, i64 0");
-            String printfResult = newReg();
-            emit(printfResult + " = call i32 (i8*, ...) @printf(i8* " + formatStrPtr + ")");
-            return "";
-        }
-
-        // Construir formato dinâmico e lista de argumentos
-        StringBuilder formatBuilder = new StringBuilder();
-        List<String> argValues = new ArrayList<>();
-        List<String> argTypes = new ArrayList<>();
-
+    // Método para tratar chamadas println: cada argumento vai para a rotina de impressão
+    // do runtime do seu tipo, separados por espaço, e a linha termina com '\n'.
+    private Value handlePrintln(AST node) {
         for (int i = 1; i < node.getChildCount(); i++) {
             AST argNode = node.getChild(i);
             GoType argType = argNode.getAnnotatedType();
-            String argValue = visit(argNode);
+            Value argValue = visit(argNode);
 
             // Adicionar espaço entre argumentos (exceto o primeiro)
             if (i > 1) {
-                formatBuilder.append(" ");
+                printByte(' ');
+            }
+
+            if (argType.isArray()) {
+                builder.call("void", runtime.slicePrinter(getLLVMType(argType.getElementType())), argValue);
+                continue;
             }
 
-            // Adicionar especificador de formato baseado no tipo
             switch (argType) {
                 case INT: case INT32:
-                    formatBuilder.append("%d");
-                    argTypes.add("i32");
+                    builder.call("void", runtime.require(RuntimeLibrary.PRINT_INT), toInt64(withType(argValue, "i32"), "sext"));
                     break;
                 case BOOL:
-                    formatBuilder.append("%d");
-                    String extendedBool = newReg();
-                    emit(extendedBool + " = zext i1 " + argValue + " to i32");
-                    argValue = extendedBool;
-                    argTypes.add("i32");
+                    // Como no formato %d usado antes: 1 ou 0
+                    builder.call("void", runtime.require(RuntimeLibrary.PRINT_INT), toInt64(argValue, "zext"));
                     break;
                 case FLOAT64:
-                    formatBuilder.append("%f");
-                    argTypes.add("double");
+                    builder.call("void", runtime.require(RuntimeLibrary.PRINT_FLOAT), withType(argValue, "double"));
                     break;
                 case STRING:
-                    formatBuilder.append("%s");
-                    argTypes.add("i8*");
+                    builder.call("void", runtime.require(RuntimeLibrary.PRINT_STRING), argValue);
                     break;
                 default:
-                    formatBuilder.append("%s"); // fallback
-                    argTypes.add("i8*");
+                    break;
             }
-            argValues.add(argValue);
         }
-        
-        // Adicionar quebra de linha no final
-        formatBuilder.append("\n"); // Use literal newline, not escaped
 
-        // Criar a string de formato global
-        String formatStrName = createGlobalString(formatBuilder.toString(), ".fmt.println");
-        int formatStrLen = stringLengths.get(formatStrName);
+        // Adicionar quebra de linha no final
+        printByte('\n');
+        return null;
+    }
 
-        String formatStrPtr = newReg();
-        emit(formatStrPtr + " = getelementptr inbounds [" + formatStrLen + " x i8], [" + formatStrLen + " x i8]* " + formatStrName + ", i64 0, i64 0");
+    private void printByte(char c) {
+        builder.call("void", runtime.require(RuntimeLibrary.PRINT_BYTE), Constant.of("i8", String.valueOf((int) c)));
+    }
 
-        // Construir a chamada printf com todos os argumentos
-        StringBuilder printfCall = new StringBuilder();
-        String printfResult = newReg();
-        printfCall.append(printfResult + " = call i32 (i8*, ...) @printf(i8* ").append(formatStrPtr);
-        
-        for (int i = 0; i < argValues.size(); i++) {
-            printfCall.append(", ").append(argTypes.get(i)).append(" ").append(argValues.get(i));
+    // Estende um inteiro para i64 (o tipo das rotinas de impressão); constantes só mudam de tipo.
+    private Value toInt64(Value value, String extension) {
+        if (value instanceof Constant) {
+            return withType(value, "i64"); // true e false já são escritos como 1 e 0
         }
-        printfCall.append(")");
-
-        emit(printfCall.toString());
-        return "";
+        return builder.cast(extension, value, "i64");
     }
 
     // Método para tratar chamadas len
-    private String handleLen(AST node) {
-        // For string length - simplified implementation, always return 0
-        String resultReg = newReg();
-        emit(resultReg + " = add i32 0, 0  ; len() placeholder");
-        return resultReg;
+    private Value handleLen(AST node) {
+        AST argNode = node.getChild(1);
+        if (argNode.getAnnotatedType() != null && argNode.getAnnotatedType().isArray()) {
+            // len de slice: o campo len do cabeçalho
+            Value slice = visit(argNode);
+            Register len64 = builder.extractValue(slice, 1, "i64");
+            return builder.cast("trunc", len64, "i32");
+        }
+        // len de string: o campo len do cabeçalho (em bytes, como em Go)
+        return stringLength32(visit(argNode));
     }
 
-    // Método para tratar chamadas scanln
-    private String handleScanln(AST node) {
-        String totalScannedReg = newReg();
-        emit(totalScannedReg + " = alloca i32");
-        emit("store i32 0, i32* " + totalScannedReg);
+    // Extrai o tamanho de uma string como i32 (o tipo de int no código gerado).
+    private Register stringLength32(Value string) {
+        Register len64 = builder.extractValue(string, 1, "i64");
+        return builder.cast("trunc", len64, "i32");
+    }
+
+    // append(s, x, ...): para cada elemento, go.slice.grow devolve o slice com len+1
+    // (com um array maior se não havia capacidade) e o elemento é gravado na última posição.
+    private Value handleAppend(AST node) {
+        String sliceType = RuntimeLibrary.SLICE_TYPE;
+        String elementType = getLLVMType(node.getAnnotatedType().getElementType());
+        Value slice = visit(node.getChild(1));
+        for (int i = 2; i < node.getChildCount(); i++) {
+            Value value = visit(node.getChild(i));
+            Register grown = builder.call(sliceType, runtime.require(RuntimeLibrary.SLICE_GROW),
+                    slice, Constant.of("i64", RuntimeLibrary.sizeOf(elementType)));
+            Register data = builder.extractValue(grown, 0, "i8*");
+            Register len = builder.extractValue(grown, 1, "i64");
+            Register last = builder.binary("sub", len, Constant.i64(1));
+            Register typed = builder.cast("bitcast", data, elementType + "*");
+            Register elementPtr = builder.gep(elementType + "*", elementType, typed, last);
+            builder.store(withType(value, elementType), elementPtr);
+            slice = grown;
+        }
+        return slice;
+    }
+
+    // Método para tratar chamadas scanln: cada variável é lida pela rotina do runtime do
+    // seu tipo, que grava direto no endereço da variável e devolve 1, 0 ou -1, como o scanf.
+    private Value handleScanln(AST node) {
+        Register totalScanned = builder.alloca("i32");
+        builder.store(Constant.i32(0), totalScanned);
 
         for (int i = 1; i < node.getChildCount(); i++) {
             AST argNode = node.getChild(i);
             if (argNode.kind != NodeKind.ID_NODE) {
                 continue;
             }
-            
-            String varName = argNode.text;
-            SymbolTableEntry entry = symbolTable.peek().get(varName);
-            String varPtr = entry.value;
-            GoType varType = entry.type;
 
-            String formatStrName = getOrCreateScanfFormatString(varType);
-            if (formatStrName.isEmpty()) continue;
-
-            int formatStrLen = stringLengths.get(formatStrName);
-
-            String formatStrPtr = newReg();
-            emit(formatStrPtr + " = getelementptr inbounds [" + formatStrLen + " x i8], [" + formatStrLen + " x i8]* " + formatStrName + ", i64 0, i64 0");
-
-            String scanResultReg = newReg();
-            
-            // Trata a chamada a scanf para cada tipo
-            handleScanfByType(varType, varPtr, formatStrPtr, scanResultReg);
+            String varName = argNode.text;
+            SymbolTableEntry entry = symbolTable.lookup(varName);
+            Value varPtr = entry.value;
+
+            String scanner;
+            switch (entry.type) {
+                case INT: case INT32: scanner = RuntimeLibrary.SCAN_INT; break;
+                case BOOL:            scanner = RuntimeLibrary.SCAN_BOOL; break;
+                case FLOAT64:         scanner = RuntimeLibrary.SCAN_FLOAT; break;
+                case STRING:          scanner = RuntimeLibrary.SCAN_STRING; break;
+                default: continue;
+            }
+            Register scanResult = builder.call("i32", runtime.require(scanner), varPtr);
 
             // Atualiza o contador total
-            String currentTotal = newReg();
-            emit(currentTotal + " = load i32, i32* " + totalScannedReg);
-            String newTotal = newReg();
-            emit(newTotal + " = add nsw i32 " + currentTotal + ", " + scanResultReg);
-            emit("store i32 " + newTotal + ", i32* " + totalScannedReg);
-        }
-
-        String finalCount = newReg();
-        emit(finalCount + " = load i32, i32* " + totalScannedReg);
-        return finalCount;
-    }
-
-    // Método auxiliar para tratar scanf por tipo
-    private void handleScanfByType(GoType varType, String varPtr, String formatStrPtr, String scanResultReg) {
-        if (varType == GoType.STRING) {
-            String bufferPtr = newReg();
-            String bufferType = "[" + STRING_BUFFER_SIZE + " x i8]";
-            // Obtém um i8* para o início do buffer
-            emit(bufferPtr + " = getelementptr inbounds " + bufferType + ", " + bufferType + "* " + varPtr + ", i64 0, i64 0");
-            emit(scanResultReg + " = call i32 (i8*, ...) @scanf(i8* " + formatStrPtr + ", i8* " + bufferPtr + ")");
-        } else if (varType == GoType.BOOL) {
-            String tempInt = newReg();
-            emit(tempInt + " = alloca i32");
-            emit(scanResultReg + " = call i32 (i8*, ...) @scanf(i8* " + formatStrPtr + ", i32* " + tempInt + ")");
-            
-            String loadedInt = newReg();
-            emit(loadedInt + " = load i32, i32* " + tempInt);
-            
-            String boolResult = newReg();
-            emit(boolResult + " = icmp ne i32 " + loadedInt + ", 0");
-            emit("store i1 " + boolResult + ", i1* " + varPtr);
-        } else {
-            // Para tipos numéricos, passa o ponteiro diretamente
-            emit(scanResultReg + " = call i32 (i8*, ...) @scanf(i8* " + formatStrPtr + ", " + getLLVMType(varType) + "* " + varPtr + ")");
+            Register currentTotal = builder.load(totalScanned);
+            Register newTotal = builder.binaryNsw("add", currentTotal, scanResult);
+            builder.store(newTotal, totalScanned);
         }
+
+        return builder.load(totalScanned);
     }
 
     // Método para tratar chamadas de função definida pelo usuário
-    private String handleUserFunctionCall(AST node, String funcName) {
-        List<String> argValues = new ArrayList<>();
+    private Value handleUserFunctionCall(AST node, String funcName) {
+        if (isSelfTailCall(node)) {
+            // Chamada void no fim de uma função void
+            emitSelfTailCall(node);
+            return null;
+        }
+
+        List<Value> argValues = new ArrayList<>();
         for (int i = 1; i < node.getChildCount(); i++) {
             argValues.add(visit(node.getChild(i)));
         }
@@ -1011,102 +1076,118 @@ public class GoCodegenVisitor {
         AST funcDecl = functionDeclarations.get(funcName);
         if (funcDecl == null) {
             System.err.println("ERROR: Function not declared: " + funcName);
-            return "";
+            return null;
         }
-        
+
         // Verificar número de argumentos
         AST paramListNode = funcDecl.getChild(1);
         int expectedArgs = paramListNode.getChildCount();
         int providedArgs = node.getChildCount() - 1;
         if (providedArgs != expectedArgs) {
-            System.err.println("ERROR: Wrong number of arguments for " + funcName + 
+            System.err.println("ERROR: Wrong number of arguments for " + funcName +
                               ": expected " + expectedArgs + ", got " + providedArgs);
-            return "";
+            return null;
         }
-        
-        List<String> typedArgs = new ArrayList<>();
+
+        Value[] typedArgs = new Value[argValues.size()];
         for (int i = 0; i < argValues.size(); i++) {
-            if (i < paramListNode.getChildCount()) {
-                AST paramNode = paramListNode.getChild(i).getChild(0);
-                String paramType = getLLVMType(paramNode.getAnnotatedType());
-                typedArgs.add(paramType + " " + argValues.get(i));
-            }
+            AST paramNode = paramListNode.getChild(i).getChild(0);
+            typedArgs[i] = withType(argValues.get(i), getLLVMType(paramNode.getAnnotatedType()));
         }
-        String argsString = String.join(", ", typedArgs);
 
         String returnType = getLLVMType(node.getAnnotatedType());
-        
-        if (returnType.equals("void")) {
-            emit("call void @" + funcName + "(" + argsString + ")");
-            return "";
-        } else {
-            String destReg = newReg();
-            emit(destReg + " = call " + returnType + " @" + funcName + "(" + argsString + ")");
-            return destReg;
+        if (node.isTailCall()) {
+            return builder.tailCall(returnType, "@" + funcName, typedArgs);
+        }
+        return builder.call(returnType, "@" + funcName, typedArgs); // null para funções void
+    }
+
+    private boolean isSelfTailCall(AST node) {
+        return tailRecurseBlock != null && node.kind == NodeKind.CALL_NODE && node.isTailCall()
+                && node.getChild(0).text.equals(currentFunction.getName());
+    }
+
+    // Todos os argumentos são avaliados antes de o primeiro parâmetro ser sobrescrito.
+    private void emitSelfTailCall(AST node) {
+        List<Value> argValues = new ArrayList<>();
+        for (int i = 1; i < node.getChildCount(); i++) {
+            argValues.add(visit(node.getChild(i)));
+        }
+        for (int i = 0; i < argValues.size(); i++) {
+            String paramType = currentFunction.getParams().get(i).getType();
+            builder.store(withType(argValues.get(i), paramType), paramSlots.get(i));
+        }
+        builder.br(tailRecurseBlock);
+    }
+
+    private static boolean hasSelfTailCall(AST node, String funcName) {
+        if (node.kind == NodeKind.CALL_NODE && node.isTailCall() && node.getChild(0).text.equals(funcName)) {
+            return true;
+        }
+        for (AST child : node.getChildren()) {
+            if (child != null && hasSelfTailCall(child, funcName)) return true;
         }
+        return false;
     }
 
-    private String visitTypeConvNode(AST node) {
+    private Value visitTypeConvNode(AST node) {
         if (node == null || node.getChildCount() == 0) {
             System.err.println("ERROR: Invalid type conversion node");
-            return "";
+            return null;
         }
-        
+
         GoType targetType = node.getAnnotatedType();
         AST exprNode = node.getChild(0);
 
         if (exprNode == null) {
             System.err.println("ERROR: Missing expression in type conversion");
-            return "";
+            return null;
         }
 
         GoType sourceType = exprNode.getAnnotatedType();
-            
+
         if (targetType == null || sourceType == null) {
             System.err.println("ERROR: Type information missing for conversion");
-            return "";
+            return null;
         }
 
         if (targetType == sourceType) {
             return visit(exprNode); // Sem conversão necessária
         }
-        
-        String sourceValue = visit(exprNode);
-        String destReg = newReg();
+
+        Value sourceValue = withType(visit(exprNode), getLLVMType(sourceType));
 
         if (sourceType.isInteger() && targetType.isFloat()) {
-            emit(destReg + " = sitofp " + getLLVMType(sourceType) + " " + sourceValue + " to " + getLLVMType(targetType));
+            return builder.cast("sitofp", sourceValue, getLLVMType(targetType));
         } else if (sourceType.isFloat() && targetType.isInteger()) {
-            emit(destReg + " = fptosi " + getLLVMType(sourceType) + " " + sourceValue + " to " + getLLVMType(targetType));
+            return builder.cast("fptosi", sourceValue, getLLVMType(targetType));
         } else if (sourceType == GoType.BOOL && targetType.isInteger()) {
-            emit(destReg + " = zext i1 " + sourceValue + " to " + getLLVMType(targetType));
+            return builder.cast("zext", sourceValue, getLLVMType(targetType));
         } else if (sourceType.isInteger() && targetType == GoType.BOOL) {
-            emit(destReg + " = icmp ne " + getLLVMType(sourceType) + " " + sourceValue + ", 0");
+            return builder.icmp("ne", sourceValue, Constant.of(getLLVMType(sourceType), "0"));
         } else {
             System.err.println("ERROR: Unsupported type conversion: " + sourceType + " to " + targetType);
             return sourceValue;
         }
-        
-        return destReg;
     }
 
-    private String visitUnaryMinusNode(AST node) {
+    private Value visitUnaryMinusNode(AST node) {
         if (node == null || node.getChildCount() == 0) {
             System.err.println("ERROR: Invalid unary minus node");
-            return "";
+            return null;
         }
 
         GoType type = node.getAnnotatedType();
         AST childNode = node.getChild(0);
-        
+
         if (childNode == null) {
             System.err.println("ERROR: Missing operand in unary minus");
-            return "";
+            return null;
         }
 
         if (type == null) {
             System.err.println("ERROR: Type information missing for unary minus");
-            return "";
+            return null;
         }
 
         if (!type.isInteger() && !type.isFloat()) {
@@ -1115,363 +1196,237 @@ public class GoCodegenVisitor {
         }
 
         String llvmType = getLLVMType(type);
-        String value = visit(childNode);
-        String destReg = newReg();
+        Value value = withType(visit(childNode), llvmType);
 
         if (type.isFloat()) {
-            emit(destReg + " = fsub " + llvmType + " 0.0, " + value);
+            return builder.binary("fsub", Constant.of(llvmType, "0.0"), value);
         } else {
-            emit(destReg + " = sub nsw " + llvmType + " 0, " + value);
+            return builder.binaryNsw("sub", Constant.of(llvmType, "0"), value);
         }
-        return destReg;
     }
 
-    private String visitNotNode(AST node) {
-        String value = visit(node.getChild(0));
-        String destReg = newReg();
-        emit(destReg + " = xor i1 " + value + ", 1");
-        return destReg;
+    private Value visitNotNode(AST node) {
+        Value value = visit(node.getChild(0));
+        return builder.binary("xor", withType(value, "i1"), Constant.bool(true));
     }
 
-    private String visitAndNode(AST node) {
-        String entryLabel = getCurrentBlock(); // Use current block instead of creating new one
-        String evalRhsLabel = newLabel("and.eval_rhs");
-        String endLabel = newLabel("and.end");
-        
-        // No initial branch - we're already in the entry block
-        String lhsValue = visit(node.getChild(0));
-        emit("br i1 " + lhsValue + ", label %" + evalRhsLabel + ", label %" + endLabel);
-
-        emitLabel(evalRhsLabel);
-        String rhsValue = visit(node.getChild(1));
-        String rhsBlock = getCurrentBlock(); // Get the actual block where RHS ends
-        emit("br label %" + endLabel);
-
-        emitLabel(endLabel);
-        String destReg = newReg();
-        emit(destReg + " = phi i1 [ 0, %" + entryLabel + " ], [ " + rhsValue + ", %" + rhsBlock + " ]");
-        return destReg;
+    // a && b: se a for falso, o resultado é 0 sem avaliar b (curto-circuito com phi)
+    private Value visitAndNode(AST node) {
+        BasicBlock evalRhsBlock = builder.createBlock("and.eval_rhs");
+        BasicBlock endBlock = builder.createBlock("and.end");
+
+        Value lhsValue = visit(node.getChild(0));
+        BasicBlock lhsBlock = builder.getCurrentBlock(); // Bloco onde o lado esquerdo termina (pode ter mudado)
+        builder.condBr(lhsValue, evalRhsBlock, endBlock);
+
+        builder.positionAt(evalRhsBlock);
+        Value rhsValue = visit(node.getChild(1));
+        BasicBlock rhsBlock = builder.getCurrentBlock(); // Get the actual block where RHS ends
+        builder.br(endBlock);
+
+        builder.positionAt(endBlock);
+        Instruction.Phi phi = builder.phi("i1");
+        phi.addIncoming(Constant.bool(false), lhsBlock);
+        phi.addIncoming(withType(rhsValue, "i1"), rhsBlock);
+        return phi.getResult();
     }
 
-    private String visitOrNode(AST node) {
-        String entryLabel = getCurrentBlock(); // Use current block instead of creating new one
-        String evalRhsLabel = newLabel("or.eval_rhs");
-        String endLabel = newLabel("or.end");
-
-        // No initial branch - we're already in the entry block
-        String lhsValue = visit(node.getChild(0));
-        emit("br i1 " + lhsValue + ", label %" + endLabel + ", label %" + evalRhsLabel);
-
-        emitLabel(evalRhsLabel);
-        String rhsValue = visit(node.getChild(1));
-        String rhsBlock = getCurrentBlock(); // Get the actual block where RHS ends
-        emit("br label %" + endLabel);
-
-        emitLabel(endLabel);
-        String destReg = newReg();
-        emit(destReg + " = phi i1 [ 1, %" + entryLabel + " ], [ " + rhsValue + ", %" + rhsBlock + " ]");
-        return destReg;
+    // a || b: se a for verdadeiro, o resultado é 1 sem avaliar b
+    private Value visitOrNode(AST node) {
+        BasicBlock evalRhsBlock = builder.createBlock("or.eval_rhs");
+        BasicBlock endBlock = builder.createBlock("or.end");
+
+        Value lhsValue = visit(node.getChild(0));
+        BasicBlock lhsBlock = builder.getCurrentBlock(); // Bloco onde o lado esquerdo termina (pode ter mudado)
+        builder.condBr(lhsValue, endBlock, evalRhsBlock);
+
+        builder.positionAt(evalRhsBlock);
+        Value rhsValue = visit(node.getChild(1));
+        BasicBlock rhsBlock = builder.getCurrentBlock(); // Get the actual block where RHS ends
+        builder.br(endBlock);
+
+        builder.positionAt(endBlock);
+        Instruction.Phi phi = builder.phi("i1");
+        phi.addIncoming(Constant.bool(true), lhsBlock);
+        phi.addIncoming(withType(rhsValue, "i1"), rhsBlock);
+        return phi.getResult();
     }
 
-    private String visitPlusNode(AST node) {
+    private Value visitPlusNode(AST node) {
         GoType resultType = node.getAnnotatedType();
-        
+
         // Check if this is string concatenation
         if (resultType == GoType.STRING) {
-            // For now, implement a simple version that returns a fixed pointer
-            // In a real implementation, you would need to call strcat or similar
-            String left = visit(node.getChild(0));
-            String right = visit(node.getChild(1));
-            
-            // Create a simple placeholder - in reality this would need proper string concatenation
-            String destReg = newReg();
-            emit(destReg + " = select i1 true, i8* " + left + ", i8* " + right + "  ; placeholder for string concat");
-            return destReg;
+            Value left = visit(node.getChild(0));
+            Value right = visit(node.getChild(1));
+            return builder.call(RuntimeLibrary.STRING_TYPE, runtime.require(RuntimeLibrary.STRING_CONCAT), left, right);
         } else {
             // Regular arithmetic addition
             return visitBinaryOpNode(node, "add", null);
         }
     }
 
-    private String visitBinaryOpNode(AST node, String op, String condition) {
+    private Value visitBinaryOpNode(AST node, String op, String condition) {
         GoType operandGoType = node.getChild(0).getAnnotatedType();
         String operandType = getLLVMType(operandGoType);
-        String left = visit(node.getChild(0));
-        String right = visit(node.getChild(1));
-        String destReg = newReg();
-        
-        String instruction;
+        Value left = withType(visit(node.getChild(0)), operandType);
+        Value right = withType(visit(node.getChild(1)), operandType);
+
+        if (operandGoType == GoType.STRING && op.equals("cmp")) {
+            // Strings: go.string.compare devolve <0, 0 ou >0, comparado com zero abaixo
+            left = builder.call("i32", runtime.require(RuntimeLibrary.STRING_COMPARE), left, right);
+            right = Constant.i32(0);
+        }
+
         if (operandGoType.isFloat()) {
-            String prefix = "f";
-            String cmpPrefix = "fcmp";
             Map<String, String> floatConditions = Map.of("eq", "oeq", "ne", "one", "lt", "olt", "le", "ole", "gt", "ogt", "ge", "oge");
-            
+
             if (op.equals("cmp")) {
-                instruction = destReg + " = " + cmpPrefix + " " + floatConditions.get(condition) + " " + operandType + " " + left + ", " + right;
+                return builder.fcmp(floatConditions.get(condition), left, right);
             } else {
-                instruction = destReg + " = " + prefix + op + " " + operandType + " " + left + ", " + right;
+                return builder.binary("f" + op, left, right);
             }
         } else {
-            String cmpPrefix = "icmp";
             String arithOp = op;
             if (op.equals("rem")) arithOp = "srem";
             if (op.equals("div")) arithOp = "sdiv";
-            
+
             if (op.equals("cmp")) {
                 // Use signed predicates for integers
                 Map<String, String> intConditions = Map.of("eq", "eq", "ne", "ne", "lt", "slt", "le", "sle", "gt", "sgt", "ge", "sge");
-                instruction = destReg + " = " + cmpPrefix + " " + intConditions.get(condition) + " " + operandType + " " + left + ", " + right;
-            } else {
+                return builder.icmp(intConditions.get(condition), left, right);
+            } else if (arithOp.equals("srem") || arithOp.equals("sdiv")) {
                 // Don't use nsw with srem and sdiv
-                if (arithOp.equals("srem") || arithOp.equals("sdiv")) {
-                    instruction = destReg + " = " + arithOp + " " + operandType + " " + left + ", " + right;
-                } else {
-                    instruction = destReg + " = " + arithOp + " nsw " + operandType + " " + left + ", " + right;
-                }
+                return builder.binary(arithOp, left, right);
+            } else {
+                return builder.binaryNsw(arithOp, left, right);
             }
         }
-        emit(instruction);
-        return destReg;
     }
 
-    /**
-     * CORREÇÃO: Ao acessar um ID de string, retorna um ponteiro para o início
-     * do buffer alocado, em vez de tentar carregar um valor.
-     */
-    private String visitIdNode(AST node) {
+    private Value visitIdNode(AST node) {
         String varName = node.text;
         SymbolTableEntry entry = null;
-        
+
         // First try to find in local scope
         if (!symbolTable.isEmpty()) {
-            entry = symbolTable.peek().get(varName);
+            entry = symbolTable.lookup(varName);
         }
-        
+
         // If not found in local scope, try global scope
         if (entry == null) {
             entry = globalSymbols.get(varName);
         }
-        
+
         if (entry == null) {
             System.err.println("ERROR: Variable not found: " + varName);
-            return ""; // Or throw an exception
+            return null; // Or throw an exception
         }
 
         if (entry.isConstant) {
             return entry.value;
-        } else {
-            String pointerName = entry.value;
-            if (entry.type == GoType.STRING) {
-                // Para strings, carregamos o ponteiro. Strings são armazenadas como i8**
-                String destReg = newReg();
-                emit(destReg + " = load i8*, i8** " + pointerName);
-                return destReg; // Retorna um i8*
-            } else if (entry.type.isArray()) {
-                return entry.value;
-            } else {
-                // Para outros tipos simples, carrega o valor do ponteiro
-                String llvmType = getLLVMType(entry.type);
-                String destReg = newReg();
-                emit(destReg + " = load " + llvmType + ", " + llvmType + "* " + pointerName);
-                return destReg;
-            }
         }
+        // Strings e slices também são carregados por valor (o cabeçalho inteiro)
+        return builder.load(entry.value);
     }
 
-    private String visitIndexNode(AST node) {
-        AST arrayNode = node.getChild(0);
-        AST indexNode = node.getChild(1);
-        
-        String arrayPtr = visit(arrayNode);
-        String indexValue = visit(indexNode);
-        
-        GoType arrayType = arrayNode.getAnnotatedType();
-        GoType elementType = arrayType.getElementType();
-        String elementLLVMType = getLLVMType(elementType);
-        String arrayBaseType = getLLVMType(arrayType).replace("*", "");
-        
-        String elementPtr = newReg();
-        emit(elementPtr + " = getelementptr inbounds " + arrayBaseType + ", " + 
-             getLLVMType(arrayType) + " " + arrayPtr + ", i64 0, i32 " + indexValue);
-        
-        String elementValue = newReg();
-        emit(elementValue + " = load " + elementLLVMType + ", " + elementLLVMType + "* " + elementPtr);
-        
-        return elementValue;
+    private Value visitIndexNode(AST node) {
+        return builder.load(visitSliceElementPtr(node));
+    }
+
+    // Calcula o endereço de s[i] (INDEX_NODE), com a verificação de limites de Go, que
+    // é omitida quando o laço em volta já garante o índice (ver inBoundsLoop).
+    private Register visitSliceElementPtr(AST indexNode) {
+        Value slice = visit(indexNode.getChild(0));
+        Value indexValue = withType(visit(indexNode.getChild(1)), "i32");
+        String elementType = getLLVMType(indexNode.getChild(0).getAnnotatedType().getElementType());
+
+        boolean checked = !isInBounds(indexNode);
+        Register data = builder.extractValue(slice, 0, "i8*");
+        Register len = checked ? builder.extractValue(slice, 1, "i64") : null;
+        Register index = builder.cast("sext", indexValue, "i64");
+        if (checked) {
+            builder.call("void", runtime.require(RuntimeLibrary.SLICE_BOUNDS), index, len);
+        }
+        Register typed = builder.cast("bitcast", data, elementType + "*");
+        return builder.gep(elementType + "*", elementType, typed, index);
+    }
+
+    private boolean isInBounds(AST indexNode) {
+        AST sliceNode = indexNode.getChild(0);
+        AST indexExpr = indexNode.getChild(1);
+        if (inBoundsLoops.isEmpty() || sliceNode.kind != NodeKind.ID_NODE || indexExpr.kind != NodeKind.ID_NODE) {
+            return false;
+        }
+        // Compara as declarações, não os nomes: um i ou s declarado no corpo é outra variável
+        SymbolTableEntry slice = symbolTable.lookup(sliceNode.text);
+        SymbolTableEntry index = symbolTable.lookup(indexExpr.text);
+        for (InBoundsLoop loop : inBoundsLoops) {
+            if (loop.slice == slice && loop.index == index) return true;
+        }
+        return false;
     }
 
-    private String visitCompositeLiteralNode(AST node) {
+    // []T{...}: aloca exatamente os elementos no heap e monta o cabeçalho com len == cap.
+    private Value visitCompositeLiteralNode(AST node) {
         GoType arrayType = node.getAnnotatedType();
-        
+
         if (arrayType == null) {
-            return "";
+            return null;
         }
-        
-        String arrayBaseType = getLLVMType(arrayType).replace("*", "");
-        
-        String arrayPtr = newReg();
-        emit(arrayPtr + " = alloca " + arrayBaseType);
-        
-        // CORREÇÃO: Inicializar todo o array com zero primeiro
-        emit("store " + arrayBaseType + " zeroinitializer, " + arrayBaseType + "* " + arrayPtr);
-        
-        for (int i = 0; i < node.getChildCount(); i++) {
-            AST elementNode = node.getChild(i);
-            String elementValue = visit(elementNode);
-            GoType elementType = arrayType.getElementType();
-            String elementLLVMType = getLLVMType(elementType);
-            
-            String elementPtr = newReg();
-            // CORREÇÃO: Usar arrayBaseType em vez de getLLVMType(arrayType)
-            emit(elementPtr + " = getelementptr inbounds " + arrayBaseType + ", " + 
-                 arrayBaseType + "* " + arrayPtr + ", i64 0, i32 " + i);
-            emit("store " + elementLLVMType + " " + elementValue + ", " + elementLLVMType + "* " + elementPtr);
+
+        String sliceType = RuntimeLibrary.SLICE_TYPE;
+
+        // Os elementos ficam no EXPR_LIST_NODE filho do literal
+        AST elements = node.getChild(0);
+        int count = elements.getChildCount();
+        if (count == 0) {
+            return Constant.zero(runtime.require(sliceType));
         }
-        
-        return arrayPtr;
+
+        String elementType = getLLVMType(arrayType.getElementType());
+        Register bytes = builder.binary("mul", Constant.of("i64", RuntimeLibrary.sizeOf(elementType)), Constant.i64(count));
+        Register data = builder.call("i8*", runtime.require("@malloc"), bytes);
+        Register typed = builder.cast("bitcast", data, elementType + "*");
+
+        for (int i = 0; i < count; i++) {
+            Value elementValue = visit(elements.getChild(i));
+            Register elementPtr = builder.gep(elementType + "*", elementType, typed, Constant.i64(i));
+            builder.store(withType(elementValue, elementType), elementPtr);
+        }
+
+        Register withData = builder.insertValue(Constant.undef(sliceType), data, 0);
+        Register withLen = builder.insertValue(withData, Constant.i64(count), 1);
+        return builder.insertValue(withLen, Constant.i64(count), 2);
     }
 
     // --- Literais ---
 
-    private String visitIntValNode(AST node) {
-        return String.valueOf(node.intData);
-    }
-    
-    private String visitRealValNode(AST node) {
-        return String.valueOf((double)node.floatData);
+    private Value visitIntValNode(AST node) {
+        return Constant.i32(node.intData);
     }
 
-    private String visitBoolValNode(AST node) {
-        return node.boolData ? "1" : "0";
+    private Value visitRealValNode(AST node) {
+        return Constant.of("double", String.valueOf((double)node.floatData));
     }
 
-    private String visitStrValNode(AST node) {
-        String strName = createGlobalString(node.text, ".const.str");
-        // Use the stored length from createGlobalString
-        int strLen = stringLengths.get(strName);
-        
-        String ptrReg = newReg();
-        emit(ptrReg + " = getelementptr inbounds [" + strLen + " x i8], [" + strLen + " x i8]* " + strName + ", i64 0, i64 0");
-        return ptrReg;
+    private Value visitBoolValNode(AST node) {
+        return Constant.bool(node.boolData);
     }
 
-    // --- Constant Expression Evaluator ---
-
-    private String evaluateConstantExpression(AST node) {
-        if (node == null) return "0";
+    private Value visitStrValNode(AST node) {
+        return stringConstant(node.text);
+    }
 
-        switch (node.kind) {
-            case INT_VAL_NODE: return String.valueOf(node.intData);
-            case REAL_VAL_NODE: return String.valueOf((double)node.floatData);
-            case BOOL_VAL_NODE: return node.boolData ? "1" : "0";
-            case STR_VAL_NODE: {
-                String strName = createGlobalString(node.text, ".str");
-                int strLen = stringLengths.get(strName);
-                String ptrReg = newReg();
-                emit(ptrReg + " = getelementptr inbounds [" + strLen + " x i8], [" + strLen + " x i8]* " + strName + ", i64 0, i64 0");
-                return ptrReg;
-            }
-            case ID_NODE: {
-                SymbolTableEntry entry = symbolTable.peek().get(node.text);
-                if (entry != null && entry.isConstant) {
-                    return entry.value;
-                }
-                throw new RuntimeException("Undefined constant: " + node.text);
-            }
-            case PLUS_NODE: {
-                String left = evaluateConstantExpression(node.getChild(0));
-                String right = evaluateConstantExpression(node.getChild(1));
-                GoType type = node.getAnnotatedType();
-                if (type.isFloat()) {
-                    double l = Double.parseDouble(left);
-                    double r = Double.parseDouble(right);
-                    return String.valueOf(l + r);
-                } else {
-                    long l = Long.parseLong(left);
-                    long r = Long.parseLong(right);
-                    return String.valueOf(l + r);
-                }
-            }
-            case MINUS_NODE: {
-                String left = evaluateConstantExpression(node.getChild(0));
-                String right = evaluateConstantExpression(node.getChild(1));
-                GoType type = node.getAnnotatedType();
-                if (type.isFloat()) {
-                    double l = Double.parseDouble(left);
-                    double r = Double.parseDouble(right);
-                    return String.valueOf(l - r);
-                } else {
-                    long l = Long.parseLong(left);
-                    long r = Long.parseLong(right);
-                    return String.valueOf(l - r);
-                }
-            }
-            case TIMES_NODE: {
-                String left = evaluateConstantExpression(node.getChild(0));
-                String right = evaluateConstantExpression(node.getChild(1));
-                GoType type = node.getAnnotatedType();
-                if (type.isFloat()) {
-                    double l = Double.parseDouble(left);
-                    double r = Double.parseDouble(right);
-                    return String.valueOf(l * r);
-                } else {
-                    long l = Long.parseLong(left);
-                    long r = Long.parseLong(right);
-                    return String.valueOf(l * r);
-                }
-            }
-            case OVER_NODE: {
-                String left = evaluateConstantExpression(node.getChild(0));
-                String right = evaluateConstantExpression(node.getChild(1));
-                GoType type = node.getAnnotatedType();
-                if (type.isFloat()) {
-                    double l = Double.parseDouble(left);
-                    double r = Double.parseDouble(right);
-                    return String.valueOf(l / r);
-                } else {
-                    long l = Long.parseLong(left);
-                    long r = Long.parseLong(right);
-                    return String.valueOf(l / r);
-                }
-            }
-            case MOD_NODE: {
-                String left = evaluateConstantExpression(node.getChild(0));
-                String right = evaluateConstantExpression(node.getChild(1));
-                long l = Long.parseLong(left);
-                long r = Long.parseLong(right);
-                return String.valueOf(l % r);
-            }
-            case UNARY_MINUS_NODE: {
-                String value = evaluateConstantExpression(node.getChild(0));
-                GoType type = node.getAnnotatedType();
-                if (type.isFloat()) {
-                    double v = Double.parseDouble(value);
-                    return String.valueOf(-v);
-                } else {
-                    long v = Long.parseLong(value);
-                    return String.valueOf(-v);
-                }
-            }
-            case NOT_NODE: {
-                String value = evaluateConstantExpression(node.getChild(0));
-                boolean v = Boolean.parseBoolean(value);
-                return v ? "0" : "1";
-            }
-            case TYPE_CONV_NODE: {
-                String value = evaluateConstantExpression(node.getChild(0));
-                GoType sourceType = node.getChild(0).getAnnotatedType();
-                GoType targetType = node.getAnnotatedType();
-                if (sourceType.isInteger() && targetType.isFloat()) {
-                    long v = Long.parseLong(value);
-                    return String.valueOf((double)v);
-                } else if (sourceType.isFloat() && targetType.isInteger()) {
-                    double v = Double.parseDouble(value);
-                    return String.valueOf((long)v);
-                }
-                return value;
-            }
-            default:
-                throw new RuntimeException("Unsupported constant expression: " + node.kind);
+    // Um literal string é uma constante { i8*, i64 } apontando para a global com os bytes.
+    private Constant stringConstant(String value) {
+        Constant constant = stringConstants.get(value);
+        if (constant == null) {
+            // O terminador da global não faz parte da string
+            constant = Constant.of(runtime.require(RuntimeLibrary.STRING_TYPE),
+                    "{ i8* " + strings.pointer(value).ref() + ", i64 " + strings.length(value) + " }");
+            stringConstants.put(value, constant);
         }
+        return constant;
     }
 }
@@ -0,0 +1,937 @@
+package compiler.codegen;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Funções de runtime escritas diretamente em LLVM IR.
+ * O gerador de código pede cada função com require() na primeira vez que precisa
+ * dela; só as funções usadas (e o que elas usam) vão para o módulo.
+ *
+ * Slices são o tipo %go.slice = { i8* data, i64 len, i64 cap }. O ponteiro de dados
+ * é convertido (bitcast) para o tipo do elemento em cada acesso, então um só tipo
+ * e uma só função de crescimento servem para todos os tipos de elemento.
+ *
+ * Strings são o tipo %go.string = { i8* data, i64 len }, passadas por valor. Os bytes
+ * não têm terminador nulo: literais apontam para a constante global e concatenações
+ * alocam um array novo no heap, então len(s) é só a leitura do campo len.
+ *
+ * println e scanln não usam printf/scanf: a saída é formatada à mão num buffer
+ * global esvaziado com write, e a entrada é lida com read num buffer próprio.
+ */
+final class RuntimeLibrary {
+
+    static final String SLICE_TYPE = "%go.slice";
+    static final String STRING_TYPE = "%go.string";
+
+    // Funções disponíveis
+    static final String SLICE_GROW = "@go.slice.grow";
+    static final String SLICE_BOUNDS = "@go.slice.bounds";
+    static final String SLICE_PRINT_PREFIX = "@go.slice.print.";
+    static final String STRING_CONCAT = "@go.string.concat";
+    static final String STRING_COMPARE = "@go.string.compare";
+    static final String PRINT_BYTE = "@go.print.byte";
+    static final String PRINT_BYTES = "@go.print.bytes";
+    static final String PRINT_STRING = "@go.print.string";
+    static final String PRINT_INT = "@go.print.int";
+    static final String PRINT_FLOAT = "@go.print.float";
+    static final String SCAN_INT = "@go.scan.int";
+    static final String SCAN_BOOL = "@go.scan.bool";
+    static final String SCAN_FLOAT = "@go.scan.float";
+    static final String SCAN_STRING = "@go.scan.string";
+
+    // Buffers de entrada e saída, usados só pelas funções acima
+    private static final String OUT_BUFFER = "@go.out.buf";
+    private static final String OUT_WRITE = "@go.out.write";
+    private static final String OUT_FLUSH = "@go.out.flush";
+    private static final String IN_BUFFER = "@go.in.buf";
+    private static final String IN_BYTE = "@go.in.byte";
+    private static final String IN_UNREAD = "@go.in.unread";
+    private static final String IN_IS_SPACE = "@go.in.isspace";
+    private static final String IN_SKIP_SPACE = "@go.in.skipspace";
+
+    // Tamanho de cada buffer de E/S: uma chamada de write/read a cada 64 KiB
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final String IO_BUFFER = "[" + IO_BUFFER_SIZE + " x i8]";
+
+    // Espaço reservado no buffer para um float formatado pelo snprintf ("%f" do maior double tem 316 bytes)
+    private static final int FLOAT_TEXT_SIZE = 400;
+
+    // Maior token lido por scanln numa variável float64 (array local, convertido por strtod)
+    private static final int FLOAT_TOKEN_SIZE = 64;
+
+    // Maior palavra lida por scanln numa variável string (o buffer é alocado no heap a cada leitura)
+    private static final int SCAN_BUFFER_SIZE = 1024;
+
+    private final Set<String> emitted = new HashSet<>();
+    private final StringBuilder out = new StringBuilder();
+    private final StringPool strings;
+
+    RuntimeLibrary(StringPool strings) {
+        this.strings = strings;
+    }
+
+    /**
+     * Garante que a função (ou declaração) 'name' esteja no módulo e devolve o seu nome.
+     */
+    String require(String name) {
+        if (!emitted.add(name)) return name;
+        switch (name) {
+            case SLICE_TYPE:
+                out.append("%go.slice = type { i8*, i64, i64 }\n");
+                break;
+            case STRING_TYPE:
+                out.append("%go.string = type { i8*, i64 }\n");
+                break;
+            case "@malloc":
+                out.append("declare noalias i8* @malloc(i64)\n");
+                break;
+            case "@exit":
+                out.append("declare void @exit(i32)\n");
+                break;
+            case "@memcmp":
+                out.append("declare i32 @memcmp(i8*, i8*, i64)\n");
+                break;
+            case "@write":
+                out.append("declare i64 @write(i32, i8*, i64)\n");
+                break;
+            case "@read":
+                out.append("declare i64 @read(i32, i8*, i64)\n");
+                break;
+            case "@snprintf":
+                out.append("declare i32 @snprintf(i8*, i64, i8*, ...)\n");
+                break;
+            case "@strtod":
+                out.append("declare double @strtod(i8*, i8**)\n");
+                break;
+            case "@llvm.memcpy.p0i8.p0i8.i64":
+                out.append("declare void @llvm.memcpy.p0i8.p0i8.i64(i8*, i8*, i64, i1)\n");
+                break;
+            case SLICE_GROW:
+                defineSliceGrow();
+                break;
+            case SLICE_BOUNDS:
+                defineSliceBounds();
+                break;
+            case STRING_CONCAT:
+                defineStringConcat();
+                break;
+            case STRING_COMPARE:
+                defineStringCompare();
+                break;
+            case OUT_BUFFER:
+                defineOutputBuffer();
+                break;
+            case OUT_WRITE:
+                defineOutWrite();
+                break;
+            case OUT_FLUSH:
+                defineOutFlush();
+                break;
+            case PRINT_BYTE:
+                definePrintByte();
+                break;
+            case PRINT_BYTES:
+                definePrintBytes();
+                break;
+            case PRINT_STRING:
+                definePrintString();
+                break;
+            case PRINT_INT:
+                definePrintInt();
+                break;
+            case PRINT_FLOAT:
+                definePrintFloat();
+                break;
+            case IN_BUFFER:
+                defineInputBuffer();
+                break;
+            case IN_BYTE:
+                defineInByte();
+                break;
+            case IN_UNREAD:
+                defineInUnread();
+                break;
+            case IN_IS_SPACE:
+                defineInIsSpace();
+                break;
+            case IN_SKIP_SPACE:
+                defineInSkipSpace();
+                break;
+            case SCAN_INT:
+                defineScanInt();
+                break;
+            case SCAN_BOOL:
+                defineScanBool();
+                break;
+            case SCAN_FLOAT:
+                defineScanFloat();
+                break;
+            case SCAN_STRING:
+                defineScanString();
+                break;
+            default:
+                if (name.startsWith(SLICE_PRINT_PREFIX)) {
+                    defineSlicePrint(name, name.substring(SLICE_PRINT_PREFIX.length()));
+                    break;
+                }
+                throw new IllegalArgumentException("Função de runtime desconhecida: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Texto IR de tudo que foi pedido até agora (tipos, declarações e definições).
+     */
+    String render() {
+        return out.toString();
+    }
+
+    /**
+     * Nome da função que imprime slices com elementos do tipo LLVM dado.
+     */
+    String slicePrinter(String elementType) {
+        String tag;
+        switch (elementType) {
+            case "i32":       tag = "i32"; break;
+            case "i1":        tag = "i1"; break;
+            case "double":    tag = "double"; break;
+            case STRING_TYPE: tag = "str"; break;
+            default: throw new IllegalArgumentException("Slice de tipo não suportado: " + elementType);
+        }
+        return require(SLICE_PRINT_PREFIX + tag);
+    }
+
+    /**
+     * Tamanho em bytes de um valor do tipo LLVM dado, como expressão constante
+     * (o truque do getelementptr a partir de null, independente do alvo).
+     */
+    static String sizeOf(String llvmType) {
+        return "ptrtoint (" + llvmType + "* getelementptr (" + llvmType + ", " + llvmType + "* null, i32 1) to i64)";
+    }
+
+    // go.slice.grow(s, size): devolve s com len+1, realocando se len == cap.
+    // O array novo é alocado com malloc e o antigo copiado, sem free nem realloc:
+    // outros slices podem continuar apontando para o array antigo (como em Go).
+    private void defineSliceGrow() {
+        require(SLICE_TYPE);
+        require("@malloc");
+        require("@llvm.memcpy.p0i8.p0i8.i64");
+        out.append("\ndefine internal %go.slice @go.slice.grow(%go.slice %s, i64 %size) {\n")
+           .append("entry:\n")
+           .append("\t%data = extractvalue %go.slice %s, 0\n")
+           .append("\t%len = extractvalue %go.slice %s, 1\n")
+           .append("\t%cap = extractvalue %go.slice %s, 2\n")
+           .append("\t%newlen = add i64 %len, 1\n")
+           .append("\t%full = icmp ugt i64 %newlen, %cap\n")
+           .append("\tbr i1 %full, label %grow, label %done\n")
+           .append("grow:\n")
+           .append("\t%empty = icmp eq i64 %cap, 0\n")
+           .append("\t%double = shl i64 %cap, 1\n")
+           .append("\t%newcap = select i1 %empty, i64 4, i64 %double\n")
+           .append("\t%bytes = mul i64 %newcap, %size\n")
+           .append("\t%newdata = call i8* @malloc(i64 %bytes)\n")
+           .append("\t%used = mul i64 %len, %size\n")
+           .append("\tcall void @llvm.memcpy.p0i8.p0i8.i64(i8* %newdata, i8* %data, i64 %used, i1 false)\n")
+           .append("\tbr label %done\n")
+           .append("done:\n")
+           .append("\t%d = phi i8* [ %data, %entry ], [ %newdata, %grow ]\n")
+           .append("\t%c = phi i64 [ %cap, %entry ], [ %newcap, %grow ]\n")
+           .append("\t%r0 = insertvalue %go.slice undef, i8* %d, 0\n")
+           .append("\t%r1 = insertvalue %go.slice %r0, i64 %newlen, 1\n")
+           .append("\t%r2 = insertvalue %go.slice %r1, i64 %c, 2\n")
+           .append("\tret %go.slice %r2\n")
+           .append("}\n");
+    }
+
+    // go.slice.bounds(i, len): encerra o programa com o panic de Go se i estiver fora de [0, len).
+    // Índices negativos viram valores enormes na comparação sem sinal. Como em Go, a
+    // mensagem vai para o stderr: a saída pendente é esvaziada no stdout, a mensagem é
+    // formatada no buffer já vazio e sai inteira num write(2, ...). O buffer é zerado em
+    // seguida, senão o destrutor a gravaria de novo no stdout durante o exit.
+    private void defineSliceBounds() {
+        require("@exit");
+        require("@write");
+        require(PRINT_INT);
+        require(OUT_FLUSH);
+        out.append("\ndefine internal void @go.slice.bounds(i64 %i, i64 %len) {\n")
+           .append("entry:\n")
+           .append("\t%bad = icmp uge i64 %i, %len\n")
+           .append("\tbr i1 %bad, label %panic, label %ok\n")
+           .append("panic:\n")
+           .append("\tcall void @go.out.flush()\n");
+        printConstant("panic: runtime error: index out of range [");
+        out.append("\tcall void @go.print.int(i64 %i)\n");
+        printConstant("] with length ");
+        out.append("\tcall void @go.print.int(i64 %len)\n");
+        printConstant("\n");
+        out.append("\t%msglen = load i64, i64* @go.out.len\n")
+           .append("\t%msg = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.out.buf, i64 0, i64 0\n")
+           .append("\t%w = call i64 @write(i32 2, i8* %msg, i64 %msglen)\n")
+           .append("\tstore i64 0, i64* @go.out.len\n")
+           .append("\tcall void @exit(i32 2)\n")
+           .append("\tunreachable\n")
+           .append("ok:\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.slice.print.<tipo>(s): imprime "[a b c]" sem quebra de linha, com as mesmas
+    // rotinas que o println gerado usa para valores soltos do tipo do elemento.
+    private void defineSlicePrint(String name, String tag) {
+        require(SLICE_TYPE);
+        require(PRINT_BYTE);
+        String elementType;
+        switch (tag) {
+            case "i32":    elementType = "i32"; require(PRINT_INT); break;
+            case "i1":     elementType = "i1"; require(PRINT_INT); break;
+            case "double": elementType = "double"; require(PRINT_FLOAT); break;
+            case "str":    elementType = require(STRING_TYPE); require(PRINT_STRING); break;
+            default: throw new IllegalArgumentException("Slice de tipo não suportado: " + tag);
+        }
+
+        out.append("\ndefine internal void ").append(name).append("(%go.slice %s) {\n")
+           .append("entry:\n")
+           .append("\t%data = extractvalue %go.slice %s, 0\n")
+           .append("\t%len = extractvalue %go.slice %s, 1\n")
+           .append("\t%typed = bitcast i8* %data to ").append(elementType).append("*\n")
+           .append("\tcall void @go.print.byte(i8 91)\n") // '['
+           .append("\tbr label %cond\n")
+           .append("cond:\n")
+           .append("\t%i = phi i64 [ 0, %entry ], [ %next, %body ]\n")
+           .append("\t%more = icmp ult i64 %i, %len\n")
+           .append("\tbr i1 %more, label %element, label %end\n")
+           .append("element:\n")
+           .append("\t%isfirst = icmp eq i64 %i, 0\n")
+           .append("\tbr i1 %isfirst, label %body, label %space\n")
+           .append("space:\n")
+           .append("\tcall void @go.print.byte(i8 32)\n")
+           .append("\tbr label %body\n")
+           .append("body:\n")
+           .append("\t%ptr = getelementptr inbounds ").append(elementType).append(", ")
+           .append(elementType).append("* %typed, i64 %i\n")
+           .append("\t%value = load ").append(elementType).append(", ").append(elementType).append("* %ptr\n");
+        switch (tag) {
+            case "i32":
+                out.append("\t%wide = sext i32 %value to i64\n")
+                   .append("\tcall void @go.print.int(i64 %wide)\n");
+                break;
+            case "i1":
+                out.append("\t%wide = zext i1 %value to i64\n")
+                   .append("\tcall void @go.print.int(i64 %wide)\n");
+                break;
+            case "double":
+                out.append("\tcall void @go.print.float(double %value)\n");
+                break;
+            default:
+                out.append("\tcall void @go.print.string(%go.string %value)\n");
+        }
+        out.append("\t%next = add i64 %i, 1\n")
+           .append("\tbr label %cond\n")
+           .append("end:\n")
+           .append("\tcall void @go.print.byte(i8 93)\n") // ']'
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.string.concat(a, b): a + b num array novo do tamanho exato.
+    // Se um dos lados é vazio o outro é devolvido sem copiar (strings são imutáveis).
+    private void defineStringConcat() {
+        require(STRING_TYPE);
+        require("@malloc");
+        require("@llvm.memcpy.p0i8.p0i8.i64");
+        out.append("\ndefine internal %go.string @go.string.concat(%go.string %a, %go.string %b) {\n")
+           .append("entry:\n")
+           .append("\t%alen = extractvalue %go.string %a, 1\n")
+           .append("\t%blen = extractvalue %go.string %b, 1\n")
+           .append("\t%aempty = icmp eq i64 %alen, 0\n")
+           .append("\tbr i1 %aempty, label %retb, label %checkb\n")
+           .append("retb:\n")
+           .append("\tret %go.string %b\n")
+           .append("checkb:\n")
+           .append("\t%bempty = icmp eq i64 %blen, 0\n")
+           .append("\tbr i1 %bempty, label %reta, label %copy\n")
+           .append("reta:\n")
+           .append("\tret %go.string %a\n")
+           .append("copy:\n")
+           .append("\t%adata = extractvalue %go.string %a, 0\n")
+           .append("\t%bdata = extractvalue %go.string %b, 0\n")
+           .append("\t%len = add i64 %alen, %blen\n")
+           .append("\t%data = call i8* @malloc(i64 %len)\n")
+           .append("\tcall void @llvm.memcpy.p0i8.p0i8.i64(i8* %data, i8* %adata, i64 %alen, i1 false)\n")
+           .append("\t%tail = getelementptr inbounds i8, i8* %data, i64 %alen\n")
+           .append("\tcall void @llvm.memcpy.p0i8.p0i8.i64(i8* %tail, i8* %bdata, i64 %blen, i1 false)\n")
+           .append("\t%r0 = insertvalue %go.string undef, i8* %data, 0\n")
+           .append("\t%r1 = insertvalue %go.string %r0, i64 %len, 1\n")
+           .append("\tret %go.string %r1\n")
+           .append("}\n");
+    }
+
+    // go.string.compare(a, b): negativo, zero ou positivo, comparando os bytes como em Go
+    // (memcmp no prefixo comum e, se for igual, a string mais curta é a menor).
+    private void defineStringCompare() {
+        require(STRING_TYPE);
+        require("@memcmp");
+        out.append("\ndefine internal i32 @go.string.compare(%go.string %a, %go.string %b) {\n")
+           .append("entry:\n")
+           .append("\t%adata = extractvalue %go.string %a, 0\n")
+           .append("\t%alen = extractvalue %go.string %a, 1\n")
+           .append("\t%bdata = extractvalue %go.string %b, 0\n")
+           .append("\t%blen = extractvalue %go.string %b, 1\n")
+           .append("\t%shorter = icmp ult i64 %alen, %blen\n")
+           .append("\t%min = select i1 %shorter, i64 %alen, i64 %blen\n")
+           .append("\t%cmp = call i32 @memcmp(i8* %adata, i8* %bdata, i64 %min)\n")
+           .append("\t%differ = icmp ne i32 %cmp, 0\n")
+           .append("\tbr i1 %differ, label %bytes, label %lengths\n")
+           .append("bytes:\n")
+           .append("\tret i32 %cmp\n")
+           .append("lengths:\n")
+           .append("\t%longer = icmp ugt i64 %alen, %blen\n")
+           .append("\t%gt = zext i1 %longer to i32\n")
+           .append("\t%lt = zext i1 %shorter to i32\n")
+           .append("\t%r = sub i32 %gt, %lt\n")
+           .append("\tret i32 %r\n")
+           .append("}\n");
+    }
+
+    // --- Saída bufferizada ---
+    // println acumula os bytes em @go.out.buf e só chama write quando o buffer enche,
+    // quando o programa vai ler da entrada e no fim do programa (por @llvm.global_dtors,
+    // que também roda quando o programa sai por exit).
+
+    private void defineOutputBuffer() {
+        out.append("\n@go.out.buf = internal global ").append(IO_BUFFER).append(" zeroinitializer\n")
+           .append("@go.out.len = internal global i64 0\n");
+    }
+
+    // go.out.write(p, n): write(1, ...) até todos os bytes saírem (write pode escrever só uma parte).
+    // Se write falhar, o resto é descartado, como faria um stdout fechado.
+    private void defineOutWrite() {
+        require("@write");
+        out.append("\ndefine internal void @go.out.write(i8* %p, i64 %n) {\n")
+           .append("entry:\n")
+           .append("\tbr label %cond\n")
+           .append("cond:\n")
+           .append("\t%done = phi i64 [ 0, %entry ], [ %next, %wrote ]\n")
+           .append("\t%more = icmp slt i64 %done, %n\n")
+           .append("\tbr i1 %more, label %body, label %end\n")
+           .append("body:\n")
+           .append("\t%ptr = getelementptr inbounds i8, i8* %p, i64 %done\n")
+           .append("\t%left = sub i64 %n, %done\n")
+           .append("\t%w = call i64 @write(i32 1, i8* %ptr, i64 %left)\n")
+           .append("\t%failed = icmp slt i64 %w, 1\n")
+           .append("\tbr i1 %failed, label %end, label %wrote\n")
+           .append("wrote:\n")
+           .append("\t%next = add i64 %done, %w\n")
+           .append("\tbr label %cond\n")
+           .append("end:\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.out.flush(): esvazia o buffer de saída. Registrada como destrutor global.
+    private void defineOutFlush() {
+        require(OUT_BUFFER);
+        require(OUT_WRITE);
+        out.append("\n@llvm.global_dtors = appending global [1 x { i32, void ()*, i8* }] ")
+           .append("[{ i32, void ()*, i8* } { i32 65535, void ()* @go.out.flush, i8* null }]\n")
+           .append("\ndefine internal void @go.out.flush() {\n")
+           .append("entry:\n")
+           .append("\t%len = load i64, i64* @go.out.len\n")
+           .append("\t%start = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.out.buf, i64 0, i64 0\n")
+           .append("\tcall void @go.out.write(i8* %start, i64 %len)\n")
+           .append("\tstore i64 0, i64* @go.out.len\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.print.byte(c): um byte no buffer.
+    private void definePrintByte() {
+        require(OUT_FLUSH);
+        out.append("\ndefine internal void @go.print.byte(i8 %c) {\n")
+           .append("entry:\n")
+           .append("\t%len = load i64, i64* @go.out.len\n")
+           .append("\t%full = icmp eq i64 %len, ").append(IO_BUFFER_SIZE).append("\n")
+           .append("\tbr i1 %full, label %flush, label %put\n")
+           .append("flush:\n")
+           .append("\tcall void @go.out.flush()\n")
+           .append("\tbr label %put\n")
+           .append("put:\n")
+           .append("\t%at = phi i64 [ %len, %entry ], [ 0, %flush ]\n")
+           .append("\t%dst = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.out.buf, i64 0, i64 %at\n")
+           .append("\tstore i8 %c, i8* %dst\n")
+           .append("\t%newlen = add i64 %at, 1\n")
+           .append("\tstore i64 %newlen, i64* @go.out.len\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.print.bytes(p, n): copia n bytes para o buffer; um bloco maior que o buffer
+    // inteiro vai direto para o write depois do que já estava pendente.
+    private void definePrintBytes() {
+        require(OUT_FLUSH);
+        require("@llvm.memcpy.p0i8.p0i8.i64");
+        out.append("\ndefine internal void @go.print.bytes(i8* %p, i64 %n) {\n")
+           .append("entry:\n")
+           .append("\t%len = load i64, i64* @go.out.len\n")
+           .append("\t%end = add i64 %len, %n\n")
+           .append("\t%fits = icmp ule i64 %end, ").append(IO_BUFFER_SIZE).append("\n")
+           .append("\tbr i1 %fits, label %copy, label %flush\n")
+           .append("flush:\n")
+           .append("\tcall void @go.out.flush()\n")
+           .append("\t%big = icmp ugt i64 %n, ").append(IO_BUFFER_SIZE).append("\n")
+           .append("\tbr i1 %big, label %direct, label %copy\n")
+           .append("direct:\n")
+           .append("\tcall void @go.out.write(i8* %p, i64 %n)\n")
+           .append("\tret void\n")
+           .append("copy:\n")
+           .append("\t%at = phi i64 [ %len, %entry ], [ 0, %flush ]\n")
+           .append("\t%dst = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.out.buf, i64 0, i64 %at\n")
+           .append("\tcall void @llvm.memcpy.p0i8.p0i8.i64(i8* %dst, i8* %p, i64 %n, i1 false)\n")
+           .append("\t%newlen = add i64 %at, %n\n")
+           .append("\tstore i64 %newlen, i64* @go.out.len\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.print.string(s): os bytes de uma string de Go.
+    private void definePrintString() {
+        require(STRING_TYPE);
+        require(PRINT_BYTES);
+        out.append("\ndefine internal void @go.print.string(%go.string %s) {\n")
+           .append("entry:\n")
+           .append("\t%data = extractvalue %go.string %s, 0\n")
+           .append("\t%len = extractvalue %go.string %s, 1\n")
+           .append("\tcall void @go.print.bytes(i8* %data, i64 %len)\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.print.int(v): decimal com sinal. Os dígitos são gerados do fim para o começo
+    // num array local (20 cabem qualquer i64); a magnitude é tratada sem sinal, então
+    // 0 - v também dá o valor certo para o menor i64.
+    private void definePrintInt() {
+        require(PRINT_BYTE);
+        require(PRINT_BYTES);
+        out.append("\ndefine internal void @go.print.int(i64 %v) {\n")
+           .append("entry:\n")
+           .append("\t%digits = alloca [20 x i8]\n")
+           .append("\t%neg = icmp slt i64 %v, 0\n")
+           .append("\t%negated = sub i64 0, %v\n")
+           .append("\t%abs = select i1 %neg, i64 %negated, i64 %v\n")
+           .append("\tbr label %loop\n")
+           .append("loop:\n")
+           .append("\t%rest = phi i64 [ %abs, %entry ], [ %quot, %loop ]\n")
+           .append("\t%pos = phi i64 [ 20, %entry ], [ %at, %loop ]\n")
+           .append("\t%quot = udiv i64 %rest, 10\n")
+           .append("\t%rem = urem i64 %rest, 10\n")
+           .append("\t%rem8 = trunc i64 %rem to i8\n")
+           .append("\t%char = add i8 %rem8, 48\n")
+           .append("\t%at = sub i64 %pos, 1\n")
+           .append("\t%slot = getelementptr inbounds [20 x i8], [20 x i8]* %digits, i64 0, i64 %at\n")
+           .append("\tstore i8 %char, i8* %slot\n")
+           .append("\t%more = icmp ne i64 %quot, 0\n")
+           .append("\tbr i1 %more, label %loop, label %sign\n")
+           .append("sign:\n")
+           .append("\tbr i1 %neg, label %minus, label %emit\n")
+           .append("minus:\n")
+           .append("\tcall void @go.print.byte(i8 45)\n")
+           .append("\tbr label %emit\n")
+           .append("emit:\n")
+           .append("\t%first = getelementptr inbounds [20 x i8], [20 x i8]* %digits, i64 0, i64 %at\n")
+           .append("\t%count = sub i64 20, %at\n")
+           .append("\tcall void @go.print.bytes(i8* %first, i64 %count)\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.print.float(x): o mesmo texto do printf("%f"), com seis casas decimais.
+    //
+    // Com |x| < 2^53 a parte inteira cabe em i64 e frac = |x| - int é exato. As casas
+    // são frac * 1e6 arredondado para o inteiro mais próximo (empate vai para o par,
+    // como no printf); o erro de arredondamento do produto é recuperado exatamente
+    // com a divisão de Veltkamp/Dekker (1e6 tem só 20 bits, então só frac é dividido),
+    // o que decide os casos em que o produto arredondado caiu em cima de .5.
+    // Valores maiores, infinitos e NaN são raros e vão para o snprintf da libc,
+    // que escreve direto no buffer de saída.
+    private void definePrintFloat() {
+        require(PRINT_BYTE);
+        require(PRINT_BYTES);
+        require(PRINT_INT);
+        require("@snprintf");
+        String format = constant("%f");
+        out.append("\ndefine internal void @go.print.float(double %x) {\n")
+           .append("entry:\n")
+           .append("\t%decimals = alloca [6 x i8]\n")
+           .append("\t%bits = bitcast double %x to i64\n")
+           .append("\t%neg = icmp slt i64 %bits, 0\n") // bit de sinal: -0.0 também sai com '-'
+           .append("\t%negx = fneg double %x\n")
+           .append("\t%abs = select i1 %neg, double %negx, double %x\n")
+           .append("\t%small = fcmp olt double %abs, 9.007199254740992e+15\n") // falso para NaN
+           .append("\tbr i1 %small, label %split, label %libc\n")
+           .append("libc:\n")
+           .append("\t%len = load i64, i64* @go.out.len\n")
+           .append("\t%room = sub i64 ").append(IO_BUFFER_SIZE).append(", %len\n")
+           .append("\t%fits = icmp uge i64 %room, ").append(FLOAT_TEXT_SIZE).append("\n")
+           .append("\tbr i1 %fits, label %format, label %flush\n")
+           .append("flush:\n")
+           .append("\tcall void @go.out.flush()\n")
+           .append("\tbr label %format\n")
+           .append("format:\n")
+           .append("\t%start = phi i64 [ %len, %libc ], [ 0, %flush ]\n")
+           .append("\t%dst = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.out.buf, i64 0, i64 %start\n")
+           .append("\t%written = call i32 (i8*, i64, i8*, ...) @snprintf(i8* %dst, i64 ").append(FLOAT_TEXT_SIZE)
+           .append(", i8* ").append(format).append(", double %x)\n")
+           .append("\t%written64 = sext i32 %written to i64\n")
+           .append("\t%newlen = add i64 %start, %written64\n")
+           .append("\tstore i64 %newlen, i64* @go.out.len\n")
+           .append("\tret void\n")
+           .append("split:\n")
+           .append("\t%int = fptoui double %abs to i64\n")
+           .append("\t%intf = uitofp i64 %int to double\n")
+           .append("\t%frac = fsub double %abs, %intf\n")
+           .append("\t%p = fmul double %frac, 1.000000e+06\n")
+           .append("\t%c = fmul double %frac, 1.342177290000000e+08\n") // 2^27 + 1
+           .append("\t%t = fsub double %c, %frac\n")
+           .append("\t%hi = fsub double %c, %t\n")
+           .append("\t%lo = fsub double %frac, %hi\n")
+           .append("\t%hip = fmul double %hi, 1.000000e+06\n")
+           .append("\t%lop = fmul double %lo, 1.000000e+06\n")
+           .append("\t%e = fsub double %hip, %p\n")
+           .append("\t%err = fadd double %e, %lop\n") // frac * 1e6 == p + err, exatamente
+           .append("\t%floor = fptoui double %p to i64\n")
+           .append("\t%floorf = uitofp i64 %floor to double\n")
+           .append("\t%diff = fsub double %p, %floorf\n")
+           .append("\t%above = fcmp ogt double %diff, 5.000000e-01\n")
+           .append("\t%half = fcmp oeq double %diff, 5.000000e-01\n")
+           .append("\t%errpos = fcmp ogt double %err, 0.000000e+00\n")
+           .append("\t%errzero = fcmp oeq double %err, 0.000000e+00\n")
+           .append("\t%lowbit = and i64 %floor, 1\n")
+           .append("\t%odd = icmp ne i64 %lowbit, 0\n")
+           .append("\t%tie = and i1 %errzero, %odd\n")
+           .append("\t%halfup = or i1 %errpos, %tie\n")
+           .append("\t%roundhalf = and i1 %half, %halfup\n")
+           .append("\t%up = or i1 %above, %roundhalf\n")
+           .append("\t%inc = zext i1 %up to i64\n")
+           .append("\t%micros = add i64 %floor, %inc\n")
+           .append("\t%carry = icmp eq i64 %micros, 1000000\n")
+           .append("\t%carry64 = zext i1 %carry to i64\n")
+           .append("\t%intpart = add i64 %int, %carry64\n")
+           .append("\t%fracpart = select i1 %carry, i64 0, i64 %micros\n")
+           .append("\tbr i1 %neg, label %minus, label %digits\n")
+           .append("minus:\n")
+           .append("\tcall void @go.print.byte(i8 45)\n")
+           .append("\tbr label %digits\n")
+           .append("digits:\n")
+           .append("\tcall void @go.print.int(i64 %intpart)\n")
+           .append("\tcall void @go.print.byte(i8 46)\n")
+           .append("\tbr label %loop\n")
+           .append("loop:\n")
+           .append("\t%rest = phi i64 [ %fracpart, %digits ], [ %quot, %loop ]\n")
+           .append("\t%pos = phi i64 [ 6, %digits ], [ %at, %loop ]\n")
+           .append("\t%quot = udiv i64 %rest, 10\n")
+           .append("\t%rem = urem i64 %rest, 10\n")
+           .append("\t%rem8 = trunc i64 %rem to i8\n")
+           .append("\t%char = add i8 %rem8, 48\n")
+           .append("\t%at = sub i64 %pos, 1\n")
+           .append("\t%slot = getelementptr inbounds [6 x i8], [6 x i8]* %decimals, i64 0, i64 %at\n")
+           .append("\tstore i8 %char, i8* %slot\n")
+           .append("\t%more = icmp ne i64 %at, 0\n")
+           .append("\tbr i1 %more, label %loop, label %emit\n")
+           .append("emit:\n")
+           .append("\t%first = getelementptr inbounds [6 x i8], [6 x i8]* %decimals, i64 0, i64 0\n")
+           .append("\tcall void @go.print.bytes(i8* %first, i64 6)\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // --- Entrada bufferizada ---
+    // scanln lê de @go.in.buf, recarregado com read(0, ...) quando se esgota. Antes de
+    // cada read a saída pendente é esvaziada, para que um prompt apareça antes da espera.
+
+    private void defineInputBuffer() {
+        out.append("\n@go.in.buf = internal global ").append(IO_BUFFER).append(" zeroinitializer\n")
+           .append("@go.in.pos = internal global i64 0\n")
+           .append("@go.in.len = internal global i64 0\n");
+    }
+
+    // go.in.byte(): o próximo byte da entrada (0..255), ou -1 no fim da entrada.
+    private void defineInByte() {
+        require(IN_BUFFER);
+        require(OUT_FLUSH);
+        require("@read");
+        out.append("\ndefine internal i32 @go.in.byte() {\n")
+           .append("entry:\n")
+           .append("\t%pos = load i64, i64* @go.in.pos\n")
+           .append("\t%len = load i64, i64* @go.in.len\n")
+           .append("\t%has = icmp slt i64 %pos, %len\n")
+           .append("\tbr i1 %has, label %take, label %refill\n")
+           .append("refill:\n")
+           .append("\tcall void @go.out.flush()\n")
+           .append("\t%start = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.in.buf, i64 0, i64 0\n")
+           .append("\t%n = call i64 @read(i32 0, i8* %start, i64 ").append(IO_BUFFER_SIZE).append(")\n")
+           .append("\t%got = icmp sgt i64 %n, 0\n")
+           .append("\tbr i1 %got, label %filled, label %eof\n")
+           .append("filled:\n")
+           .append("\tstore i64 %n, i64* @go.in.len\n")
+           .append("\tbr label %take\n")
+           .append("eof:\n")
+           .append("\tstore i64 0, i64* @go.in.pos\n")
+           .append("\tstore i64 0, i64* @go.in.len\n")
+           .append("\tret i32 -1\n")
+           .append("take:\n")
+           .append("\t%at = phi i64 [ %pos, %entry ], [ 0, %filled ]\n")
+           .append("\t%ptr = getelementptr inbounds ").append(IO_BUFFER).append(", ").append(IO_BUFFER)
+           .append("* @go.in.buf, i64 0, i64 %at\n")
+           .append("\t%c = load i8, i8* %ptr\n")
+           .append("\t%next = add i64 %at, 1\n")
+           .append("\tstore i64 %next, i64* @go.in.pos\n")
+           .append("\t%code = zext i8 %c to i32\n")
+           .append("\tret i32 %code\n")
+           .append("}\n");
+    }
+
+    // go.in.unread(): devolve à entrada o byte que acabou de ser lido (nunca o -1 do fim).
+    private void defineInUnread() {
+        require(IN_BUFFER);
+        out.append("\ndefine internal void @go.in.unread() {\n")
+           .append("entry:\n")
+           .append("\t%pos = load i64, i64* @go.in.pos\n")
+           .append("\t%prev = sub i64 %pos, 1\n")
+           .append("\tstore i64 %prev, i64* @go.in.pos\n")
+           .append("\tret void\n")
+           .append("}\n");
+    }
+
+    // go.in.isspace(c): os mesmos brancos do isspace do C (' ', \t, \n, \v, \f, \r).
+    private void defineInIsSpace() {
+        out.append("\ndefine internal i1 @go.in.isspace(i32 %c) {\n")
+           .append("entry:\n")
+           .append("\t%blank = icmp eq i32 %c, 32\n")
+           .append("\t%ctl = sub i32 %c, 9\n")
+           .append("\t%control = icmp ult i32 %ctl, 5\n")
+           .append("\t%space = or i1 %blank, %control\n")
+           .append("\tret i1 %space\n")
+           .append("}\n");
+    }
+
+    // go.in.skipspace(): consome os brancos e devolve o primeiro byte que não é branco (ou -1).
+    private void defineInSkipSpace() {
+        require(IN_BYTE);
+        require(IN_IS_SPACE);
+        out.append("\ndefine internal i32 @go.in.skipspace() {\n")
+           .append("entry:\n")
+           .append("\tbr label %loop\n")
+           .append("loop:\n")
+           .append("\t%c = call i32 @go.in.byte()\n")
+           .append("\t%space = call i1 @go.in.isspace(i32 %c)\n")
+           .append("\tbr i1 %space, label %loop, label %done\n")
+           .append("done:\n")
+           .append("\tret i32 %c\n")
+           .append("}\n");
+    }
+
+    // go.scan.int(dest): lê um inteiro decimal com sinal opcional, como o "%d" do scanf.
+    // Devolve 1 se leu, 0 se o próximo token não começa com um número (o byte volta para a
+    // entrada) e -1 se a entrada acabou antes de qualquer token.
+    private void defineScanInt() {
+        require(IN_SKIP_SPACE);
+        require(IN_UNREAD);
+        out.append("\ndefine internal i32 @go.scan.int(i32* %dest) {\n")
+           .append("entry:\n")
+           .append("\t%c0 = call i32 @go.in.skipspace()\n")
+           .append("\t%eof = icmp eq i32 %c0, -1\n")
+           .append("\tbr i1 %eof, label %ateof, label %sign\n")
+           .append("ateof:\n")
+           .append("\tret i32 -1\n")
+           .append("sign:\n")
+           .append("\t%minus = icmp eq i32 %c0, 45\n")
+           .append("\t%plus = icmp eq i32 %c0, 43\n")
+           .append("\t%signed = or i1 %minus, %plus\n")
+           .append("\tbr i1 %signed, label %aftersign, label %first\n")
+           .append("aftersign:\n")
+           .append("\t%c1 = call i32 @go.in.byte()\n")
+           .append("\tbr label %first\n")
+           .append("first:\n")
+           .append("\t%c = phi i32 [ %c0, %sign ], [ %c1, %aftersign ]\n")
+           .append("\t%d0 = sub i32 %c, 48\n")
+           .append("\t%isdigit = icmp ult i32 %d0, 10\n")
+           .append("\tbr i1 %isdigit, label %loop, label %nomatch\n")
+           .append("nomatch:\n")
+           .append("\t%real = icmp ne i32 %c, -1\n")
+           .append("\tbr i1 %real, label %putback, label %fail\n")
+           .append("putback:\n")
+           .append("\tcall void @go.in.unread()\n")
+           .append("\tbr label %fail\n")
+           .append("fail:\n")
+           .append("\tret i32 0\n")
+           .append("loop:\n")
+           .append("\t%acc = phi i32 [ %d0, %first ], [ %acc2, %digit ]\n")
+           .append("\t%cn = call i32 @go.in.byte()\n")
+           .append("\t%dn = sub i32 %cn, 48\n")
+           .append("\t%more = icmp ult i32 %dn, 10\n")
+           .append("\tbr i1 %more, label %digit, label %end\n")
+           .append("digit:\n")
+           .append("\t%acc10 = mul i32 %acc, 10\n")
+           .append("\t%acc2 = add i32 %acc10, %dn\n")
+           .append("\tbr label %loop\n")
+           .append("end:\n")
+           .append("\t%notend = icmp ne i32 %cn, -1\n")
+           .append("\tbr i1 %notend, label %unread, label %store\n")
+           .append("unread:\n")
+           .append("\tcall void @go.in.unread()\n")
+           .append("\tbr label %store\n")
+           .append("store:\n")
+           .append("\t%negacc = sub i32 0, %acc\n")
+           .append("\t%value = select i1 %minus, i32 %negacc, i32 %acc\n")
+           .append("\tstore i32 %value, i32* %dest\n")
+           .append("\tret i32 1\n")
+           .append("}\n");
+    }
+
+    // go.scan.bool(dest): como o "%d" usado antes para bool: qualquer inteiro diferente de zero é true.
+    private void defineScanBool() {
+        require(SCAN_INT);
+        out.append("\ndefine internal i32 @go.scan.bool(i1* %dest) {\n")
+           .append("entry:\n")
+           .append("\t%tmp = alloca i32\n")
+           .append("\t%n = call i32 @go.scan.int(i32* %tmp)\n")
+           .append("\t%ok = icmp eq i32 %n, 1\n")
+           .append("\tbr i1 %ok, label %store, label %done\n")
+           .append("store:\n")
+           .append("\t%v = load i32, i32* %tmp\n")
+           .append("\t%b = icmp ne i32 %v, 0\n")
+           .append("\tstore i1 %b, i1* %dest\n")
+           .append("\tbr label %done\n")
+           .append("done:\n")
+           .append("\tret i32 %n\n")
+           .append("}\n");
+    }
+
+    // go.scan.float(dest): junta os bytes que podem fazer parte de um número (dígitos,
+    // sinais, ponto e expoente) num array local e converte com strtod, que decide se o
+    // texto é um número. Mesmos retornos de go.scan.int.
+    private void defineScanFloat() {
+        require(IN_SKIP_SPACE);
+        require(IN_UNREAD);
+        require("@strtod");
+        int size = FLOAT_TOKEN_SIZE;
+        String token = "[" + size + " x i8]";
+        out.append("\ndefine internal i32 @go.scan.float(double* %dest) {\n")
+           .append("entry:\n")
+           .append("\t%token = alloca ").append(token).append("\n")
+           .append("\t%endptr = alloca i8*\n")
+           .append("\t%first = getelementptr inbounds ").append(token).append(", ").append(token).append("* %token, i64 0, i64 0\n")
+           .append("\t%c0 = call i32 @go.in.skipspace()\n")
+           .append("\t%eof = icmp eq i32 %c0, -1\n")
+           .append("\tbr i1 %eof, label %ateof, label %loop\n")
+           .append("ateof:\n")
+           .append("\tret i32 -1\n")
+           .append("loop:\n")
+           .append("\t%c = phi i32 [ %c0, %entry ], [ %cn, %append ]\n")
+           .append("\t%n = phi i64 [ 0, %entry ], [ %n1, %append ]\n")
+           .append("\t%d = sub i32 %c, 48\n")
+           .append("\t%digit = icmp ult i32 %d, 10\n")
+           .append("\t%dot = icmp eq i32 %c, 46\n")
+           .append("\t%plus = icmp eq i32 %c, 43\n")
+           .append("\t%minus = icmp eq i32 %c, 45\n")
+           .append("\t%lower = or i32 %c, 32\n")
+           .append("\t%exp = icmp eq i32 %lower, 101\n")
+           .append("\t%any1 = or i1 %digit, %dot\n")
+           .append("\t%any2 = or i1 %plus, %minus\n")
+           .append("\t%any3 = or i1 %any1, %any2\n")
+           .append("\t%numeric = or i1 %any3, %exp\n")
+           .append("\t%room = icmp ult i64 %n, ").append(size - 1).append("\n")
+           .append("\t%take = and i1 %numeric, %room\n")
+           .append("\tbr i1 %take, label %append, label %stop\n")
+           .append("append:\n")
+           .append("\t%slot = getelementptr inbounds ").append(token).append(", ").append(token).append("* %token, i64 0, i64 %n\n")
+           .append("\t%byte = trunc i32 %c to i8\n")
+           .append("\tstore i8 %byte, i8* %slot\n")
+           .append("\t%n1 = add i64 %n, 1\n")
+           .append("\t%cn = call i32 @go.in.byte()\n")
+           .append("\tbr label %loop\n")
+           .append("stop:\n")
+           .append("\t%real = icmp ne i32 %c, -1\n")
+           .append("\tbr i1 %real, label %putback, label %parse\n")
+           .append("putback:\n")
+           .append("\tcall void @go.in.unread()\n")
+           .append("\tbr label %parse\n")
+           .append("parse:\n")
+           .append("\t%nul = getelementptr inbounds ").append(token).append(", ").append(token).append("* %token, i64 0, i64 %n\n")
+           .append("\tstore i8 0, i8* %nul\n")
+           .append("\t%value = call double @strtod(i8* %first, i8** %endptr)\n")
+           .append("\t%last = load i8*, i8** %endptr\n")
+           .append("\t%none = icmp eq i8* %last, %first\n")
+           .append("\tbr i1 %none, label %fail, label %store\n")
+           .append("fail:\n")
+           .append("\tret i32 0\n")
+           .append("store:\n")
+           .append("\tstore double %value, double* %dest\n")
+           .append("\tret i32 1\n")
+           .append("}\n");
+    }
+
+    // go.scan.string(dest): lê uma palavra (até o próximo branco, no máximo SCAN_BUFFER_SIZE - 1
+    // bytes, como o "%1023s" de antes) para um array novo no heap e guarda a string em *dest.
+    private void defineScanString() {
+        require(STRING_TYPE);
+        require("@malloc");
+        require(IN_SKIP_SPACE);
+        require(IN_UNREAD);
+        out.append("\ndefine internal i32 @go.scan.string(%go.string* %dest) {\n")
+           .append("entry:\n")
+           .append("\t%c0 = call i32 @go.in.skipspace()\n")
+           .append("\t%eof = icmp eq i32 %c0, -1\n")
+           .append("\tbr i1 %eof, label %ateof, label %start\n")
+           .append("ateof:\n")
+           .append("\tret i32 -1\n")
+           .append("start:\n")
+           .append("\t%buf = call i8* @malloc(i64 ").append(SCAN_BUFFER_SIZE).append(")\n")
+           .append("\tbr label %loop\n")
+           .append("loop:\n")
+           .append("\t%c = phi i32 [ %c0, %start ], [ %cn, %append ]\n")
+           .append("\t%n = phi i64 [ 0, %start ], [ %n1, %append ]\n")
+           .append("\t%space = call i1 @go.in.isspace(i32 %c)\n")
+           .append("\t%atend = icmp eq i32 %c, -1\n")
+           .append("\t%full = icmp eq i64 %n, ").append(SCAN_BUFFER_SIZE - 1).append("\n")
+           .append("\t%stop1 = or i1 %space, %atend\n")
+           .append("\t%halt = or i1 %stop1, %full\n")
+           .append("\tbr i1 %halt, label %done, label %append\n")
+           .append("append:\n")
+           .append("\t%slot = getelementptr inbounds i8, i8* %buf, i64 %n\n")
+           .append("\t%byte = trunc i32 %c to i8\n")
+           .append("\tstore i8 %byte, i8* %slot\n")
+           .append("\t%n1 = add i64 %n, 1\n")
+           .append("\t%cn = call i32 @go.in.byte()\n")
+           .append("\tbr label %loop\n")
+           .append("done:\n")
+           .append("\tbr i1 %atend, label %store, label %putback\n")
+           .append("putback:\n")
+           .append("\tcall void @go.in.unread()\n")
+           .append("\tbr label %store\n")
+           .append("store:\n")
+           .append("\t%s0 = insertvalue %go.string undef, i8* %buf, 0\n")
+           .append("\t%s1 = insertvalue %go.string %s0, i64 %n, 1\n")
+           .append("\tstore %go.string %s1, %go.string* %dest\n")
+           .append("\tret i32 1\n")
+           .append("}\n");
+    }
+
+    // Imprime uma string constante do pool (usado nas mensagens do runtime).
+    private void printConstant(String text) {
+        out.append("\tcall void @go.print.bytes(i8* ").append(constant(text)).append(", i64 ")
+           .append(strings.length(text)).append(")\n");
+    }
+
+    // i8* constante para uma string do pool do módulo (as mesmas globais dos literais do programa).
+    private String constant(String value) {
+        return strings.pointer(value).ref();
+    }
+}
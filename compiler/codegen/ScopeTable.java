@@ -0,0 +1,72 @@
+package compiler.codegen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabela de símbolos com escopos aninhados em que abrir um escopo e procurar um nome
+ * custam O(1).
+ *
+ * Todos os nomes visíveis ficam num único HashMap. Uma declaração guarda a que ela
+ * sombreia (a do mesmo nome num escopo externo), e cada escopo anota os nomes que
+ * declarou; ao fechar o escopo essas declarações são desfeitas na ordem inversa. Fechar
+ * custa o número de declarações do escopo, não o número de nomes visíveis.
+ */
+final class ScopeTable<V> {
+
+    private static final class Binding<V> {
+        final V value;
+        final Binding<V> shadowed; // Declaração anterior do mesmo nome (null se não há)
+
+        Binding(V value, Binding<V> shadowed) {
+            this.value = value;
+            this.shadowed = shadowed;
+        }
+    }
+
+    private final Map<String, Binding<V>> visible = new HashMap<>();
+    private final List<String> declared = new ArrayList<>(); // Nomes declarados nos escopos abertos, em ordem
+    private int[] marks = new int[16]; // Tamanho de 'declared' quando cada escopo aberto começou
+    private int depth;
+
+    void enterScope() {
+        if (depth == marks.length) marks = Arrays.copyOf(marks, depth * 2);
+        marks[depth++] = declared.size();
+    }
+
+    void exitScope() {
+        int mark = marks[--depth];
+        for (int i = declared.size() - 1; i >= mark; i--) {
+            String name = declared.remove(i);
+            Binding<V> shadowed = visible.get(name).shadowed;
+            if (shadowed == null) visible.remove(name);
+            else visible.put(name, shadowed);
+        }
+    }
+
+    /**
+     * Se nenhum escopo está aberto (fora de funções).
+     */
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    /**
+     * Declara 'name' no escopo mais interno, sombreando declarações externas.
+     */
+    void declare(String name, V value) {
+        visible.put(name, new Binding<>(value, visible.get(name)));
+        declared.add(name);
+    }
+
+    /**
+     * A declaração visível de 'name', ou null.
+     */
+    V lookup(String name) {
+        Binding<V> binding = visible.get(name);
+        return binding == null ? null : binding.value;
+    }
+}
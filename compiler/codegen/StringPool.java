@@ -0,0 +1,55 @@
+package compiler.codegen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import compiler.codegen.ir.Constant;
+import compiler.codegen.ir.Module;
+
+/**
+ * Pool das strings constantes do módulo, indexado pelo conteúdo. Literais, formatos
+ * do snprintf e mensagens do runtime com o mesmo texto usam uma única global
+ * @.str.N, e cada uso recebe um getelementptr constante para o primeiro byte, sem
+ * nenhuma instrução na função.
+ */
+final class StringPool {
+
+    private final Module module;
+    private final Map<String, Constant> pointers = new HashMap<>();
+    private final Map<String, Integer> lengths = new HashMap<>(); // Bytes em UTF-8, sem o terminador
+
+    StringPool(Module module) {
+        this.module = module;
+    }
+
+    /**
+     * i8* constante para os bytes de 'value' (terminados em \00, para funções da libc como o snprintf).
+     * A global é criada no primeiro pedido de cada texto.
+     */
+    Constant pointer(String value) {
+        Constant pointer = pointers.get(value);
+        if (pointer == null) {
+            String name = "@.str." + pointers.size();
+            int length = value.getBytes(StandardCharsets.UTF_8).length;
+            int size = length + 1;
+
+            // Converte caracteres especiais para formato LLVM
+            String escaped = value.replace("\\", "\\5C").replace("\n", "\\0A").replace("\"", "\\22");
+            module.addGlobal(name + " = private unnamed_addr constant [" + size + " x i8] c\"" + escaped + "\\00\"");
+
+            pointer = Constant.of("i8*", "getelementptr inbounds ([" + size + " x i8], [" + size + " x i8]* " + name + ", i64 0, i64 0)");
+            pointers.put(value, pointer);
+            lengths.put(value, length);
+        }
+        return pointer;
+    }
+
+    /**
+     * Tamanho em bytes de uma string já no pool (sem o terminador).
+     */
+    int length(String value) {
+        pointer(value);
+        return lengths.get(value);
+    }
+}
@@ -0,0 +1,82 @@
+package compiler.codegen.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Bloco básico: um label e uma sequência de instruções que termina num terminador
+ * (br, ret, unreachable). Um bloco só entra na função quando o IRBuilder se posiciona
+ * nele, então blocos criados e nunca usados não aparecem no módulo.
+ */
+public final class BasicBlock {
+
+    private final String label;
+    private final List<Instruction> instructions = new ArrayList<>();
+    Function parent;
+
+    public BasicBlock(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Function getParent() {
+        return parent;
+    }
+
+    public List<Instruction> getInstructions() {
+        return Collections.unmodifiableList(instructions);
+    }
+
+    public void append(Instruction instruction) {
+        instruction.parent = this;
+        instructions.add(instruction);
+    }
+
+    public void insert(int index, Instruction instruction) {
+        instruction.parent = this;
+        instructions.add(index, instruction);
+    }
+
+    public void remove(Instruction instruction) {
+        instructions.remove(instruction);
+        instruction.parent = null;
+    }
+
+    /**
+     * Remove de uma vez as instruções aceitas por 'filter'; linear, ao contrário de
+     * chamar remove para cada uma num bloco grande.
+     */
+    public void removeIf(Predicate<Instruction> filter) {
+        instructions.removeIf(instruction -> {
+            if (!filter.test(instruction)) return false;
+            instruction.parent = null;
+            return true;
+        });
+    }
+
+    /**
+     * A última instrução, se for um terminador; senão null.
+     */
+    public Instruction getTerminator() {
+        if (instructions.isEmpty()) return null;
+        Instruction last = instructions.get(instructions.size() - 1);
+        return last.isTerminator() ? last : null;
+    }
+
+    public boolean isTerminated() {
+        return getTerminator() != null;
+    }
+
+    /**
+     * Sucessores no grafo de fluxo de controle, segundo o terminador.
+     */
+    public List<BasicBlock> getSuccessors() {
+        Instruction terminator = getTerminator();
+        return terminator == null ? Collections.emptyList() : terminator.successors();
+    }
+}
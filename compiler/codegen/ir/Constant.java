@@ -0,0 +1,61 @@
+package compiler.codegen.ir;
+
+/**
+ * Constante LLVM já em texto: literais numéricos, zeroinitializer, undef,
+ * globais (@nome) e expressões constantes como getelementptr sobre uma global.
+ */
+public final class Constant extends Value {
+
+    private final String text;
+
+    private Constant(String type, String text) {
+        super(type);
+        this.text = text;
+    }
+
+    public static Constant of(String type, String text) {
+        return new Constant(type, text);
+    }
+
+    public static Constant i32(long value) {
+        if (value >= 0 && value < SMALL) return SMALL_I32[(int) value];
+        return new Constant("i32", String.valueOf(value));
+    }
+
+    public static Constant i64(long value) {
+        if (value >= 0 && value < SMALL) return SMALL_I64[(int) value];
+        return new Constant("i64", String.valueOf(value));
+    }
+
+    public static Constant bool(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    // Constantes são imutáveis, então as mais comuns (índices, 0, 1, true, false) são compartilhadas
+    private static final int SMALL = 256;
+    private static final Constant[] SMALL_I32 = new Constant[SMALL];
+    private static final Constant[] SMALL_I64 = new Constant[SMALL];
+    private static final Constant TRUE = new Constant("i1", "1");
+    private static final Constant FALSE = new Constant("i1", "0");
+
+    static {
+        for (int i = 0; i < SMALL; i++) {
+            String text = String.valueOf(i);
+            SMALL_I32[i] = new Constant("i32", text);
+            SMALL_I64[i] = new Constant("i64", text);
+        }
+    }
+
+    public static Constant zero(String type) {
+        return new Constant(type, "zeroinitializer");
+    }
+
+    public static Constant undef(String type) {
+        return new Constant(type, "undef");
+    }
+
+    @Override
+    public String ref() {
+        return text;
+    }
+}
@@ -0,0 +1,73 @@
+package compiler.codegen.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Função definida no módulo: assinatura, parâmetros (registradores sem nome,
+ * numerados a partir de %0), linkage, atributos e blocos na ordem de impressão.
+ */
+public final class Function {
+
+    private final String name; // Sem o @
+    private final String returnType;
+    private final List<Register> params = new ArrayList<>();
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    private final List<String> attributes = new ArrayList<>(); // Ex.: nounwind, readnone
+    private String linkage = ""; // Vazio: externa, o padrão do LLVM
+
+    public Function(String name, String returnType, List<String> paramTypes) {
+        this.name = name;
+        this.returnType = returnType;
+        for (String type : paramTypes) {
+            params.add(new Register(type));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public List<Register> getParams() {
+        return Collections.unmodifiableList(params);
+    }
+
+    public String getLinkage() {
+        return linkage;
+    }
+
+    public void setLinkage(String linkage) {
+        this.linkage = linkage;
+    }
+
+    public List<String> getAttributes() {
+        return Collections.unmodifiableList(attributes);
+    }
+
+    public void addAttribute(String attribute) {
+        attributes.add(attribute);
+    }
+
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public BasicBlock getEntryBlock() {
+        return blocks.isEmpty() ? null : blocks.get(0);
+    }
+
+    public void appendBlock(BasicBlock block) {
+        block.parent = this;
+        blocks.add(block);
+    }
+
+    public void removeBlock(BasicBlock block) {
+        blocks.remove(block);
+        block.parent = null;
+    }
+}
@@ -0,0 +1,211 @@
+package compiler.codegen.ir;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cria instruções no bloco atual de uma função, no estilo do IRBuilder do LLVM.
+ * Cada método devolve o registrador com o resultado (ou null se a instrução não produz valor).
+ */
+public final class IRBuilder {
+
+    private Function function;
+    private BasicBlock block;
+    private int labelCounter; // Gera labels únicos no módulo (if.then.0, loop.end.3, ...)
+    private int entryAllocas; // Allocas já colocados no início do entry da função atual
+
+    // Tipos "T*" <-> "T" já calculados, para não criar uma string nova a cada alloca/load
+    private final Map<String, String> pointerTypes = new HashMap<>();
+    private final Map<String, String> pointeeTypes = new HashMap<>();
+
+    /**
+     * Começa a gerar o corpo de 'function' num bloco "entry" novo.
+     */
+    public void startFunction(Function function) {
+        this.function = function;
+        this.entryAllocas = 0;
+        positionAt(new BasicBlock("entry"));
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * Cria um bloco com label único, ainda fora da função (ver positionAt).
+     */
+    public BasicBlock createBlock(String prefix) {
+        return new BasicBlock(prefix + "." + labelCounter++);
+    }
+
+    /**
+     * Acrescenta o bloco ao fim da função e passa a gerar instruções nele.
+     */
+    public void positionAt(BasicBlock block) {
+        function.appendBlock(block);
+        this.block = block;
+    }
+
+    public BasicBlock getCurrentBlock() {
+        return block;
+    }
+
+    /**
+     * Se o bloco atual já terminou (br, ret, unreachable), nada mais pode ser acrescentado nele.
+     */
+    public boolean isTerminated() {
+        return block.isTerminated();
+    }
+
+    // Código depois de um terminador (ex.: depois de um return ou break) vai para um bloco
+    // novo, que fica inalcançável, para que cada bloco tenha exatamente um terminador no fim.
+    private <T extends Instruction> T insert(T instruction) {
+        if (block.isTerminated()) {
+            positionAt(createBlock("dead"));
+        }
+        block.append(instruction);
+        return instruction;
+    }
+
+    private String pointerTo(String type) {
+        String pointer = pointerTypes.get(type);
+        if (pointer == null) {
+            pointer = type + "*";
+            pointerTypes.put(type, pointer);
+            pointeeTypes.put(pointer, type);
+        }
+        return pointer;
+    }
+
+    private String pointee(Value pointer) {
+        String type = pointer.getType();
+        String pointee = pointeeTypes.get(type);
+        if (pointee == null) {
+            pointee = type.substring(0, type.length() - 1);
+            pointeeTypes.put(type, pointee);
+        }
+        return pointee;
+    }
+
+    // --- Memória ---
+
+    // O alloca vai para o início do entry, depois dos anteriores, qualquer que seja o bloco
+    // atual; só a inicialização fica onde a variável é declarada. Dentro de um laço, a pilha
+    // não cresce a cada iteração, e o mem2reg/SROA do LLVM só promovem slots do entry.
+    public Register alloca(String type) {
+        Instruction.Alloca alloca = new Instruction.Alloca(new Register(pointerTo(type)), type);
+        function.getEntryBlock().insert(entryAllocas++, alloca);
+        return alloca.getResult();
+    }
+
+    public Register load(Value pointer) {
+        return insert(new Instruction.Load(new Register(pointee(pointer)), pointer)).getResult();
+    }
+
+    public void store(Value value, Value pointer) {
+        insert(new Instruction.Store(value, pointer));
+    }
+
+    /**
+     * getelementptr inbounds sobre 'pointer' (que aponta para sourceType); o resultado tem resultType.
+     */
+    public Register gep(String resultType, String sourceType, Value pointer, Value... indices) {
+        return insert(new Instruction.GetElementPtr(new Register(resultType), sourceType, pointer, indices)).getResult();
+    }
+
+    // --- Aritmética, comparação e conversão ---
+
+    public Register binary(String opcode, Value lhs, Value rhs) {
+        return insert(new Instruction.Binary(new Register(lhs.getType()), opcode, false, lhs, rhs)).getResult();
+    }
+
+    // Variante com a flag nsw (sem overflow com sinal), usada na aritmética de inteiros de Go
+    public Register binaryNsw(String opcode, Value lhs, Value rhs) {
+        return insert(new Instruction.Binary(new Register(lhs.getType()), opcode, true, lhs, rhs)).getResult();
+    }
+
+    public Register icmp(String predicate, Value lhs, Value rhs) {
+        return insert(new Instruction.Compare(new Register("i1"), "icmp", predicate, lhs, rhs)).getResult();
+    }
+
+    public Register fcmp(String predicate, Value lhs, Value rhs) {
+        return insert(new Instruction.Compare(new Register("i1"), "fcmp", predicate, lhs, rhs)).getResult();
+    }
+
+    public Register cast(String opcode, Value value, String targetType) {
+        return insert(new Instruction.Cast(new Register(targetType), opcode, value)).getResult();
+    }
+
+    // --- Agregados ---
+
+    public Register extractValue(Value aggregate, int index, String elementType) {
+        return insert(new Instruction.ExtractValue(new Register(elementType), aggregate, index)).getResult();
+    }
+
+    public Register insertValue(Value aggregate, Value element, int index) {
+        return insert(new Instruction.InsertValue(new Register(aggregate.getType()), aggregate, element, index)).getResult();
+    }
+
+    // --- Fluxo de dados entre blocos e chamadas ---
+
+    public Instruction.Phi phi(String type) {
+        return insert(new Instruction.Phi(new Register(type)));
+    }
+
+    /**
+     * Chamada direta. Com returnType "void" não há resultado e o método devolve null.
+     */
+    public Register call(String returnType, String callee, Value... args) {
+        return call(returnType, returnType, callee, args);
+    }
+
+    /**
+     * Chamada com a assinatura explícita depois de "call", necessária para funções
+     * variádicas como printf ("i32 (i8*, ...)").
+     */
+    public Register call(String returnType, String signature, String callee, Value... args) {
+        Register result = returnType.equals("void") ? null : new Register(returnType);
+        insert(new Instruction.Call(result, signature, callee, args));
+        return result;
+    }
+
+    /**
+     * Chamada em posição de cauda, marcada com 'tail' (os argumentos não apontam para a pilha).
+     */
+    public Register tailCall(String returnType, String callee, Value... args) {
+        Register result = returnType.equals("void") ? null : new Register(returnType);
+        Instruction.Call call = new Instruction.Call(result, returnType, callee, args);
+        call.setTail(true);
+        insert(call);
+        return result;
+    }
+
+    // --- Terminadores ---
+
+    public void br(BasicBlock target) {
+        insert(new Instruction.Branch(target));
+    }
+
+    /**
+     * Desvio de volta ao cabeçalho de um laço, marcado com o nó !llvm.loop do laço.
+     */
+    public void latchBr(BasicBlock header, String loopMetadata) {
+        insert(new Instruction.Branch(header)).setLoopMetadata(loopMetadata);
+    }
+
+    public void condBr(Value condition, BasicBlock ifTrue, BasicBlock ifFalse) {
+        insert(new Instruction.CondBranch(condition, ifTrue, ifFalse));
+    }
+
+    public void ret(Value value) {
+        insert(new Instruction.Return(value));
+    }
+
+    public void retVoid() {
+        insert(new Instruction.Return(null));
+    }
+
+    public void unreachable() {
+        insert(new Instruction.Unreachable());
+    }
+}
@@ -0,0 +1,96 @@
+package compiler.codegen.ir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grava um módulo num arquivo .ll sem montar o texto inteiro em memória.
+ *
+ * Cada função é escrita, por um Writer bufferizado, num arquivo temporário assim
+ * que fica pronta, e pode ser descartada em seguida. O cabeçalho (declarações,
+ * globais e runtime) só está completo no fim da geração: finish() grava o cabeçalho
+ * no arquivo final e emenda as funções depois dele com FileChannel.transferTo,
+ * sem que o corpo passe de novo pelo heap.
+ */
+public final class IRFileWriter implements Closeable {
+
+    private final Path target;
+    private final Path bodyFile;  // Funções já geradas, na ordem em que ficaram prontas
+    private final Writer body;
+    private final StringBuilder buffer = new StringBuilder(8192); // Texto de uma função
+    private long instructionCount; // Instruções das funções gravadas (sem o runtime, que é texto)
+    private boolean finished;
+
+    public IRFileWriter(Path target) throws IOException {
+        this.target = target;
+        this.bodyFile = Files.createTempFile("go-compiler-", ".ll.body");
+        this.body = Files.newBufferedWriter(bodyFile, StandardCharsets.UTF_8);
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    /**
+     * Acrescenta uma função pronta ao arquivo.
+     */
+    public void writeFunction(Function function) throws IOException {
+        for (BasicBlock block : function.getBlocks()) {
+            instructionCount += block.getInstructions().size();
+        }
+        IRPrinter.printFunction(function, buffer);
+        body.append(buffer);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Completa o arquivo: as funções que ainda estão no módulo são acrescentadas e o
+     * cabeçalho do módulo vai para o início.
+     */
+    public void finish(Module module) throws IOException {
+        for (Function function : module.getFunctions()) {
+            writeFunction(function);
+        }
+        body.close();
+
+        StringBuilder header = new StringBuilder();
+        IRPrinter.printHeader(module, header);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel in = FileChannel.open(bodyFile, StandardOpenOption.READ)) {
+            ByteBuffer headerBytes = ByteBuffer.wrap(header.toString().getBytes(StandardCharsets.UTF_8));
+            while (headerBytes.hasRemaining()) {
+                out.write(headerBytes);
+            }
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+        finished = true;
+        Files.deleteIfExists(bodyFile);
+    }
+
+    /**
+     * Descarta o arquivo temporário; se finish() não foi chamado, o .ll não é criado.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            body.close();
+        }
+        Files.deleteIfExists(bodyFile);
+    }
+}
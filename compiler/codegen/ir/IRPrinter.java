@@ -0,0 +1,97 @@
+package compiler.codegen.ir;
+
+import java.util.List;
+
+/**
+ * Serializa um Module para o formato texto do LLVM (.ll).
+ * Os registradores sem nome são numerados aqui, função por função, na ordem
+ * de definição que o LLVM exige (parâmetros primeiro, depois as instruções).
+ */
+public final class IRPrinter {
+
+    private IRPrinter() {}
+
+    public static String print(Module module) {
+        StringBuilder out = new StringBuilder(estimateSize(module));
+        printHeader(module, out);
+        for (Function function : module.getFunctions()) {
+            printFunction(function, out);
+        }
+        return out.toString();
+    }
+
+    // Tudo o que vem antes das funções: declarações, globais, o runtime e os metadados.
+    static void printHeader(Module module, StringBuilder out) {
+        for (String declaration : module.getDeclarations()) {
+            out.append(declaration).append("\n");
+        }
+        out.append("\n");
+        for (String global : module.getGlobals()) {
+            out.append(global).append("\n");
+        }
+        for (String text : module.getVerbatim()) {
+            out.append(text);
+        }
+        List<String> metadata = module.getMetadata();
+        if (!metadata.isEmpty()) out.append("\n");
+        for (int i = 0; i < metadata.size(); i++) {
+            out.append('!').append(i).append(" = ").append(metadata.get(i)).append("\n");
+        }
+    }
+
+    // Tamanho aproximado do texto (uma linha típica tem ~40 caracteres), para o
+    // StringBuilder não ser copiado várias vezes enquanto cresce.
+    private static int estimateSize(Module module) {
+        long lines = module.getDeclarations().size() + module.getGlobals().size() + module.getMetadata().size();
+        for (Function function : module.getFunctions()) {
+            for (BasicBlock block : function.getBlocks()) {
+                lines += block.getInstructions().size() + 1;
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, lines * 40 + 1024);
+    }
+
+    static void printFunction(Function function, StringBuilder out) {
+        numberRegisters(function);
+
+        out.append("\ndefine ");
+        if (!function.getLinkage().isEmpty()) out.append(function.getLinkage()).append(' ');
+        out.append(function.getReturnType()).append(" @").append(function.getName()).append("(");
+        boolean first = true;
+        for (Register param : function.getParams()) {
+            if (!first) out.append(", ");
+            out.append(param.getType());
+            first = false;
+        }
+        out.append(")");
+        for (String attribute : function.getAttributes()) {
+            out.append(' ').append(attribute);
+        }
+        out.append(" {\n");
+
+        for (BasicBlock block : function.getBlocks()) {
+            out.append(block.getLabel()).append(":\n");
+            for (Instruction instruction : block.getInstructions()) {
+                out.append('\t');
+                instruction.renderTo(out);
+                out.append('\n');
+            }
+        }
+        out.append("}\n");
+    }
+
+    private static void numberRegisters(Function function) {
+        int next = 0;
+        for (Register param : function.getParams()) {
+            param.slot = next++;
+        }
+        for (BasicBlock block : function.getBlocks()) {
+            for (Instruction instruction : block.getInstructions()) {
+                Register result = instruction.getResult();
+                if (result != null && !result.isNamed()) {
+                    result.slot = next++;
+                }
+            }
+        }
+    }
+}
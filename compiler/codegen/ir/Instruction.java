@@ -0,0 +1,440 @@
+package compiler.codegen.ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Instrução do IR. Os operandos ficam numa lista única (getOperands), o que permite
+ * a passes trocar usos de um valor por outro sem conhecer cada tipo de instrução;
+ * o resto (tipos, predicados, blocos de destino) fica em campos de cada subclasse.
+ */
+public abstract class Instruction {
+
+    private final Register result; // null para instruções que não produzem valor
+    protected final List<Value> operands;
+    BasicBlock parent;
+
+    protected Instruction(Register result, Value... operands) {
+        this.result = result;
+        if (result != null) result.definition = this;
+        this.operands = new ArrayList<>(operands.length);
+        Collections.addAll(this.operands, operands);
+    }
+
+    public Register getResult() {
+        return result;
+    }
+
+    public List<Value> getOperands() {
+        return Collections.unmodifiableList(operands);
+    }
+
+    public BasicBlock getParent() {
+        return parent;
+    }
+
+    /**
+     * Substitui todos os usos de 'from' nesta instrução por 'to'.
+     */
+    public void replaceUsesOf(Value from, Value to) {
+        for (int i = 0; i < operands.size(); i++) {
+            if (operands.get(i) == from) operands.set(i, to);
+        }
+    }
+
+    public boolean isTerminator() {
+        return false;
+    }
+
+    /**
+     * Blocos para onde um terminador pode desviar (vazio para as outras instruções e para ret).
+     */
+    public List<BasicBlock> successors() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Texto da instrução, sem indentação nem quebra de linha.
+     */
+    public final String render() {
+        StringBuilder out = new StringBuilder();
+        renderTo(out);
+        return out.toString();
+    }
+
+    final void renderTo(StringBuilder out) {
+        if (result != null) {
+            result.appendRef(out);
+            out.append(" = ");
+        }
+        print(out);
+    }
+
+    // Imprime a parte depois de "%r = "
+    protected abstract void print(StringBuilder out);
+
+    // --- Memória ---
+
+    public static final class Alloca extends Instruction {
+        private final String allocatedType;
+
+        public Alloca(Register result, String allocatedType) {
+            super(result);
+            this.allocatedType = allocatedType;
+        }
+
+        public String getAllocatedType() {
+            return allocatedType;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("alloca ").append(allocatedType);
+        }
+    }
+
+    public static final class Load extends Instruction {
+        public Load(Register result, Value pointer) {
+            super(result, pointer);
+        }
+
+        public Value getPointer() {
+            return operands.get(0);
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("load ").append(getResult().getType()).append(", ");
+            getPointer().appendTyped(out);
+        }
+    }
+
+    public static final class Store extends Instruction {
+        public Store(Value value, Value pointer) {
+            super(null, value, pointer);
+        }
+
+        public Value getValue() {
+            return operands.get(0);
+        }
+
+        public Value getPointer() {
+            return operands.get(1);
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("store ");
+            getValue().appendTyped(out);
+            out.append(", ");
+            getPointer().appendTyped(out);
+        }
+    }
+
+    public static final class GetElementPtr extends Instruction {
+        private final String sourceType;
+
+        // Operandos: o ponteiro base seguido dos índices
+        public GetElementPtr(Register result, String sourceType, Value pointer, Value... indices) {
+            super(result, prepend(pointer, indices));
+            this.sourceType = sourceType;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("getelementptr inbounds ").append(sourceType);
+            for (Value operand : operands) {
+                out.append(", ");
+                operand.appendTyped(out);
+            }
+        }
+    }
+
+    // --- Aritmética, comparação e conversão ---
+
+    public static final class Binary extends Instruction {
+        private final String opcode; // add, sub, mul, sdiv, srem, fadd, ..., xor
+        private final boolean nsw;
+
+        public Binary(Register result, String opcode, boolean nsw, Value lhs, Value rhs) {
+            super(result, lhs, rhs);
+            this.opcode = opcode;
+            this.nsw = nsw;
+        }
+
+        public String getOpcode() {
+            return opcode;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append(opcode).append(nsw ? " nsw " : " ").append(getResult().getType()).append(' ');
+            operands.get(0).appendRef(out);
+            out.append(", ");
+            operands.get(1).appendRef(out);
+        }
+    }
+
+    public static final class Compare extends Instruction {
+        private final String opcode;    // icmp ou fcmp
+        private final String predicate; // eq, slt, oge, ...
+
+        public Compare(Register result, String opcode, String predicate, Value lhs, Value rhs) {
+            super(result, lhs, rhs);
+            this.opcode = opcode;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append(opcode).append(' ').append(predicate).append(' ');
+            operands.get(0).appendTyped(out);
+            out.append(", ");
+            operands.get(1).appendRef(out);
+        }
+    }
+
+    public static final class Cast extends Instruction {
+        private final String opcode; // zext, sext, trunc, sitofp, fptosi, bitcast
+
+        public Cast(Register result, String opcode, Value value) {
+            super(result, value);
+            this.opcode = opcode;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append(opcode).append(' ');
+            operands.get(0).appendTyped(out);
+            out.append(" to ").append(getResult().getType());
+        }
+    }
+
+    // --- Agregados ---
+
+    public static final class ExtractValue extends Instruction {
+        private final int index;
+
+        public ExtractValue(Register result, Value aggregate, int index) {
+            super(result, aggregate);
+            this.index = index;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("extractvalue ");
+            operands.get(0).appendTyped(out);
+            out.append(", ").append(index);
+        }
+    }
+
+    public static final class InsertValue extends Instruction {
+        private final int index;
+
+        public InsertValue(Register result, Value aggregate, Value element, int index) {
+            super(result, aggregate, element);
+            this.index = index;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("insertvalue ");
+            operands.get(0).appendTyped(out);
+            out.append(", ");
+            operands.get(1).appendTyped(out);
+            out.append(", ").append(index);
+        }
+    }
+
+    // --- Fluxo de dados entre blocos e chamadas ---
+
+    public static final class Phi extends Instruction {
+        private final List<BasicBlock> blocks = new ArrayList<>();
+
+        public Phi(Register result) {
+            super(result);
+        }
+
+        public void addIncoming(Value value, BasicBlock block) {
+            operands.add(value);
+            blocks.add(block);
+        }
+
+        public List<BasicBlock> getIncomingBlocks() {
+            return Collections.unmodifiableList(blocks);
+        }
+
+        /**
+         * Remove as entradas vindas de 'block' (ex.: quando o bloco é apagado por ser inalcançável).
+         */
+        public void removeIncoming(BasicBlock block) {
+            for (int i = blocks.size() - 1; i >= 0; i--) {
+                if (blocks.get(i) == block) {
+                    blocks.remove(i);
+                    operands.remove(i);
+                }
+            }
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("phi ").append(getResult().getType());
+            for (int i = 0; i < operands.size(); i++) {
+                out.append(i == 0 ? " " : ", ").append("[ ");
+                operands.get(i).appendRef(out);
+                out.append(", %").append(blocks.get(i).getLabel()).append(" ]");
+            }
+        }
+    }
+
+    public static final class Call extends Instruction {
+        private final String signature; // Tipo impresso depois de "call": o de retorno, ou "i32 (i8*, ...)" para varargs
+        private final String callee;    // @nome
+        private boolean tail;           // 'tail call': o chamado não acessa a pilha de quem chama
+
+        public Call(Register result, String signature, String callee, Value... args) {
+            super(result, args);
+            this.signature = signature;
+            this.callee = callee;
+        }
+
+        public String getCallee() {
+            return callee;
+        }
+
+        public void setTail(boolean tail) {
+            this.tail = tail;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            if (tail) out.append("tail ");
+            out.append("call ").append(signature).append(" ").append(callee).append("(");
+            for (int i = 0; i < operands.size(); i++) {
+                if (i > 0) out.append(", ");
+                operands.get(i).appendTyped(out);
+            }
+            out.append(")");
+        }
+    }
+
+    // --- Terminadores ---
+
+    public static final class Branch extends Instruction {
+        private final BasicBlock target;
+        private String loopMetadata; // !N do laço quando este é o desvio de volta (latch), senão null
+
+        public Branch(BasicBlock target) {
+            super(null);
+            this.target = target;
+        }
+
+        public BasicBlock getTarget() {
+            return target;
+        }
+
+        public void setLoopMetadata(String loopMetadata) {
+            this.loopMetadata = loopMetadata;
+        }
+
+        @Override
+        public boolean isTerminator() {
+            return true;
+        }
+
+        @Override
+        public List<BasicBlock> successors() {
+            return Collections.singletonList(target);
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("br label %").append(target.getLabel());
+            if (loopMetadata != null) out.append(", !llvm.loop ").append(loopMetadata);
+        }
+    }
+
+    public static final class CondBranch extends Instruction {
+        private final BasicBlock ifTrue;
+        private final BasicBlock ifFalse;
+
+        public CondBranch(Value condition, BasicBlock ifTrue, BasicBlock ifFalse) {
+            super(null, condition);
+            this.ifTrue = ifTrue;
+            this.ifFalse = ifFalse;
+        }
+
+        public BasicBlock getIfTrue() {
+            return ifTrue;
+        }
+
+        public BasicBlock getIfFalse() {
+            return ifFalse;
+        }
+
+        @Override
+        public boolean isTerminator() {
+            return true;
+        }
+
+        @Override
+        public List<BasicBlock> successors() {
+            return Arrays.asList(ifTrue, ifFalse);
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("br ");
+            operands.get(0).appendTyped(out);
+            out.append(", label %").append(ifTrue.getLabel())
+               .append(", label %").append(ifFalse.getLabel());
+        }
+    }
+
+    public static final class Return extends Instruction {
+        // Sem operandos para "ret void"
+        public Return(Value value) {
+            super(null, value == null ? new Value[0] : new Value[] { value });
+        }
+
+        @Override
+        public boolean isTerminator() {
+            return true;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            if (operands.isEmpty()) {
+                out.append("ret void");
+            } else {
+                out.append("ret ");
+                operands.get(0).appendTyped(out);
+            }
+        }
+    }
+
+    public static final class Unreachable extends Instruction {
+        public Unreachable() {
+            super(null);
+        }
+
+        @Override
+        public boolean isTerminator() {
+            return true;
+        }
+
+        @Override
+        protected void print(StringBuilder out) {
+            out.append("unreachable");
+        }
+    }
+
+    private static Value[] prepend(Value first, Value[] rest) {
+        Value[] all = new Value[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+}
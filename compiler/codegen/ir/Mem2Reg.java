@@ -0,0 +1,431 @@
+package compiler.codegen.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Promove variáveis locais da pilha para registradores SSA, como o passe mem2reg do LLVM.
+ *
+ * O gerador de código coloca toda variável num alloca e a lê/escreve com load/store. Um
+ * alloca cujo endereço nunca escapa (só é usado como ponteiro de load e store, e não é
+ * passado a scanf ou ao runtime) vira uma sequência de valores SSA: cada load passa a usar
+ * o último valor gravado, e nos blocos onde caminhos com valores diferentes se juntam
+ * (fronteira de dominância dos stores) entra um phi.
+ *
+ * Passos: (1) apaga blocos inalcançáveis, (2) calcula dominadores (Cooper, Harvey e
+ * Kennedy, "A Simple, Fast Dominance Algorithm") e fronteiras de dominância, (3) insere
+ * phis, (4) renomeia percorrendo a árvore de dominadores e (5) remove phis triviais ou
+ * sem uso.
+ */
+public final class Mem2Reg {
+
+    private final Function function;
+
+    // CFG só com blocos alcançáveis, indexados pela ordem reversa de pós-ordem (entry = 0)
+    private final List<BasicBlock> order = new ArrayList<>();
+    private final Map<BasicBlock, Integer> index = new IdentityHashMap<>();
+    private final List<List<Integer>> predecessors = new ArrayList<>();
+    private int[] idom;
+
+    // Alloca promovido -> número da variável; phi inserido -> variável que ele representa
+    private final Map<Register, Integer> variables = new IdentityHashMap<>();
+    private final List<String> variableTypes = new ArrayList<>();
+    private final Map<Instruction.Phi, Integer> insertedPhis = new IdentityHashMap<>();
+
+    // Resultado de load promovido (ou de phi removido) -> valor que ele passa a ser
+    private final Map<Value, Value> replacements = new IdentityHashMap<>();
+
+    private Mem2Reg(Function function) {
+        this.function = function;
+    }
+
+    public static void run(Module module) {
+        for (Function function : module.getFunctions()) {
+            run(function);
+        }
+    }
+
+    public static void run(Function function) {
+        if (function.getEntryBlock() == null) return;
+        new Mem2Reg(function).promote();
+    }
+
+    private void promote() {
+        removeUnreachableBlocks();
+        if (!collectPromotableAllocas()) return;
+        computeDominators();
+        insertPhis();
+        rename();
+        for (BasicBlock block : order) {
+            block.removeIf(this::isPromotedAccess);
+        }
+        rewriteOperands();
+        replacements.clear();
+        removeUselessPhis();
+    }
+
+    // --- CFG ---
+
+    // Blocos "dead" criados depois de return/break não têm predecessores; saem antes de
+    // tudo para que todo predecessor de um phi seja alcançável a partir do entry.
+    private void removeUnreachableBlocks() {
+        // DFS iterativa; 'index' guarda os blocos já vistos e, no fim, a posição de cada um
+        List<BasicBlock> postOrder = new ArrayList<>();
+        Deque<BasicBlock> stack = new ArrayDeque<>();
+        Deque<Iterator<BasicBlock>> pending = new ArrayDeque<>();
+        BasicBlock entry = function.getEntryBlock();
+        index.put(entry, -1);
+        stack.push(entry);
+        pending.push(entry.getSuccessors().iterator());
+        while (!stack.isEmpty()) {
+            Iterator<BasicBlock> successors = pending.peek();
+            if (successors.hasNext()) {
+                BasicBlock successor = successors.next();
+                if (index.putIfAbsent(successor, -1) == null) {
+                    stack.push(successor);
+                    pending.push(successor.getSuccessors().iterator());
+                }
+            } else {
+                pending.pop();
+                postOrder.add(stack.pop());
+            }
+        }
+
+        for (BasicBlock block : new ArrayList<>(function.getBlocks())) {
+            if (index.containsKey(block)) continue;
+            for (BasicBlock successor : block.getSuccessors()) {
+                for (Instruction instruction : successor.getInstructions()) {
+                    if (!(instruction instanceof Instruction.Phi)) break;
+                    ((Instruction.Phi) instruction).removeIncoming(block);
+                }
+            }
+            function.removeBlock(block);
+        }
+
+        for (int i = postOrder.size() - 1; i >= 0; i--) {
+            index.put(postOrder.get(i), order.size());
+            order.add(postOrder.get(i));
+            predecessors.add(new ArrayList<>(2));
+        }
+        for (BasicBlock block : order) {
+            for (BasicBlock successor : block.getSuccessors()) {
+                predecessors.get(index.get(successor)).add(index.get(block));
+            }
+        }
+    }
+
+    // Um alloca é promovível se todos os seus usos são o ponteiro de um load ou de um store.
+    private boolean collectPromotableAllocas() {
+        List<Instruction.Alloca> allocas = new ArrayList<>();
+        Set<Instruction> escaped = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BasicBlock block : order) {
+            for (Instruction instruction : block.getInstructions()) {
+                if (instruction instanceof Instruction.Alloca) {
+                    allocas.add((Instruction.Alloca) instruction);
+                }
+                List<Value> operands = instruction.operands;
+                for (int i = 0; i < operands.size(); i++) {
+                    Instruction alloca = allocaOf(operands.get(i));
+                    if (alloca == null) continue;
+                    boolean pointerUse = instruction instanceof Instruction.Load
+                            || (instruction instanceof Instruction.Store && i == 1);
+                    if (!pointerUse) escaped.add(alloca);
+                }
+            }
+        }
+
+        for (Instruction.Alloca alloca : allocas) {
+            if (escaped.contains(alloca)) continue;
+            variables.put(alloca.getResult(), variableTypes.size());
+            variableTypes.add(alloca.getAllocatedType());
+        }
+        return !variables.isEmpty();
+    }
+
+    private static Instruction allocaOf(Value value) {
+        if (!(value instanceof Register)) return null;
+        Instruction definition = ((Register) value).getDefinition();
+        return definition instanceof Instruction.Alloca ? definition : null;
+    }
+
+    // Número da variável promovida para a qual 'pointer' aponta, ou null
+    private Integer variableOf(Value pointer) {
+        return allocaOf(pointer) == null ? null : variables.get(pointer);
+    }
+
+    private void computeDominators() {
+        int count = order.size();
+        idom = new int[count];
+        Arrays.fill(idom, -1);
+        idom[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 1; b < count; b++) {
+                int newIdom = -1;
+                for (int p : predecessors.get(b)) {
+                    if (idom[p] == -1) continue;
+                    newIdom = newIdom == -1 ? p : intersect(p, newIdom);
+                }
+                if (idom[b] != newIdom) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int intersect(int a, int b) {
+        while (a != b) {
+            while (a > b) a = idom[a];
+            while (b > a) b = idom[b];
+        }
+        return a;
+    }
+
+    // --- Inserção de phis ---
+
+    private void insertPhis() {
+        int count = order.size();
+        List<List<Integer>> frontier = new ArrayList<>(count);
+        for (int b = 0; b < count; b++) frontier.add(new ArrayList<>(2));
+        for (int b = 0; b < count; b++) {
+            List<Integer> preds = predecessors.get(b);
+            if (preds.size() < 2) continue;
+            for (int p : preds) {
+                for (int runner = p; runner != idom[b]; runner = idom[runner]) {
+                    List<Integer> df = frontier.get(runner);
+                    if (!df.contains(b)) df.add(b);
+                }
+            }
+        }
+
+        // Blocos que definem cada variável: o do alloca e os dos stores
+        List<List<Integer>> definitions = new ArrayList<>(variableTypes.size());
+        for (int v = 0; v < variableTypes.size(); v++) definitions.add(new ArrayList<>());
+        for (int b = 0; b < count; b++) {
+            for (Instruction instruction : order.get(b).getInstructions()) {
+                Integer variable = null;
+                if (instruction instanceof Instruction.Alloca) {
+                    variable = variables.get(instruction.getResult());
+                } else if (instruction instanceof Instruction.Store) {
+                    variable = variableOf(((Instruction.Store) instruction).getPointer());
+                }
+                if (variable != null) {
+                    List<Integer> blocks = definitions.get(variable);
+                    if (blocks.isEmpty() || blocks.get(blocks.size() - 1) != b) blocks.add(b);
+                }
+            }
+        }
+
+        int[] hasPhi = new int[count];
+        int[] queued = new int[count];
+        Arrays.fill(hasPhi, -1);
+        Arrays.fill(queued, -1);
+        Deque<Integer> worklist = new ArrayDeque<>();
+        for (int v = 0; v < variableTypes.size(); v++) {
+            for (int b : definitions.get(v)) {
+                queued[b] = v;
+                worklist.add(b);
+            }
+            while (!worklist.isEmpty()) {
+                for (int d : frontier.get(worklist.poll())) {
+                    if (hasPhi[d] == v) continue;
+                    hasPhi[d] = v;
+                    Instruction.Phi phi = new Instruction.Phi(new Register(variableTypes.get(v)));
+                    order.get(d).insert(0, phi);
+                    insertedPhis.put(phi, v);
+                    if (queued[d] != v) {
+                        queued[d] = v;
+                        worklist.add(d);
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Renomeação ---
+
+    // Percorre a árvore de dominadores em pré-ordem com pilhas explícitas (funções com
+    // milhares de ifs em sequência teriam uma árvore profunda demais para recursão).
+    private void rename() {
+        int count = order.size();
+        List<List<Integer>> children = new ArrayList<>(count);
+        for (int b = 0; b < count; b++) children.add(new ArrayList<>(2));
+        for (int b = 1; b < count; b++) children.get(idom[b]).add(b);
+
+        List<Deque<Value>> current = new ArrayList<>(variableTypes.size());
+        for (int v = 0; v < variableTypes.size(); v++) current.add(new ArrayDeque<>());
+
+        // Cada entrada da pilha é um bloco a visitar (>= 0) ou o fim de um bloco (~b), quando
+        // os valores que ele empilhou são desfeitos
+        Deque<Integer> work = new ArrayDeque<>();
+        List<List<Integer>> pushedBy = new ArrayList<>(Collections.nCopies(count, null));
+        work.push(0);
+        while (!work.isEmpty()) {
+            int item = work.pop();
+            if (item < 0) {
+                for (int v : pushedBy.set(~item, null)) current.get(v).pop();
+                continue;
+            }
+            BasicBlock block = order.get(item);
+            List<Integer> pushed = new ArrayList<>();
+
+            for (Instruction instruction : block.getInstructions()) {
+                if (instruction instanceof Instruction.Phi) {
+                    Integer variable = insertedPhis.get(instruction);
+                    if (variable != null) define(current, pushed, variable, instruction.getResult());
+                } else if (instruction instanceof Instruction.Alloca) {
+                    Integer variable = variables.get(instruction.getResult());
+                    if (variable != null) {
+                        define(current, pushed, variable, Constant.undef(variableTypes.get(variable)));
+                    }
+                } else if (instruction instanceof Instruction.Load) {
+                    Integer variable = variableOf(((Instruction.Load) instruction).getPointer());
+                    if (variable != null) {
+                        replacements.put(instruction.getResult(), valueOf(current, variable));
+                    }
+                } else if (instruction instanceof Instruction.Store) {
+                    Instruction.Store store = (Instruction.Store) instruction;
+                    Integer variable = variableOf(store.getPointer());
+                    if (variable != null) {
+                        define(current, pushed, variable, store.getValue());
+                    }
+                }
+            }
+
+            for (BasicBlock successor : block.getSuccessors()) {
+                for (Instruction instruction : successor.getInstructions()) {
+                    if (!(instruction instanceof Instruction.Phi)) break;
+                    Integer variable = insertedPhis.get(instruction);
+                    if (variable != null) {
+                        ((Instruction.Phi) instruction).addIncoming(valueOf(current, variable), block);
+                    }
+                }
+            }
+
+            pushedBy.set(item, pushed);
+            work.push(~item);
+            List<Integer> dominated = children.get(item);
+            for (int i = dominated.size() - 1; i >= 0; i--) work.push(dominated.get(i));
+        }
+    }
+
+    // Alloca promovido, ou load/store sobre ele: sai do código depois da renomeação
+    private boolean isPromotedAccess(Instruction instruction) {
+        if (instruction instanceof Instruction.Alloca) return variables.containsKey(instruction.getResult());
+        if (instruction instanceof Instruction.Load) return variableOf(((Instruction.Load) instruction).getPointer()) != null;
+        if (instruction instanceof Instruction.Store) return variableOf(((Instruction.Store) instruction).getPointer()) != null;
+        return false;
+    }
+
+    private void define(List<Deque<Value>> current, List<Integer> pushed, int variable, Value value) {
+        current.get(variable).push(value);
+        pushed.add(variable);
+    }
+
+    private Value valueOf(List<Deque<Value>> current, int variable) {
+        Value value = current.get(variable).peek();
+        return value != null ? value : Constant.undef(variableTypes.get(variable));
+    }
+
+    // Troca, em uma só passada, cada uso de um load (ou phi) removido pelo valor que ele
+    // lia. Só registradores cuja instrução já saiu do bloco precisam ser procurados.
+    private void rewriteOperands() {
+        for (BasicBlock block : order) {
+            for (Instruction instruction : block.getInstructions()) {
+                List<Value> operands = instruction.operands;
+                for (int i = 0; i < operands.size(); i++) {
+                    Value operand = operands.get(i);
+                    if (!(operand instanceof Register)) continue;
+                    Instruction definition = ((Register) operand).getDefinition();
+                    if (definition != null && definition.getParent() == null) {
+                        operands.set(i, resolve(operand));
+                    }
+                }
+            }
+        }
+    }
+
+    // Um load pode ter lido o valor de outro load (ex.: x := y), então a troca é seguida até o fim.
+    private Value resolve(Value value) {
+        Value replacement = replacements.get(value);
+        while (replacement != null) {
+            value = replacement;
+            replacement = replacements.get(value);
+        }
+        return value;
+    }
+
+    // --- Limpeza ---
+
+    // Remove phis inseridos aqui que ficaram sem uso ou que só recebem um valor (além de si
+    // mesmos); repete até estabilizar, pois remover um phi pode simplificar outro.
+    private void removeUselessPhis() {
+        Set<Instruction> useless = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Set<Value> used = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (BasicBlock block : order) {
+                for (Instruction instruction : block.getInstructions()) {
+                    for (Value operand : instruction.operands) {
+                        if (operand != instruction.getResult() && operand instanceof Register
+                                && ((Register) operand).getDefinition() instanceof Instruction.Phi) {
+                            used.add(operand);
+                        }
+                    }
+                }
+            }
+
+            for (BasicBlock block : order) {
+                for (Instruction instruction : block.getInstructions()) {
+                    if (!(instruction instanceof Instruction.Phi)) break;
+                    if (!insertedPhis.containsKey(instruction)) continue;
+                    Register result = instruction.getResult();
+                    Value single = singleIncoming((Instruction.Phi) instruction);
+                    if (!used.contains(result)) {
+                        useless.add(instruction);
+                    } else if (single != null && resolve(single) != result) {
+                        replacements.put(result, single);
+                        useless.add(instruction);
+                    }
+                }
+            }
+            if (!useless.isEmpty()) {
+                for (BasicBlock block : order) {
+                    block.removeIf(instruction -> instruction instanceof Instruction.Phi && useless.contains(instruction));
+                }
+                rewriteOperands();
+                replacements.clear();
+                useless.clear();
+                changed = true;
+            }
+        }
+    }
+
+    private Value singleIncoming(Instruction.Phi phi) {
+        Value single = null;
+        for (Value operand : phi.operands) {
+            if (operand == phi.getResult()) continue;
+            if (single != null && !sameValue(single, operand)) return null;
+            single = operand;
+        }
+        return single;
+    }
+
+    // Constantes iguais em texto são o mesmo valor, mesmo sendo objetos diferentes
+    private static boolean sameValue(Value a, Value b) {
+        if (a == b) return true;
+        return a instanceof Constant && b instanceof Constant
+                && a.getType().equals(b.getType()) && a.ref().equals(b.ref());
+    }
+}
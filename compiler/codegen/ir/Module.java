@@ -0,0 +1,72 @@
+package compiler.codegen.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Módulo LLVM (o arquivo .ll): declarações externas, globais, trechos de IR já
+ * em texto (as funções de runtime), nós de metadados e as funções geradas, nessa
+ * ordem de impressão.
+ */
+public final class Module {
+
+    private final List<String> declarations = new ArrayList<>(); // declare ...
+    private final List<String> globals = new ArrayList<>();      // @nome = ...
+    private final List<String> verbatim = new ArrayList<>();     // IR escrito à mão, impresso como está
+    private final List<String> metadata = new ArrayList<>();     // !N = ..., N é o índice na lista
+    private final List<Function> functions = new ArrayList<>();
+
+    public void addDeclaration(String declaration) {
+        declarations.add(declaration);
+    }
+
+    public void addGlobal(String definition) {
+        globals.add(definition);
+    }
+
+    public void addVerbatim(String irText) {
+        verbatim.add(irText);
+    }
+
+    /**
+     * Referência (!N) que o próximo nó passado a addMetadata vai ter; serve para
+     * nós que apontam para si mesmos, como os de !llvm.loop.
+     */
+    public String nextMetadataRef() {
+        return "!" + metadata.size();
+    }
+
+    /**
+     * Acrescenta um nó de metadados (o texto depois de "!N = ") e devolve sua referência.
+     */
+    public String addMetadata(String node) {
+        String ref = nextMetadataRef();
+        metadata.add(node);
+        return ref;
+    }
+
+    public void addFunction(Function function) {
+        functions.add(function);
+    }
+
+    public List<String> getDeclarations() {
+        return Collections.unmodifiableList(declarations);
+    }
+
+    public List<String> getGlobals() {
+        return Collections.unmodifiableList(globals);
+    }
+
+    public List<String> getVerbatim() {
+        return Collections.unmodifiableList(verbatim);
+    }
+
+    public List<String> getMetadata() {
+        return Collections.unmodifiableList(metadata);
+    }
+
+    public List<Function> getFunctions() {
+        return Collections.unmodifiableList(functions);
+    }
+}
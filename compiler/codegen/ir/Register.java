@@ -0,0 +1,45 @@
+package compiler.codegen.ir;
+
+/**
+ * Valor local de uma função: parâmetro ou resultado de uma instrução.
+ * Registradores sem nome recebem o número (%0, %1, ...) só na impressão, na ordem
+ * em que aparecem, então passes podem remover instruções sem renumerar nada.
+ */
+public final class Register extends Value {
+
+    private final String name; // null para registradores numerados
+    int slot = -1;             // Número atribuído pelo IRPrinter
+    Instruction definition;    // Instrução que produz o valor; null para parâmetros
+
+    public Register(String type) {
+        this(type, null);
+    }
+
+    public Register(String type, String name) {
+        super(type);
+        this.name = name;
+    }
+
+    public Instruction getDefinition() {
+        return definition;
+    }
+
+    public boolean isNamed() {
+        return name != null;
+    }
+
+    @Override
+    public String ref() {
+        return name != null ? "%" + name : "%" + slot;
+    }
+
+    @Override
+    void appendRef(StringBuilder out) {
+        out.append('%');
+        if (name != null) {
+            out.append(name);
+        } else {
+            out.append(slot);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package compiler.codegen.ir;
+
+/**
+ * Um operando do IR: uma constante ou um registrador (resultado de instrução ou parâmetro).
+ * Todo valor conhece o seu tipo LLVM, então as instruções não precisam repeti-lo.
+ */
+public abstract class Value {
+
+    private final String type; // Tipo LLVM em texto (i32, double, %go.string, i8*, ...)
+
+    protected Value(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Como o valor aparece como operando (%3, %x, 42, zeroinitializer, @g, ...).
+     */
+    public abstract String ref();
+
+    /**
+     * Tipo seguido do operando, a forma usada na maioria das instruções ("i32 %3").
+     */
+    public String typed() {
+        return type + " " + ref();
+    }
+
+    // Versões que escrevem direto na saída do IRPrinter, sem strings temporárias
+    void appendRef(StringBuilder out) {
+        out.append(ref());
+    }
+
+    final void appendTyped(StringBuilder out) {
+        out.append(type).append(' ');
+        appendRef(out);
+    }
+
+    @Override
+    public String toString() {
+        return ref();
+    }
+}
@@ -0,0 +1,937 @@
+package compiler.exec;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import compiler.exec.Nodes.BoolExpr;
+import compiler.exec.Nodes.FloatExpr;
+import compiler.exec.Nodes.IntExpr;
+import compiler.exec.Nodes.SliceExpr;
+import compiler.exec.Nodes.Stmt;
+import compiler.exec.Nodes.StrExpr;
+import compiler.interpreter.BoolSlice;
+import compiler.interpreter.FloatSlice;
+import compiler.interpreter.IntSlice;
+import compiler.interpreter.ScopeResolver;
+import compiler.interpreter.Slice;
+import compiler.interpreter.StringSlice;
+import compiler.tables.BuiltinFunction;
+import compiler.typing.GoType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import static compiler.exec.Nodes.BREAK;
+import static compiler.exec.Nodes.CONTINUE;
+import static compiler.exec.Nodes.NOOP;
+import static compiler.exec.Nodes.NORMAL;
+import static compiler.exec.Nodes.RETURN;
+import static compiler.exec.Nodes.TAIL_CALL;
+
+/**
+ * Converte a AST anotada pelo checker numa árvore de closures especializadas.
+ * Toda decisão que o GoInterpreter toma a cada visita (tipo do nó, tipo do operando,
+ * variável global ou local) é tomada aqui uma única vez; o que sobra para a execução
+ * são lambdas pequenas e monomórficas, que a JIT consegue inlinear.
+ *
+ * Os endereços das variáveis vêm do ScopeResolver, que precisa ter rodado antes.
+ */
+final class ClosureCompiler {
+
+    // Função do programa: o corpo é preenchido depois de registar todas as funções,
+    // para que chamadas (inclusive recursivas) possam ser ligadas antes da compilação.
+    static final class Function {
+        final String name;
+        final int frameSize;
+        final GoType[] paramTypes;
+        Stmt body;
+
+        Function(String name, int frameSize, GoType[] paramTypes) {
+            this.name = name;
+            this.frameSize = frameSize;
+            this.paramTypes = paramTypes;
+        }
+    }
+
+    // Chamada ligada à função: devolve o frame do chamado, onde está o valor de retorno.
+    @FunctionalInterface
+    private interface Call { Frame call(Frame caller); }
+
+    // Copia um argumento avaliado no frame do chamador para o slot do parâmetro.
+    @FunctionalInterface
+    private interface ArgCopy { void copy(Frame caller, Frame callee); }
+
+    private final Frame globals;
+    private final Map<String, Function> functions;
+    private final Scanner scanner;
+    private Function currentFunction; // Função cujo corpo está sendo compilado
+
+    ClosureCompiler(Frame globals, Scanner scanner) {
+        this.globals = globals;
+        this.functions = new HashMap<>();
+        this.scanner = scanner;
+    }
+
+    Function getFunction(String name) {
+        return functions.get(name);
+    }
+
+    /**
+     * Compila o programa. Devolve o comando que inicializa as variáveis globais;
+     * as funções ficam disponíveis em getFunction.
+     */
+    Stmt compileProgram(AST root) {
+        List<AST> funcDecls = new ArrayList<>();
+        List<Stmt> globalStmts = new ArrayList<>();
+
+        // Fase 1: registar todas as funções
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.getChildCount() >= 4) {
+                AST paramList = child.getChild(1);
+                GoType[] paramTypes = new GoType[paramList.getChildCount()];
+                for (int i = 0; i < paramTypes.length; i++) {
+                    paramTypes[i] = paramList.getChild(i).getChild(0).getAnnotatedType();
+                }
+                String name = child.getChild(0).text;
+                functions.put(name, new Function(name, child.getFrameSize(), paramTypes));
+                funcDecls.add(child);
+            }
+        }
+        // Fase 2: compilar os corpos e as declarações globais
+        for (AST decl : funcDecls) {
+            currentFunction = functions.get(decl.getChild(0).text);
+            Stmt body = stmt(decl.getChild(3));
+            if (hasSelfTailCall(decl.getChild(3), currentFunction.name)) {
+                // A recursão em cauda vira um laço sobre o mesmo frame
+                Stmt once = body;
+                body = f -> {
+                    int c;
+                    do {
+                        c = once.exec(f);
+                    } while (c == TAIL_CALL);
+                    return c;
+                };
+            }
+            currentFunction.body = body;
+        }
+        currentFunction = null;
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind != NodeKind.FUNC_DECL_NODE) {
+                globalStmts.add(stmt(child));
+            }
+        }
+        return sequence(globalStmts);
+    }
+
+    // ---------------------------------------------------------------
+    // Comandos
+    // ---------------------------------------------------------------
+
+    private Stmt stmt(AST node) {
+        if (node == null) return NOOP;
+
+        switch (node.kind) {
+            case VAR_SPEC_NODE:
+            case CONST_SPEC_NODE:       return varSpec(node);
+            case SHORT_VAR_DECL_NODE:   return shortVarDecl(node);
+            case ASSIGN_NODE:           return store(node.getChild(0), node.getChild(1));
+            case EXPR_STMT_NODE:        return discard(node.getChild(0));
+            case CALL_NODE:             return discard(node);
+            case IF_NODE:               return ifStmt(node);
+            case FOR_CLAUSE_NODE:       return forStmt(node);
+            case RETURN_NODE:           return returnStmt(node);
+            case INC_DEC_STMT_NODE:     return incDec(node);
+            case BREAK_NODE:            return f -> BREAK;
+            case CONTINUE_NODE:         return f -> CONTINUE;
+            case FOR_COND_NODE:         return NOOP; // O checker não gera este nó
+            default:
+                // BLOCK_NODE, VAR_DECL_NODE, CONST_DECL_NODE, ...: executa os filhos em ordem
+                List<Stmt> stmts = new ArrayList<>();
+                for (AST child : node.getChildren()) {
+                    if (child != null) stmts.add(stmt(child));
+                }
+                return sequence(stmts);
+        }
+    }
+
+    private static Stmt sequence(List<Stmt> list) {
+        switch (list.size()) {
+            case 0: return NOOP;
+            case 1: return list.get(0);
+            case 2: {
+                Stmt a = list.get(0), b = list.get(1);
+                return f -> {
+                    int c = a.exec(f);
+                    return c != NORMAL ? c : b.exec(f);
+                };
+            }
+            default: {
+                Stmt[] stmts = list.toArray(new Stmt[0]);
+                return f -> {
+                    for (Stmt s : stmts) {
+                        int c = s.exec(f);
+                        if (c != NORMAL) return c;
+                    }
+                    return NORMAL;
+                };
+            }
+        }
+    }
+
+    private Stmt varSpec(AST node) {
+        List<AST> idNodes = new ArrayList<>();
+        AST exprListNode = null;
+        for (AST child : node.getChildren()) {
+            if (child.kind == NodeKind.ID_NODE) idNodes.add(child);
+            else if (child.kind == NodeKind.EXPR_LIST_NODE) exprListNode = child;
+        }
+        List<Stmt> stmts = new ArrayList<>();
+        for (int i = 0; i < idNodes.size(); i++) {
+            stmts.add(exprListNode != null
+                    ? store(idNodes.get(i), exprListNode.getChild(i))
+                    : storeZero(idNodes.get(i)));
+        }
+        return sequence(stmts);
+    }
+
+    private Stmt shortVarDecl(AST node) {
+        AST idListNode = node.getChild(0);
+        AST exprListNode = node.getChild(1);
+        List<Stmt> stmts = new ArrayList<>();
+        for (int i = 0; i < idListNode.getChildCount(); i++) {
+            stmts.add(store(idListNode.getChild(i), exprListNode.getChild(i)));
+        }
+        return sequence(stmts);
+    }
+
+    // Grava o valor de 'expr' na variável 'idNode' (ou no elemento, se for a[i]).
+    private Stmt store(AST idNode, AST expr) {
+        if (idNode.kind == NodeKind.INDEX_NODE) return storeIndex(idNode, expr);
+        GoType type = idNode.getAnnotatedType();
+        int slot = idNode.getSlot();
+        boolean global = idNode.getScopeDepth() == ScopeResolver.GLOBAL;
+        Frame g = globals;
+
+        if (type == GoType.INT) {
+            IntExpr e = intExpr(expr);
+            if (global) return f -> { g.prims[slot] = e.eval(f); return NORMAL; };
+            return f -> { f.prims[slot] = e.eval(f); return NORMAL; };
+        } else if (type == GoType.FLOAT64) {
+            FloatExpr e = floatExpr(expr);
+            if (global) return f -> { g.prims[slot] = Float.floatToRawIntBits(e.eval(f)); return NORMAL; };
+            return f -> { f.prims[slot] = Float.floatToRawIntBits(e.eval(f)); return NORMAL; };
+        } else if (type == GoType.BOOL) {
+            BoolExpr e = boolExpr(expr);
+            if (global) return f -> { g.prims[slot] = e.eval(f) ? 1L : 0L; return NORMAL; };
+            return f -> { f.prims[slot] = e.eval(f) ? 1L : 0L; return NORMAL; };
+        } else if (type == GoType.STRING) {
+            StrExpr e = strExpr(expr);
+            if (global) return f -> { g.refs[slot] = e.eval(f); return NORMAL; };
+            return f -> { f.refs[slot] = e.eval(f); return NORMAL; };
+        } else if (type.isArray()) {
+            SliceExpr e = sliceExpr(expr);
+            if (global) return f -> { g.refs[slot] = e.eval(f); return NORMAL; };
+            return f -> { f.refs[slot] = e.eval(f); return NORMAL; };
+        }
+        throw unsupported(idNode, "variável do tipo " + type);
+    }
+
+    // a[i] = valor: o slice e o índice são avaliados antes do valor, como em Go.
+    private Stmt storeIndex(AST indexNode, AST expr) {
+        SliceExpr s = sliceExpr(indexNode.getChild(0));
+        IntExpr i = intExpr(indexNode.getChild(1));
+        GoType type = indexNode.getAnnotatedType();
+
+        if (type == GoType.INT) {
+            IntExpr e = intExpr(expr);
+            return f -> { IntSlice a = (IntSlice) s.eval(f); int at = i.eval(f); a.set(at, e.eval(f)); return NORMAL; };
+        } else if (type == GoType.FLOAT64) {
+            FloatExpr e = floatExpr(expr);
+            return f -> { FloatSlice a = (FloatSlice) s.eval(f); int at = i.eval(f); a.set(at, e.eval(f)); return NORMAL; };
+        } else if (type == GoType.BOOL) {
+            BoolExpr e = boolExpr(expr);
+            return f -> { BoolSlice a = (BoolSlice) s.eval(f); int at = i.eval(f); a.set(at, e.eval(f)); return NORMAL; };
+        } else if (type == GoType.STRING) {
+            StrExpr e = strExpr(expr);
+            return f -> { StringSlice a = (StringSlice) s.eval(f); int at = i.eval(f); a.set(at, e.eval(f)); return NORMAL; };
+        }
+        throw unsupported(indexNode, "elemento do tipo " + type);
+    }
+
+    // Declaração sem inicializador: grava o valor zero do tipo (0, 0.0, false, "" ou nil).
+    private Stmt storeZero(AST idNode) {
+        GoType type = idNode.getAnnotatedType();
+        int slot = idNode.getSlot();
+        boolean global = idNode.getScopeDepth() == ScopeResolver.GLOBAL;
+        Frame g = globals;
+
+        if (type == GoType.STRING) {
+            if (global) return f -> { g.refs[slot] = ""; return NORMAL; };
+            return f -> { f.refs[slot] = ""; return NORMAL; };
+        } else if (type.isArray()) {
+            Slice zero = Slice.zero(type);
+            if (global) return f -> { g.refs[slot] = zero; return NORMAL; };
+            return f -> { f.refs[slot] = zero; return NORMAL; };
+        } else if (type == GoType.INT || type == GoType.FLOAT64 || type == GoType.BOOL) {
+            // Os bits de 0, 0.0f e false são todos zero
+            if (global) return f -> { g.prims[slot] = 0L; return NORMAL; };
+            return f -> { f.prims[slot] = 0L; return NORMAL; };
+        }
+        throw unsupported(idNode, "variável do tipo " + type);
+    }
+
+    // Avalia uma expressão só pelos efeitos colaterais.
+    private Stmt discard(AST expr) {
+        if (expr == null) return NOOP;
+        if (expr.kind == NodeKind.CALL_NODE) {
+            BuiltinFunction builtin = expr.getBuiltin();
+            if (builtin == BuiltinFunction.PRINTLN) return println(expr);
+            if (builtin == BuiltinFunction.SCANLN) {
+                IntExpr scan = scanln(expr);
+                return f -> { scan.eval(f); return NORMAL; };
+            }
+            if (isSelfTailCall(expr)) return selfTailCall(expr); // Chamada void no fim de uma função void
+            if (builtin == null) {
+                Call call = call(expr);
+                return f -> { call.call(f); return NORMAL; };
+            }
+        }
+        GoType type = typeOf(expr);
+        if (type == GoType.INT) { IntExpr e = intExpr(expr); return f -> { e.eval(f); return NORMAL; }; }
+        if (type == GoType.FLOAT64) { FloatExpr e = floatExpr(expr); return f -> { e.eval(f); return NORMAL; }; }
+        if (type == GoType.BOOL) { BoolExpr e = boolExpr(expr); return f -> { e.eval(f); return NORMAL; }; }
+        if (type == GoType.STRING) { StrExpr e = strExpr(expr); return f -> { e.eval(f); return NORMAL; }; }
+        if (type.isArray()) { SliceExpr e = sliceExpr(expr); return f -> { e.eval(f); return NORMAL; }; }
+        return NOOP;
+    }
+
+    private Stmt ifStmt(AST node) {
+        BoolExpr cond = boolExpr(node.getChild(0));
+        Stmt then = stmt(node.getChild(1));
+        if (node.getChildCount() > 2 && node.getChild(2) != null) {
+            Stmt otherwise = stmt(node.getChild(2));
+            return f -> cond.eval(f) ? then.exec(f) : otherwise.exec(f);
+        }
+        return f -> cond.eval(f) ? then.exec(f) : NORMAL;
+    }
+
+    private Stmt forStmt(AST node) {
+        // O checker sempre gera 4 filhos: init, cond, post e body (os três primeiros podem ser null).
+        if (node.getChildCount() != 4) {
+            throw unsupported(node, "laço 'for' com " + node.getChildCount() + " filhos");
+        }
+        Stmt init = stmt(node.getChild(0));
+        BoolExpr cond = node.getChild(1) != null ? boolExpr(node.getChild(1)) : f -> true;
+        Stmt post = stmt(node.getChild(2));
+        Stmt body = stmt(node.getChild(3));
+
+        return f -> {
+            init.exec(f);
+            while (cond.eval(f)) {
+                int c = body.exec(f);
+                if (c == BREAK) break;
+                if (c == RETURN || c == TAIL_CALL) return c;
+                post.exec(f); // NORMAL ou CONTINUE
+            }
+            return NORMAL;
+        };
+    }
+
+    private Stmt returnStmt(AST node) {
+        if (!node.hasChildren() || node.getChild(0) == null) {
+            return f -> RETURN;
+        }
+        AST expr = node.getChild(0);
+        if (isSelfTailCall(expr)) return selfTailCall(expr);
+        GoType type = typeOf(expr);
+        if (type == GoType.INT) {
+            IntExpr e = intExpr(expr);
+            return f -> { f.retPrim = e.eval(f); return RETURN; };
+        } else if (type == GoType.FLOAT64) {
+            FloatExpr e = floatExpr(expr);
+            return f -> { f.retPrim = Float.floatToRawIntBits(e.eval(f)); return RETURN; };
+        } else if (type == GoType.BOOL) {
+            BoolExpr e = boolExpr(expr);
+            return f -> { f.retPrim = e.eval(f) ? 1L : 0L; return RETURN; };
+        } else if (type == GoType.STRING) {
+            StrExpr e = strExpr(expr);
+            return f -> { f.retRef = e.eval(f); return RETURN; };
+        } else if (type.isArray()) {
+            SliceExpr e = sliceExpr(expr);
+            return f -> { f.retRef = e.eval(f); return RETURN; };
+        }
+        throw unsupported(node, "return do tipo " + type);
+    }
+
+    private Stmt incDec(AST node) {
+        AST lvalue = node.getChild(0);
+        boolean increment = "++".equals(node.getChild(1).text);
+        if (lvalue.kind == NodeKind.INDEX_NODE) return incDecIndex(lvalue, increment);
+        int slot = lvalue.getSlot();
+        Frame g = globals;
+        boolean global = lvalue.getScopeDepth() == ScopeResolver.GLOBAL;
+        GoType type = lvalue.getAnnotatedType();
+
+        if (type == GoType.INT) {
+            int delta = increment ? 1 : -1;
+            if (global) return f -> { g.prims[slot] = (int) g.prims[slot] + delta; return NORMAL; };
+            return f -> { f.prims[slot] = (int) f.prims[slot] + delta; return NORMAL; };
+        } else if (type == GoType.FLOAT64) {
+            float delta = increment ? 1.0f : -1.0f;
+            if (global) {
+                return f -> {
+                    g.prims[slot] = Float.floatToRawIntBits(Float.intBitsToFloat((int) g.prims[slot]) + delta);
+                    return NORMAL;
+                };
+            }
+            return f -> {
+                f.prims[slot] = Float.floatToRawIntBits(Float.intBitsToFloat((int) f.prims[slot]) + delta);
+                return NORMAL;
+            };
+        }
+        throw unsupported(node, "incremento/decremento em tipo não numérico: " + type);
+    }
+
+    private Stmt incDecIndex(AST indexNode, boolean increment) {
+        SliceExpr s = sliceExpr(indexNode.getChild(0));
+        IntExpr i = intExpr(indexNode.getChild(1));
+        GoType type = indexNode.getAnnotatedType();
+
+        if (type == GoType.INT) {
+            int delta = increment ? 1 : -1;
+            return f -> { IntSlice a = (IntSlice) s.eval(f); int at = i.eval(f); a.set(at, a.get(at) + delta); return NORMAL; };
+        } else if (type == GoType.FLOAT64) {
+            float delta = increment ? 1.0f : -1.0f;
+            return f -> { FloatSlice a = (FloatSlice) s.eval(f); int at = i.eval(f); a.set(at, a.get(at) + delta); return NORMAL; };
+        }
+        throw unsupported(indexNode, "incremento/decremento em tipo não numérico: " + type);
+    }
+
+    // ---------------------------------------------------------------
+    // Expressões
+    // ---------------------------------------------------------------
+
+    private static GoType typeOf(AST node) {
+        switch (node.kind) {
+            case INT_VAL_NODE:   return GoType.INT;
+            case REAL_VAL_NODE:  return GoType.FLOAT64;
+            case BOOL_VAL_NODE:  return GoType.BOOL;
+            case STR_VAL_NODE:   return GoType.STRING;
+            case TYPE_CONV_NODE: return node.type;
+            default:             return node.getAnnotatedType();
+        }
+    }
+
+    private IntExpr intExpr(AST node) {
+        switch (node.kind) {
+            case INT_VAL_NODE: {
+                int v = node.intData;
+                return f -> v;
+            }
+            case ID_NODE: {
+                int slot = node.getSlot();
+                Frame g = globals;
+                if (node.getScopeDepth() == ScopeResolver.GLOBAL) return f -> (int) g.prims[slot];
+                return f -> (int) f.prims[slot];
+            }
+            case PLUS_NODE: {
+                IntExpr l = intExpr(node.getChild(0)), r = intExpr(node.getChild(1));
+                return f -> l.eval(f) + r.eval(f);
+            }
+            case MINUS_NODE: {
+                IntExpr l = intExpr(node.getChild(0)), r = intExpr(node.getChild(1));
+                return f -> l.eval(f) - r.eval(f);
+            }
+            case TIMES_NODE: {
+                IntExpr l = intExpr(node.getChild(0)), r = intExpr(node.getChild(1));
+                return f -> l.eval(f) * r.eval(f);
+            }
+            case OVER_NODE: {
+                IntExpr l = intExpr(node.getChild(0)), r = intExpr(node.getChild(1));
+                return f -> {
+                    int left = l.eval(f), right = r.eval(f);
+                    return right == 0 ? 0 : left / right;
+                };
+            }
+            case MOD_NODE: {
+                IntExpr l = intExpr(node.getChild(0)), r = intExpr(node.getChild(1));
+                return f -> {
+                    int left = l.eval(f), right = r.eval(f);
+                    return right == 0 ? 0 : left % right;
+                };
+            }
+            case UNARY_MINUS_NODE: {
+                IntExpr e = intExpr(node.getChild(0));
+                return f -> -e.eval(f);
+            }
+            case TYPE_CONV_NODE: {
+                AST source = node.getChild(0);
+                if (typeOf(source) == GoType.FLOAT64) {
+                    FloatExpr e = floatExpr(source);
+                    return f -> (int) e.eval(f);
+                }
+                return intExpr(source);
+            }
+            case INDEX_NODE: {
+                SliceExpr s = sliceExpr(node.getChild(0));
+                IntExpr i = intExpr(node.getChild(1));
+                return f -> ((IntSlice) s.eval(f)).get(i.eval(f));
+            }
+            case CALL_NODE: {
+                if (node.getBuiltin() == BuiltinFunction.SCANLN) return scanln(node);
+                if (node.getBuiltin() == BuiltinFunction.LEN) return len(node.getChild(1));
+                Call call = call(node);
+                return f -> (int) call.call(f).retPrim;
+            }
+            default:
+                throw unsupported(node, "expressão inteira " + node.kind);
+        }
+    }
+
+    private FloatExpr floatExpr(AST node) {
+        switch (node.kind) {
+            case REAL_VAL_NODE: {
+                float v = node.floatData;
+                return f -> v;
+            }
+            case INT_VAL_NODE: {
+                float v = node.intData;
+                return f -> v;
+            }
+            case ID_NODE: {
+                int slot = node.getSlot();
+                Frame g = globals;
+                if (node.getScopeDepth() == ScopeResolver.GLOBAL) return f -> Float.intBitsToFloat((int) g.prims[slot]);
+                return f -> Float.intBitsToFloat((int) f.prims[slot]);
+            }
+            case PLUS_NODE: {
+                FloatExpr l = floatExpr(node.getChild(0)), r = floatExpr(node.getChild(1));
+                return f -> l.eval(f) + r.eval(f);
+            }
+            case MINUS_NODE: {
+                FloatExpr l = floatExpr(node.getChild(0)), r = floatExpr(node.getChild(1));
+                return f -> l.eval(f) - r.eval(f);
+            }
+            case TIMES_NODE: {
+                FloatExpr l = floatExpr(node.getChild(0)), r = floatExpr(node.getChild(1));
+                return f -> l.eval(f) * r.eval(f);
+            }
+            case OVER_NODE: {
+                FloatExpr l = floatExpr(node.getChild(0)), r = floatExpr(node.getChild(1));
+                return f -> {
+                    float left = l.eval(f), right = r.eval(f);
+                    return right == 0.0f ? 0.0f : left / right;
+                };
+            }
+            case UNARY_MINUS_NODE: {
+                FloatExpr e = floatExpr(node.getChild(0));
+                return f -> -e.eval(f);
+            }
+            case TYPE_CONV_NODE: {
+                AST source = node.getChild(0);
+                if (typeOf(source) == GoType.INT) {
+                    IntExpr e = intExpr(source);
+                    return f -> (float) e.eval(f);
+                }
+                return floatExpr(source);
+            }
+            case INDEX_NODE: {
+                SliceExpr s = sliceExpr(node.getChild(0));
+                IntExpr i = intExpr(node.getChild(1));
+                return f -> ((FloatSlice) s.eval(f)).get(i.eval(f));
+            }
+            case CALL_NODE: {
+                Call call = call(node);
+                return f -> Float.intBitsToFloat((int) call.call(f).retPrim);
+            }
+            default:
+                throw unsupported(node, "expressão float " + node.kind);
+        }
+    }
+
+    private BoolExpr boolExpr(AST node) {
+        switch (node.kind) {
+            case BOOL_VAL_NODE: {
+                boolean v = node.boolData;
+                return v ? f -> true : f -> false;
+            }
+            case ID_NODE: {
+                int slot = node.getSlot();
+                Frame g = globals;
+                if (node.getScopeDepth() == ScopeResolver.GLOBAL) return f -> g.prims[slot] != 0L;
+                return f -> f.prims[slot] != 0L;
+            }
+            case AND_NODE: {
+                BoolExpr l = boolExpr(node.getChild(0)), r = boolExpr(node.getChild(1));
+                return f -> l.eval(f) && r.eval(f);
+            }
+            case OR_NODE: {
+                BoolExpr l = boolExpr(node.getChild(0)), r = boolExpr(node.getChild(1));
+                return f -> l.eval(f) || r.eval(f);
+            }
+            case NOT_NODE: {
+                BoolExpr e = boolExpr(node.getChild(0));
+                return f -> !e.eval(f);
+            }
+            case EQUAL_NODE:
+            case NOT_EQUAL_NODE:
+            case LESS_NODE:
+            case GREATER_NODE:
+            case LESS_EQ_NODE:
+            case GREATER_EQ_NODE:
+                return comparison(node);
+            case INDEX_NODE: {
+                SliceExpr s = sliceExpr(node.getChild(0));
+                IntExpr i = intExpr(node.getChild(1));
+                return f -> ((BoolSlice) s.eval(f)).get(i.eval(f));
+            }
+            case CALL_NODE: {
+                Call call = call(node);
+                return f -> call.call(f).retPrim != 0L;
+            }
+            default:
+                throw unsupported(node, "expressão booleana " + node.kind);
+        }
+    }
+
+    // O tipo da comparação é o dos operandos, não o do nó (que é sempre bool).
+    private BoolExpr comparison(AST node) {
+        AST left = node.getChild(0), right = node.getChild(1);
+        GoType type = typeOf(left);
+
+        if (type == GoType.FLOAT64) {
+            FloatExpr l = floatExpr(left), r = floatExpr(right);
+            switch (node.kind) {
+                case EQUAL_NODE:      return f -> l.eval(f) == r.eval(f);
+                case NOT_EQUAL_NODE:  return f -> l.eval(f) != r.eval(f);
+                case LESS_NODE:       return f -> l.eval(f) < r.eval(f);
+                case GREATER_NODE:    return f -> l.eval(f) > r.eval(f);
+                case LESS_EQ_NODE:    return f -> l.eval(f) <= r.eval(f);
+                default:              return f -> l.eval(f) >= r.eval(f);
+            }
+        } else if (type == GoType.STRING) {
+            StrExpr l = strExpr(left), r = strExpr(right);
+            switch (node.kind) {
+                case EQUAL_NODE:      return f -> l.eval(f).equals(r.eval(f));
+                case NOT_EQUAL_NODE:  return f -> !l.eval(f).equals(r.eval(f));
+                case LESS_NODE:       return f -> l.eval(f).compareTo(r.eval(f)) < 0;
+                case GREATER_NODE:    return f -> l.eval(f).compareTo(r.eval(f)) > 0;
+                case LESS_EQ_NODE:    return f -> l.eval(f).compareTo(r.eval(f)) <= 0;
+                default:              return f -> l.eval(f).compareTo(r.eval(f)) >= 0;
+            }
+        } else if (type == GoType.BOOL) {
+            BoolExpr l = boolExpr(left), r = boolExpr(right);
+            if (node.kind == NodeKind.EQUAL_NODE) return f -> l.eval(f) == r.eval(f);
+            if (node.kind == NodeKind.NOT_EQUAL_NODE) return f -> l.eval(f) != r.eval(f);
+        } else {
+            IntExpr l = intExpr(left), r = intExpr(right);
+            switch (node.kind) {
+                case EQUAL_NODE:      return f -> l.eval(f) == r.eval(f);
+                case NOT_EQUAL_NODE:  return f -> l.eval(f) != r.eval(f);
+                case LESS_NODE:       return f -> l.eval(f) < r.eval(f);
+                case GREATER_NODE:    return f -> l.eval(f) > r.eval(f);
+                case LESS_EQ_NODE:    return f -> l.eval(f) <= r.eval(f);
+                default:              return f -> l.eval(f) >= r.eval(f);
+            }
+        }
+        throw unsupported(node, "comparação " + node.kind + " entre " + type);
+    }
+
+    private StrExpr strExpr(AST node) {
+        switch (node.kind) {
+            case STR_VAL_NODE: {
+                String v = node.text;
+                return f -> v;
+            }
+            case ID_NODE: {
+                int slot = node.getSlot();
+                Frame g = globals;
+                if (node.getScopeDepth() == ScopeResolver.GLOBAL) return f -> (String) g.refs[slot];
+                return f -> (String) f.refs[slot];
+            }
+            case PLUS_NODE: {
+                StrExpr l = strExpr(node.getChild(0)), r = strExpr(node.getChild(1));
+                return f -> l.eval(f).concat(r.eval(f));
+            }
+            case INDEX_NODE: {
+                SliceExpr s = sliceExpr(node.getChild(0));
+                IntExpr i = intExpr(node.getChild(1));
+                return f -> ((StringSlice) s.eval(f)).get(i.eval(f));
+            }
+            case CALL_NODE: {
+                Call call = call(node);
+                return f -> (String) call.call(f).retRef;
+            }
+            default:
+                throw unsupported(node, "expressão string " + node.kind);
+        }
+    }
+
+    private SliceExpr sliceExpr(AST node) {
+        switch (node.kind) {
+            case ID_NODE: {
+                int slot = node.getSlot();
+                Frame g = globals;
+                if (node.getScopeDepth() == ScopeResolver.GLOBAL) return f -> (Slice) g.refs[slot];
+                return f -> (Slice) f.refs[slot];
+            }
+            case COMPOSITE_LITERAL_NODE:
+                return sliceLiteral(node);
+            case CALL_NODE: {
+                if (node.getBuiltin() == BuiltinFunction.APPEND) return append(node);
+                Call call = call(node);
+                return f -> (Slice) call.call(f).retRef;
+            }
+            default:
+                throw unsupported(node, "expressão slice " + node.kind);
+        }
+    }
+
+    // []T{...}: cada avaliação cria um array de apoio novo
+    private SliceExpr sliceLiteral(AST node) {
+        AST elements = node.getChild(0);
+        int count = elements.getChildCount();
+        GoType elementType = node.getAnnotatedType().getElementType();
+
+        if (elementType == GoType.INT) {
+            IntExpr[] es = new IntExpr[count];
+            for (int i = 0; i < count; i++) es[i] = intExpr(elements.getChild(i));
+            return f -> {
+                int[] values = new int[count];
+                for (int i = 0; i < count; i++) values[i] = es[i].eval(f);
+                return IntSlice.of(values);
+            };
+        } else if (elementType == GoType.FLOAT64) {
+            FloatExpr[] es = new FloatExpr[count];
+            for (int i = 0; i < count; i++) es[i] = floatExpr(elements.getChild(i));
+            return f -> {
+                float[] values = new float[count];
+                for (int i = 0; i < count; i++) values[i] = es[i].eval(f);
+                return FloatSlice.of(values);
+            };
+        } else if (elementType == GoType.BOOL) {
+            BoolExpr[] es = new BoolExpr[count];
+            for (int i = 0; i < count; i++) es[i] = boolExpr(elements.getChild(i));
+            return f -> {
+                boolean[] values = new boolean[count];
+                for (int i = 0; i < count; i++) values[i] = es[i].eval(f);
+                return BoolSlice.of(values);
+            };
+        } else if (elementType == GoType.STRING) {
+            StrExpr[] es = new StrExpr[count];
+            for (int i = 0; i < count; i++) es[i] = strExpr(elements.getChild(i));
+            return f -> {
+                String[] values = new String[count];
+                for (int i = 0; i < count; i++) values[i] = es[i].eval(f);
+                return StringSlice.of(values);
+            };
+        }
+        throw unsupported(node, "slice de " + elementType);
+    }
+
+    // append(s, x1, x2, ...): cada elemento é anexado ao resultado do anterior
+    private SliceExpr append(AST node) {
+        SliceExpr result = sliceExpr(node.getChild(1));
+        GoType elementType = node.getAnnotatedType().getElementType();
+        for (int k = 2; k < node.getChildCount(); k++) {
+            SliceExpr s = result;
+            AST arg = node.getChild(k);
+            if (elementType == GoType.INT) {
+                IntExpr e = intExpr(arg);
+                result = f -> ((IntSlice) s.eval(f)).append(e.eval(f));
+            } else if (elementType == GoType.FLOAT64) {
+                FloatExpr e = floatExpr(arg);
+                result = f -> ((FloatSlice) s.eval(f)).append(e.eval(f));
+            } else if (elementType == GoType.BOOL) {
+                BoolExpr e = boolExpr(arg);
+                result = f -> ((BoolSlice) s.eval(f)).append(e.eval(f));
+            } else if (elementType == GoType.STRING) {
+                StrExpr e = strExpr(arg);
+                result = f -> ((StringSlice) s.eval(f)).append(e.eval(f));
+            } else {
+                throw unsupported(node, "append em slice de " + elementType);
+            }
+        }
+        return result;
+    }
+
+    // len(s) de um slice, ou o tamanho em bytes (UTF-8) de uma string
+    private IntExpr len(AST arg) {
+        if (typeOf(arg) == GoType.STRING) {
+            StrExpr e = strExpr(arg);
+            return f -> e.eval(f).getBytes(StandardCharsets.UTF_8).length;
+        }
+        SliceExpr e = sliceExpr(arg);
+        return f -> e.eval(f).len();
+    }
+
+    // Texto de um valor como o println do GoInterpreter o imprime.
+    private StrExpr show(AST node) {
+        GoType type = typeOf(node);
+        if (type == GoType.INT) { IntExpr e = intExpr(node); return f -> Integer.toString(e.eval(f)); }
+        if (type == GoType.FLOAT64) { FloatExpr e = floatExpr(node); return f -> Float.toString(e.eval(f)); }
+        if (type == GoType.BOOL) { BoolExpr e = boolExpr(node); return f -> e.eval(f) ? "true" : "false"; }
+        if (type == GoType.STRING) return strExpr(node);
+        if (type.isArray()) { SliceExpr e = sliceExpr(node); return f -> e.eval(f).toString(); }
+        return f -> "valor desconhecido";
+    }
+
+    // ---------------------------------------------------------------
+    // Chamadas
+    // ---------------------------------------------------------------
+
+    private Call call(AST node) {
+        String name = node.getChild(0).text;
+        Function fn = functions.get(name);
+        if (fn == null) {
+            throw unsupported(node, "chamada a função não definida '" + name + "'");
+        }
+
+        ArgCopy[] args = new ArgCopy[node.getChildCount() - 1];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = argCopy(node.getChild(i + 1), fn.paramTypes[i], i);
+        }
+
+        // fn.body é lido a cada chamada: em funções recursivas ele ainda está sendo
+        // compilado quando a chamada é ligada.
+        return caller -> {
+            Frame callee = new Frame(fn.frameSize);
+            for (ArgCopy arg : args) {
+                arg.copy(caller, callee);
+            }
+            fn.body.exec(callee);
+            return callee;
+        };
+    }
+
+    private boolean isSelfTailCall(AST node) {
+        return currentFunction != null && node.kind == NodeKind.CALL_NODE && node.isTailCall()
+                && node.getChild(0).text.equals(currentFunction.name);
+    }
+
+    // Chamada da função a si mesma em posição de cauda: em vez de um frame novo, os
+    // argumentos vão para os parâmetros do frame atual e o corpo roda de novo (ver
+    // compileProgram). Todos os argumentos são avaliados antes de o primeiro parâmetro
+    // ser sobrescrito, num frame auxiliar do tamanho da lista de parâmetros.
+    private Stmt selfTailCall(AST node) {
+        Function fn = currentFunction;
+        int argc = node.getChildCount() - 1;
+        ArgCopy[] args = new ArgCopy[argc];
+        for (int i = 0; i < argc; i++) {
+            args[i] = argCopy(node.getChild(i + 1), fn.paramTypes[i], i);
+        }
+        return f -> {
+            Frame next = new Frame(argc);
+            for (ArgCopy arg : args) {
+                arg.copy(f, next);
+            }
+            System.arraycopy(next.prims, 0, f.prims, 0, argc);
+            System.arraycopy(next.refs, 0, f.refs, 0, argc);
+            return TAIL_CALL;
+        };
+    }
+
+    private static boolean hasSelfTailCall(AST node, String funcName) {
+        if (node.kind == NodeKind.CALL_NODE && node.isTailCall() && node.getChild(0).text.equals(funcName)) {
+            return true;
+        }
+        for (AST child : node.getChildren()) {
+            if (child != null && hasSelfTailCall(child, funcName)) return true;
+        }
+        return false;
+    }
+
+    private ArgCopy argCopy(AST expr, GoType paramType, int slot) {
+        if (paramType == GoType.INT) {
+            IntExpr e = intExpr(expr);
+            return (caller, callee) -> callee.prims[slot] = e.eval(caller);
+        } else if (paramType == GoType.FLOAT64) {
+            FloatExpr e = floatExpr(expr);
+            return (caller, callee) -> callee.prims[slot] = Float.floatToRawIntBits(e.eval(caller));
+        } else if (paramType == GoType.BOOL) {
+            BoolExpr e = boolExpr(expr);
+            return (caller, callee) -> callee.prims[slot] = e.eval(caller) ? 1L : 0L;
+        } else if (paramType == GoType.STRING) {
+            StrExpr e = strExpr(expr);
+            return (caller, callee) -> callee.refs[slot] = e.eval(caller);
+        } else if (paramType.isArray()) {
+            SliceExpr e = sliceExpr(expr);
+            return (caller, callee) -> callee.refs[slot] = e.eval(caller);
+        }
+        throw unsupported(expr, "parâmetro do tipo " + paramType);
+    }
+
+    private Stmt println(AST node) {
+        StrExpr[] parts = new StrExpr[node.getChildCount() - 1];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = show(node.getChild(i + 1));
+        }
+        return f -> {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) line.append(' ');
+                line.append(parts[i].eval(f));
+            }
+            System.out.println(line);
+            return NORMAL;
+        };
+    }
+
+    // scanln lê um token por argumento e devolve quantas leituras deram certo.
+    private IntExpr scanln(AST node) {
+        int count = node.getChildCount() - 1;
+        GoType[] types = new GoType[count];
+        int[] slots = new int[count];
+        boolean[] isGlobal = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            AST arg = node.getChild(i + 1);
+            // Como no interpretador, o erro de um argumento que não é variável só aparece na
+            // execução; o tipo nulo marca o argumento
+            if (arg.kind != NodeKind.ID_NODE) continue;
+            types[i] = arg.getAnnotatedType();
+            slots[i] = arg.getSlot();
+            isGlobal[i] = arg.getScopeDepth() == ScopeResolver.GLOBAL;
+        }
+        Frame g = globals;
+        Scanner in = scanner;
+
+        return f -> {
+            int successfulScans = 0;
+            for (int i = 0; i < count; i++) {
+                if (types[i] == null) {
+                    System.err.println("Erro de execução: argumento para scanln deve ser uma variável.");
+                    continue;
+                }
+                if (!in.hasNext()) continue;
+                String input = in.next();
+                Frame target = isGlobal[i] ? g : f;
+                try {
+                    if (types[i] == GoType.INT) {
+                        target.prims[slots[i]] = Integer.parseInt(input);
+                    } else if (types[i] == GoType.FLOAT64) {
+                        target.prims[slots[i]] = Float.floatToRawIntBits(Float.parseFloat(input));
+                    } else if (types[i] == GoType.BOOL) {
+                        target.prims[slots[i]] = Boolean.parseBoolean(input) ? 1L : 0L;
+                    } else if (types[i] == GoType.STRING) {
+                        target.refs[slots[i]] = input;
+                    }
+                    successfulScans++;
+                } catch (NumberFormatException e) {
+                    System.err.println("Erro de execução: entrada '" + e.getMessage() + "' não corresponde ao tipo esperado " + types[i]);
+                }
+            }
+            // Consome o resto da linha (comportamento do Scanln)
+            if (in.hasNextLine()) {
+                in.nextLine();
+            }
+            return successfulScans;
+        };
+    }
+
+    private static UnsupportedOperationException unsupported(AST node, String what) {
+        return new UnsupportedOperationException(
+                "Linha " + node.line + ": construção não suportada pelo motor de closures: " + what);
+    }
+}
@@ -0,0 +1,47 @@
+package compiler.exec;
+
+import compiler.ast.AST;
+import compiler.interpreter.RuntimePanic;
+import compiler.interpreter.ScopeResolver;
+import java.util.Scanner;
+
+/**
+ * Motor de execução alternativo ao GoInterpreter: em vez de percorrer a AST a cada
+ * execução, compila-a uma vez numa árvore de closures (ver ClosureCompiler) e executa
+ * essa árvore. A saída é a mesma do GoInterpreter.
+ */
+public class ClosureInterpreter {
+
+    private final Scanner scanner;
+
+    public ClosureInterpreter() {
+        this.scanner = new Scanner(System.in);
+    }
+
+    public void execute(AST root) {
+        if (root == null) return;
+        try {
+            // Fase 0: Resolver cada variável para um endereço (depth, slot)
+            new ScopeResolver().resolve(root);
+            Frame globals = new Frame(root.getFrameSize());
+
+            // Fase 1: Compilar o programa numa árvore de closures
+            ClosureCompiler compiler = new ClosureCompiler(globals, scanner);
+            Nodes.Stmt init = compiler.compileProgram(root);
+
+            // Fase 2: Inicializar as globais e executar a função 'main'
+            init.exec(globals);
+            ClosureCompiler.Function main = compiler.getFunction("main");
+            if (main != null) {
+                main.body.exec(new Frame(main.frameSize));
+            } else {
+                System.err.println("Erro de execução: função 'main' não definida.");
+            }
+        } catch (RuntimePanic e) {
+            System.err.println("Erro de execução: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Erro durante a execução: " + e.getClass().getSimpleName());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package compiler.exec;
+
+/**
+ * Frame de execução do motor de closures.
+ * Inteiros, floats (como bits) e booleanos ficam crus em prims; strings e slices em refs.
+ * Os slots são os mesmos calculados pelo ScopeResolver, então uma variável ocupa
+ * a mesma posição nos dois arrays e só um deles é usado, conforme o seu tipo.
+ */
+public final class Frame {
+
+    final long[] prims;
+    final Object[] refs;
+
+    // Valor deixado por um 'return' para quem chamou a função
+    long retPrim;
+    Object retRef;
+
+    Frame(int size) {
+        this.prims = new long[size];
+        this.refs = new Object[size];
+    }
+}
@@ -0,0 +1,43 @@
+package compiler.exec;
+
+import compiler.interpreter.Slice;
+
+/**
+ * Tipos dos nós executáveis produzidos pelo ClosureCompiler.
+ * Há uma interface por tipo de resultado, assim cada nó devolve um primitivo
+ * sem boxing e o tipo de cada operação é decidido uma única vez, na compilação.
+ */
+final class Nodes {
+
+    // Como um comando terminou (mesmo papel do Completion do GoInterpreter)
+    static final int NORMAL = 0;
+    static final int BREAK = 1;
+    static final int CONTINUE = 2;
+    static final int RETURN = 3;
+    // Chamada recursiva em cauda: os argumentos já estão nos parâmetros do frame, e o
+    // corpo da função deve rodar de novo nele
+    static final int TAIL_CALL = 4;
+
+    private Nodes() {}
+
+    @FunctionalInterface
+    interface IntExpr { int eval(Frame f); }
+
+    @FunctionalInterface
+    interface FloatExpr { float eval(Frame f); }
+
+    @FunctionalInterface
+    interface BoolExpr { boolean eval(Frame f); }
+
+    @FunctionalInterface
+    interface StrExpr { String eval(Frame f); }
+
+    @FunctionalInterface
+    interface SliceExpr { Slice eval(Frame f); }
+
+    // Executa um comando e devolve NORMAL, BREAK, CONTINUE, RETURN ou TAIL_CALL.
+    @FunctionalInterface
+    interface Stmt { int exec(Frame f); }
+
+    static final Stmt NOOP = f -> NORMAL;
+}
@@ -0,0 +1,49 @@
+package compiler.interpreter;
+
+import java.util.Arrays;
+
+/**
+ * Slice de bool apoiado num boolean[].
+ */
+public final class BoolSlice extends Slice {
+
+    public static final BoolSlice NIL = new BoolSlice(new boolean[0], 0);
+
+    private final boolean[] data;
+
+    private BoolSlice(boolean[] data, int len) {
+        super(len, data.length);
+        this.data = data;
+    }
+
+    /**
+     * Slice com os valores dados (o array passa a ser o array de apoio).
+     */
+    public static BoolSlice of(boolean[] values) {
+        return values.length == 0 ? NIL : new BoolSlice(values, values.length);
+    }
+
+    public boolean get(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    public void set(int index, boolean value) {
+        checkIndex(index);
+        data[index] = value;
+    }
+
+    /**
+     * append(s, value). Se houver capacidade, o novo slice compartilha o array de apoio.
+     */
+    public BoolSlice append(boolean value) {
+        boolean[] target = len < cap ? data : Arrays.copyOf(data, grow(cap));
+        target[len] = value;
+        return new BoolSlice(target, len + 1);
+    }
+
+    @Override
+    protected String elementString(int index) {
+        return data[index] ? "true" : "false";
+    }
+}
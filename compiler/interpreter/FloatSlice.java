@@ -0,0 +1,49 @@
+package compiler.interpreter;
+
+import java.util.Arrays;
+
+/**
+ * Slice de float64 (e float32) apoiado num float[]: o interpretador representa float64 como float Java.
+ */
+public final class FloatSlice extends Slice {
+
+    public static final FloatSlice NIL = new FloatSlice(new float[0], 0);
+
+    private final float[] data;
+
+    private FloatSlice(float[] data, int len) {
+        super(len, data.length);
+        this.data = data;
+    }
+
+    /**
+     * Slice com os valores dados (o array passa a ser o array de apoio).
+     */
+    public static FloatSlice of(float[] values) {
+        return values.length == 0 ? NIL : new FloatSlice(values, values.length);
+    }
+
+    public float get(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    public void set(int index, float value) {
+        checkIndex(index);
+        data[index] = value;
+    }
+
+    /**
+     * append(s, value). Se houver capacidade, o novo slice compartilha o array de apoio.
+     */
+    public FloatSlice append(float value) {
+        float[] target = len < cap ? data : Arrays.copyOf(data, grow(cap));
+        target[len] = value;
+        return new FloatSlice(target, len + 1);
+    }
+
+    @Override
+    protected String elementString(int index) {
+        return Float.toString(data[index]);
+    }
+}
@@ -2,7 +2,9 @@ package compiler.interpreter;
 
 import compiler.ast.AST;
 import compiler.ast.NodeKind;
+import compiler.tables.BuiltinFunction;
 import compiler.typing.GoType;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -11,32 +13,48 @@ import java.util.Scanner;
 
 public class GoInterpreter {
 
-    private final Memory memory;
+    /**
+     * Como o último comando executado terminou. 'break', 'continue' e 'return' só
+     * mudam este campo; blocos param de executar ao ver algo diferente de NORMAL,
+     * laços e chamadas o consomem. Nenhuma exceção é criada no caminho quente.
+     */
+    private enum Completion { NORMAL, BREAK, CONTINUE, RETURN }
+
+    private Memory memory;
     private final OperandStack stack;
     private final Map<String, AST> functionDeclarations;
     private final Scanner scanner;
+    private Completion completion;
+
+    // Chamada em cauda pendente: a função e o frame que invoke() executa no lugar da atual
+    private AST currentFunction;
+    private AST tailCallee;
+    private Object[] tailFrame;
 
     public GoInterpreter() {
-        this.memory = new Memory();
         this.stack = new OperandStack();
         this.functionDeclarations = new HashMap<>();
         this.scanner = new Scanner(System.in);
+        this.completion = Completion.NORMAL;
     }
 
     public void execute(AST root) {
         if (root == null) return;
         try {
+            // Fase 0: Resolver cada variável para um endereço (depth, slot)
+            new ScopeResolver().resolve(root);
+            memory = new Memory(root.getFrameSize());
+
             visit(root); // Fase 1: Registar todas as funções
             AST mainFuncNode = functionDeclarations.get("main");
             if (mainFuncNode != null) {
                 // Fase 2: Executar a função 'main'
-                AST mainCallNode = AST.call(AST.id("main", 0, 0), new ArrayList<>(), 0, 0);
-                visitCallNode(mainCallNode);
+                invoke(mainFuncNode, new Object[mainFuncNode.getFrameSize()]);
             } else {
                 System.err.println("Erro de execução: função 'main' não definida.");
             }
-        } catch (ReturnException e) {
-            System.err.println("Erro de execução: 'return' no escopo global.");
+        } catch (RuntimePanic e) {
+            System.err.println("Erro de execução: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("❌ Erro durante a execução: " + e.getClass().getSimpleName());
             e.printStackTrace();
@@ -83,29 +101,36 @@ public class GoInterpreter {
             case RETURN_NODE:       visitReturnNode(node); break;
             case TYPE_CONV_NODE:    visitTypeConvNode(node); break;
             case INC_DEC_STMT_NODE: visitIncDecStmtNode(node); break;
-            case BREAK_NODE:        throw new BreakException();
-            case CONTINUE_NODE:     throw new ContinueException();
-            default:
-                for (AST child : node.getChildren()) {
-                    visit(child);
-                }
-                break;
+            case INDEX_NODE:        visitIndexNode(node); break;
+            case COMPOSITE_LITERAL_NODE: visitCompositeLiteralNode(node); break;
+            case BREAK_NODE:        completion = Completion.BREAK; break;
+            case CONTINUE_NODE:     completion = Completion.CONTINUE; break;
+            default:                visitStatements(node); break;
         }
     }
 
-    private void visitProgramNode(AST node) { for (AST child : node.getChildren()) visit(child); }
-    private void visitBlockNode(AST node) { for (AST child : node.getChildren()) visit(child); }
+    // Executa os filhos em ordem, parando assim que um deles desviar o fluxo.
+    private void visitStatements(AST node) {
+        for (AST child : node.getChildren()) {
+            visit(child);
+            if (completion != Completion.NORMAL) return;
+        }
+    }
+
+    private void visitProgramNode(AST node) { visitStatements(node); }
+    private void visitBlockNode(AST node) { visitStatements(node); }
     private void visitIntValNode(AST node) { stack.pushInt(node.intData); }
     private void visitRealValNode(AST node) { stack.pushFloat(node.floatData); }
     private void visitBoolValNode(AST node) { stack.pushBool(node.boolData); }
     private void visitStrValNode(AST node) { stack.pushString(node.text); }
     private void visitIdNode(AST node) {
-        Object value = memory.fetch(node.text);
+        Object value = memory.load(node.getScopeDepth(), node.getSlot());
         GoType type = node.getAnnotatedType();
         if (type == GoType.INT) stack.pushInt((Integer) value);
         else if (type == GoType.FLOAT64) stack.pushFloat((Float) value);
         else if (type == GoType.BOOL) stack.pushBool((Boolean) value);
         else if (type == GoType.STRING) stack.pushString((String) value);
+        else if (type.isArray()) stack.pushSlice((Slice) value);
     }
     private void visitConstDeclNode(AST node) { for (AST child : node.getChildren()) visit(child); }
     private void visitConstSpecNode(AST node) {
@@ -118,7 +143,7 @@ public class GoInterpreter {
         if (exprListNode != null) {
             for (int i = 0; i < idNodes.size(); i++) {
                 visit(exprListNode.getChild(i));
-                popAndDeclare(idNodes.get(i).text, idNodes.get(i).getAnnotatedType());
+                popAndStore(idNodes.get(i));
             }
         }
     }
@@ -133,11 +158,11 @@ public class GoInterpreter {
         if (exprListNode != null) {
             for (int i = 0; i < idNodes.size(); i++) {
                 visit(exprListNode.getChild(i));
-                popAndDeclare(idNodes.get(i).text, idNodes.get(i).getAnnotatedType());
+                popAndStore(idNodes.get(i));
             }
         } else {
             for (AST idNode : idNodes) {
-                memory.declare(idNode.text, getZeroValue(idNode.getAnnotatedType()));
+                memory.store(idNode.getScopeDepth(), idNode.getSlot(), getZeroValue(idNode.getAnnotatedType()));
             }
         }
     }
@@ -146,12 +171,76 @@ public class GoInterpreter {
         AST exprListNode = node.getChild(1);
         for (int i = 0; i < idListNode.getChildCount(); i++) {
             visit(exprListNode.getChild(i));
-            popAndDeclare(idListNode.getChild(i).text, idListNode.getChild(i).getAnnotatedType());
+            popAndStore(idListNode.getChild(i));
         }
     }
     private void visitAssignNode(AST node) {
+        AST lvalueNode = node.getChild(0);
+        if (lvalueNode.kind == NodeKind.INDEX_NODE) {
+            visitIndexAssign(lvalueNode, node.getChild(1));
+            return;
+        }
+        visit(node.getChild(1));
+        popAndStore(lvalueNode);
+    }
+    // a[i] = valor: o slice e o índice são avaliados antes do valor, como em Go.
+    private void visitIndexAssign(AST indexNode, AST valueNode) {
+        visit(indexNode.getChild(0));
+        visit(indexNode.getChild(1));
+        visit(valueNode);
+        GoType type = indexNode.getAnnotatedType();
+        if (type == GoType.INT) {
+            int value = stack.popInt();
+            int index = stack.popInt();
+            ((IntSlice) stack.popSlice()).set(index, value);
+        } else if (type == GoType.FLOAT64) {
+            float value = stack.popFloat();
+            int index = stack.popInt();
+            ((FloatSlice) stack.popSlice()).set(index, value);
+        } else if (type == GoType.BOOL) {
+            boolean value = stack.popBool();
+            int index = stack.popInt();
+            ((BoolSlice) stack.popSlice()).set(index, value);
+        } else if (type == GoType.STRING) {
+            String value = stack.popString();
+            int index = stack.popInt();
+            ((StringSlice) stack.popSlice()).set(index, value);
+        }
+    }
+    // a[i]: empilha o elemento sem passar por objetos
+    private void visitIndexNode(AST node) {
+        visit(node.getChild(0));
         visit(node.getChild(1));
-        popAndUpdate(node.getChild(0).text, node.getChild(0).getAnnotatedType());
+        int index = stack.popInt();
+        Slice slice = stack.popSlice();
+        GoType type = node.getAnnotatedType();
+        if (type == GoType.INT) stack.pushInt(((IntSlice) slice).get(index));
+        else if (type == GoType.FLOAT64) stack.pushFloat(((FloatSlice) slice).get(index));
+        else if (type == GoType.BOOL) stack.pushBool(((BoolSlice) slice).get(index));
+        else if (type == GoType.STRING) stack.pushString(((StringSlice) slice).get(index));
+    }
+    // []T{...}: os elementos vão direto para o array primitivo do slice
+    private void visitCompositeLiteralNode(AST node) {
+        AST elements = node.getChild(0);
+        int count = elements.getChildCount();
+        GoType elementType = node.getAnnotatedType().getElementType();
+        if (elementType == GoType.INT) {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) { visit(elements.getChild(i)); values[i] = stack.popInt(); }
+            stack.pushSlice(IntSlice.of(values));
+        } else if (elementType == GoType.FLOAT64) {
+            float[] values = new float[count];
+            for (int i = 0; i < count; i++) { visit(elements.getChild(i)); values[i] = stack.popFloat(); }
+            stack.pushSlice(FloatSlice.of(values));
+        } else if (elementType == GoType.BOOL) {
+            boolean[] values = new boolean[count];
+            for (int i = 0; i < count; i++) { visit(elements.getChild(i)); values[i] = stack.popBool(); }
+            stack.pushSlice(BoolSlice.of(values));
+        } else if (elementType == GoType.STRING) {
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) { visit(elements.getChild(i)); values[i] = stack.popString(); }
+            stack.pushSlice(StringSlice.of(values));
+        }
     }
 
     private void visitPlusNode(AST node) {
@@ -223,28 +312,32 @@ public class GoInterpreter {
         visit(node.getChild(0));
         visit(node.getChild(1));
         GoType type = node.getChild(0).getAnnotatedType();
-        if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l < r); }
+        if (type == GoType.STRING) { String r = stack.popString(); String l = stack.popString(); stack.pushBool(l.compareTo(r) < 0); }
+        else if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l < r); }
         else { int r = stack.popInt(); int l = stack.popInt(); stack.pushBool(l < r); }
     }
     private void visitGreaterNode(AST node) {
         visit(node.getChild(0));
         visit(node.getChild(1));
         GoType type = node.getChild(0).getAnnotatedType();
-        if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l > r); }
+        if (type == GoType.STRING) { String r = stack.popString(); String l = stack.popString(); stack.pushBool(l.compareTo(r) > 0); }
+        else if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l > r); }
         else { int r = stack.popInt(); int l = stack.popInt(); stack.pushBool(l > r); }
     }
     private void visitLessEqNode(AST node) {
         visit(node.getChild(0));
         visit(node.getChild(1));
         GoType type = node.getChild(0).getAnnotatedType();
-        if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l <= r); }
+        if (type == GoType.STRING) { String r = stack.popString(); String l = stack.popString(); stack.pushBool(l.compareTo(r) <= 0); }
+        else if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l <= r); }
         else { int r = stack.popInt(); int l = stack.popInt(); stack.pushBool(l <= r); }
     }
     private void visitGreaterEqNode(AST node) {
         visit(node.getChild(0));
         visit(node.getChild(1));
         GoType type = node.getChild(0).getAnnotatedType();
-        if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l >= r); }
+        if (type == GoType.STRING) { String r = stack.popString(); String l = stack.popString(); stack.pushBool(l.compareTo(r) >= 0); }
+        else if (type == GoType.FLOAT64) { float r = stack.popFloat(); float l = stack.popFloat(); stack.pushBool(l >= r); }
         else { int r = stack.popInt(); int l = stack.popInt(); stack.pushBool(l >= r); }
     }
     private void visitAndNode(AST node) {
@@ -283,131 +376,43 @@ public class GoInterpreter {
         }
     }
     private void visitForClauseNode(AST node) {
-        memory.enterScope();
+        // O checker sempre gera 4 filhos: init, cond, post e body (os três primeiros podem ser null).
+        // O escopo do laço já foi resolvido pelo ScopeResolver, não há nada a empilhar aqui.
+        if (node.getChildCount() != 4) {
+            System.err.println("Unexpected for clause structure with " + node.getChildCount() + " children");
+            return;
+        }
+        AST init = node.getChild(0);
+        AST cond = node.getChild(1);
+        AST post = node.getChild(2);
+        AST body = node.getChild(3);
 
-        if (node.getChildCount() == 4) {
-            // Identify which child is which based on node types
-            AST init = null, cond = null, post = null, body = null;
-            
-            for (int i = 0; i < node.getChildCount(); i++) {
-                AST child = node.getChild(i);
-                if (child == null) continue;
-                
-                if (child.kind == NodeKind.BLOCK_NODE) {
-                    body = child;
-                } else if (child.kind == NodeKind.LESS_NODE || 
-                          child.kind == NodeKind.GREATER_NODE ||
-                          child.kind == NodeKind.LESS_EQ_NODE ||
-                          child.kind == NodeKind.GREATER_EQ_NODE ||
-                          child.kind == NodeKind.EQUAL_NODE ||
-                          child.kind == NodeKind.NOT_EQUAL_NODE ||
-                          child.kind == NodeKind.ID_NODE) {  // For boolean variables
-                    cond = child;
-                } else if (child.kind == NodeKind.INC_DEC_STMT_NODE) {
-                    post = child;
-                } else if (child.kind == NodeKind.ASSIGN_NODE || 
-                          child.kind == NodeKind.SHORT_VAR_DECL_NODE) {
-                    init = child;
-                }
-            }
-            
-            // Execute init if present
-            if (init != null) {
-                visit(init);
-            }
-            
-            // Execute the for loop
-            while (true) {
-                try {
-                    // Check condition
-                    if (cond != null) {
-                        visit(cond);
-                        boolean conditionResult = stack.popBool();
-                        if (!conditionResult) break;
-                    }
-                    
-                    // Execute body
-                    if (body != null) {
-                        visit(body);
-                    }
-                    
-                    // Execute post increment
-                    if (post != null) {
-                        visit(post);
-                    }
+        if (init != null) {
+            visit(init);
+        }
 
-                } catch (BreakException e) {
-                    break;
-                } catch (ContinueException e) {
-                    if (post != null) {
-                        visit(post);
-                    }
-                }
+        while (true) {
+            if (cond != null) {
+                visit(cond);
+                if (!stack.popBool()) break;
             }
-        } else if (node.getChildCount() == 3) {
-            // Standard case: init, condition, body (no post)
-            AST init = node.getChild(0);
-            AST cond = node.getChild(1);
-            AST body = node.getChild(2);
-            
-            if (init != null) {
-                visit(init);
-            }
-            
-            while (true) {
-                try {
-                    if (cond != null) {
-                        visit(cond);
-                        if (!stack.popBool()) break;
-                    }
-                    visit(body);
-                } catch (BreakException e) {
-                    break;
-                } catch (ContinueException e) {
-                    // No post to execute
-                }
+            visit(body);
+            if (completion == Completion.BREAK) {
+                completion = Completion.NORMAL;
+                break;
             }
-        } else if (node.getChildCount() == 2) {
-            // For loop with only condition: for condition { body }
-            AST cond = node.getChild(0);
-            AST body = node.getChild(1);
-            
-            while (true) {
-                try {
-                    if (cond != null) {
-                        visit(cond);
-                        if (!stack.popBool()) break;
-                    }
-                    visit(body);
-                } catch (BreakException e) {
-                    break;
-                } catch (ContinueException e) {
-                    // No post to execute
-                }
+            if (completion == Completion.RETURN) {
+                return; // O valor de retorno já está na pilha; a chamada o consome.
             }
-        } else if (node.getChildCount() == 1) {
-            // Infinite for loop: for { body }
-            AST body = node.getChild(0);
-            
-            while (true) {
-                try {
-                    visit(body);
-                } catch (BreakException e) {
-                    break;
-                } catch (ContinueException e) {
-                    // No post to execute
-                }
+            completion = Completion.NORMAL; // CONTINUE segue para o post
+            if (post != null) {
+                visit(post);
             }
-        } else {
-            System.err.println("Unexpected for clause structure with " + node.getChildCount() + " children");
         }
-        
-        memory.exitScope();
     }
 
     private void visitForCondNode(AST node) {
-        memory.enterScope();
-        memory.exitScope();
+        // O checker não gera FOR_COND_NODE: laços "while" também usam FOR_CLAUSE_NODE.
     }
 
     private void visitFuncDeclNode(AST node) {
@@ -415,59 +420,67 @@ public class GoInterpreter {
         functionDeclarations.put(funcName, node);
     }
     private void visitCallNode(AST node) {
-        String funcName = node.getChild(0).text;
-        if (isBuiltIn(funcName)) {
-            handleBuiltIn(funcName, node);
+        BuiltinFunction builtin = node.getBuiltin();
+        if (builtin != null) {
+            handleBuiltIn(builtin, node);
             return;
         }
-        AST funcDeclNode = functionDeclarations.get(funcName);
+        // A chamada já foi ligada à declaração pelo ScopeResolver
+        AST funcDeclNode = node.getCallee();
         if (funcDeclNode == null) {
-            System.err.println("Erro de execução: chamada a função não definida '" + funcName + "'");
+            System.err.println("Erro de execução: chamada a função não definida '" + node.getChild(0).text + "'");
             return;
         }
-        for (int i = 1; i < node.getChildCount(); i++) {
+        int argCount = node.getChildCount() - 1;
+        for (int i = 1; i <= argCount; i++) {
             visit(node.getChild(i));
         }
-        List<Object> argValues = new ArrayList<>();
-        for (int i = node.getChildCount() - 1; i >= 1; i--) {
-            GoType argType = node.getChild(i).getAnnotatedType();
-            if (argType == GoType.INT) argValues.add(0, stack.popInt());
-            else if (argType == GoType.FLOAT64) argValues.add(0, stack.popFloat());
-            else if (argType == GoType.BOOL) argValues.add(0, stack.popBool());
-            else if (argType == GoType.STRING) argValues.add(0, stack.popString());
-        }
-        memory.enterScope();
-        AST paramListNode = funcDeclNode.getChild(1);
-        for (int i = 0; i < paramListNode.getChildCount(); i++) {
-            String paramName = paramListNode.getChild(i).getChild(0).text;
-            memory.declare(paramName, argValues.get(i));
-        }
-        AST bodyNode = funcDeclNode.getChild(3);
+        // Os parâmetros ocupam os primeiros slots do frame: os argumentos são
+        // desempilhados do último para o primeiro direto no slot de cada um.
+        // Em cauda, a recursão direta reaproveita o frame atual (os locais são sempre
+        // inicializados na declaração) e a chamada só é feita quando o corpo atual retornar.
+        Object[] calleeFrame = node.isTailCall() && funcDeclNode == currentFunction
+                ? memory.currentFrame() : new Object[funcDeclNode.getFrameSize()];
+        for (int i = argCount; i >= 1; i--) {
+            calleeFrame[i - 1] = popValue(node.getChild(i).getAnnotatedType());
+        }
+        if (node.isTailCall()) {
+            tailCallee = funcDeclNode;
+            tailFrame = calleeFrame;
+            completion = Completion.RETURN;
+            return;
+        }
+        invoke(funcDeclNode, calleeFrame);
+    }
+    // Executa o corpo da função no frame dado. Um 'return' deixa o valor (se houver)
+    // no topo da pilha de operandos. As chamadas em cauda feitas pelo corpo rodam neste
+    // mesmo laço, sem aprofundar a pilha Java.
+    private void invoke(AST funcDeclNode, Object[] calleeFrame) {
+        Object[] callerFrame = memory.enterFrame(calleeFrame);
+        AST callerFunction = currentFunction;
         try {
-            visit(bodyNode);
-        } catch (ReturnException e) {
-            if (e.returnValue != null) {
-                GoType returnType = funcDeclNode.getChild(2).type;
-                if (returnType == GoType.INT) stack.pushInt((Integer) e.returnValue);
-                else if (returnType == GoType.FLOAT64) stack.pushFloat((Float) e.returnValue);
-                else if (returnType == GoType.BOOL) stack.pushBool((Boolean) e.returnValue);
-                else if (returnType == GoType.STRING) stack.pushString((String) e.returnValue);
+            currentFunction = funcDeclNode;
+            visit(funcDeclNode.getChild(3));
+            while (tailCallee != null) {
+                currentFunction = tailCallee;
+                memory.enterFrame(tailFrame);
+                tailCallee = null;
+                tailFrame = null;
+                completion = Completion.NORMAL;
+                visit(currentFunction.getChild(3));
             }
         } finally {
-            memory.exitScope();
+            completion = Completion.NORMAL;
+            currentFunction = callerFunction;
+            memory.exitFrame(callerFrame);
         }
     }
     private void visitReturnNode(AST node) {
-        Object returnValue = null;
+        // O valor de retorno fica na pilha de operandos para quem chamou a função.
         if (node.hasChildren()) {
             visit(node.getChild(0));
-            GoType returnType = node.getChild(0).getAnnotatedType();
-            if (returnType == GoType.INT) returnValue = stack.popInt();
-            else if (returnType == GoType.FLOAT64) returnValue = stack.popFloat();
-            else if (returnType == GoType.BOOL) returnValue = stack.popBool();
-            else if (returnType == GoType.STRING) returnValue = stack.popString();
         }
-        throw new ReturnException(returnValue);
+        completion = Completion.RETURN;
     }
     private void visitTypeConvNode(AST node) {
         // Visit the child expression first to get its value on the stack
@@ -503,120 +516,188 @@ public class GoInterpreter {
      * Processa statements de incremento/decremento (i++, i--)
      */
     private void visitIncDecStmtNode(AST node) {
-        // O primeiro filho é o lvalue (variável)
+        // O primeiro filho é o lvalue (variável ou elemento de slice)
         AST lvalueNode = node.getChild(0);
-        String varName = lvalueNode.text;
         
         // O segundo filho contém o operador (++ ou --)
         AST operatorNode = node.getChild(1);
         boolean isIncrement = "++".equals(operatorNode.text);
+
+        if (lvalueNode.kind == NodeKind.INDEX_NODE) {
+            incDecIndex(lvalueNode, isIncrement ? 1 : -1);
+            return;
+        }
+        int depth = lvalueNode.getScopeDepth();
+        int slot = lvalueNode.getSlot();
         
         // Buscar o valor atual da variável
-        Object currentValue = memory.fetch(varName);
+        Object currentValue = memory.load(depth, slot);
         GoType varType = lvalueNode.getAnnotatedType();
         
         if (varType == GoType.INT) {
             int currentInt = (Integer) currentValue;
             int newValue = isIncrement ? currentInt + 1 : currentInt - 1;
-            memory.update(varName, newValue);
+            memory.store(depth, slot, newValue);
         } else if (varType == GoType.FLOAT64) {
             float currentFloat = (Float) currentValue;
             float newValue = isIncrement ? currentFloat + 1.0f : currentFloat - 1.0f;
-            memory.update(varName, newValue);
+            memory.store(depth, slot, newValue);
         } else {
             System.err.println("Erro: incremento/decremento em tipo não numérico: " + varType);
         }
     }
     
-    private boolean isBuiltIn(String funcName) {
-        return funcName.equals("println") || funcName.equals("scanln");
+    // a[i]++ / a[i]--
+    private void incDecIndex(AST indexNode, int delta) {
+        visit(indexNode.getChild(0));
+        visit(indexNode.getChild(1));
+        int index = stack.popInt();
+        Slice slice = stack.popSlice();
+        GoType type = indexNode.getAnnotatedType();
+        if (type == GoType.INT) {
+            IntSlice ints = (IntSlice) slice;
+            ints.set(index, ints.get(index) + delta);
+        } else if (type == GoType.FLOAT64) {
+            FloatSlice floats = (FloatSlice) slice;
+            floats.set(index, floats.get(index) + delta);
+        } else {
+            System.err.println("Erro: incremento/decremento em tipo não numérico: " + type);
+        }
     }
     
-    private void handleBuiltIn(String funcName, AST callNode) {
-        if ("println".equals(funcName)) {
-            List<Object> valuesToPrint = new ArrayList<>();
-            // Primeiro, visita todos os filhos para empilhar seus valores
-            for (int i = 1; i < callNode.getChildCount(); i++) {
-                visit(callNode.getChild(i));
-            }
-            // Depois, desempilha na ordem correta
-            for (int i = callNode.getChildCount() - 1; i >= 1; i--) {
-                GoType argType = callNode.getChild(i).getAnnotatedType();
-                if (argType == GoType.INT) valuesToPrint.add(0, stack.popInt());
-                else if (argType == GoType.FLOAT64) valuesToPrint.add(0, stack.popFloat());
-                else if (argType == GoType.BOOL) valuesToPrint.add(0, stack.popBool());
-                else if (argType == GoType.STRING) valuesToPrint.add(0, stack.popString());
-                else valuesToPrint.add(0, "valor desconhecido");
-            }
-            for (int i = 0; i < valuesToPrint.size(); i++) {
-                System.out.print(valuesToPrint.get(i));
-                if (i < valuesToPrint.size() - 1) {
-                    System.out.print(" ");
-                }
+    private void handleBuiltIn(BuiltinFunction builtin, AST callNode) {
+        switch (builtin) {
+            case PRINTLN: handlePrintln(callNode); break;
+            case SCANLN:  handleScanln(callNode); break;
+            case LEN:     handleLen(callNode); break;
+            case APPEND:  handleAppend(callNode); break;
+            default:
+                System.err.println("Erro de execução: função nativa '" + builtin.getFunctionName() + "' não suportada pelo interpretador.");
+                break;
+        }
+    }
+    private void handlePrintln(AST callNode) {
+        int argCount = callNode.getChildCount() - 1;
+        Object[] valuesToPrint = new Object[argCount];
+        // Primeiro, visita todos os filhos para empilhar seus valores
+        for (int i = 1; i <= argCount; i++) {
+            visit(callNode.getChild(i));
+        }
+        // Depois, desempilha na ordem inversa
+        for (int i = argCount; i >= 1; i--) {
+            Object value = popValue(callNode.getChild(i).getAnnotatedType());
+            valuesToPrint[i - 1] = value != null ? value : "valor desconhecido";
+        }
+        for (int i = 0; i < argCount; i++) {
+            System.out.print(valuesToPrint[i]);
+            if (i < argCount - 1) {
+                System.out.print(" ");
             }
-            System.out.println();
-        } else if ("scanln".equals(funcName)) {
-            int successfulScans = 0;
-            // Itera sobre os argumentos, que devem ser variáveis
-            for (int i = 1; i < callNode.getChildCount(); i++) {
-                AST argNode = callNode.getChild(i);
+        }
+        System.out.println();
+    }
+    private void handleScanln(AST callNode) {
+        int successfulScans = 0;
+        // Itera sobre os argumentos, que devem ser variáveis
+        for (int i = 1; i < callNode.getChildCount(); i++) {
+            AST argNode = callNode.getChild(i);
 
-                // O argumento para scanln deve ser uma variável (ID_NODE)
-                if (argNode.kind != NodeKind.ID_NODE) {
-                    System.err.println("Erro de execução: argumento para scanln deve ser uma variável.");
-                    continue;
-                }
+            // O argumento para scanln deve ser uma variável (ID_NODE)
+            if (argNode.kind != NodeKind.ID_NODE) {
+                System.err.println("Erro de execução: argumento para scanln deve ser uma variável.");
+                continue;
+            }
 
-                String varName = argNode.text;
-                GoType varType = argNode.getAnnotatedType();
+            int depth = argNode.getScopeDepth();
+            int slot = argNode.getSlot();
+            GoType varType = argNode.getAnnotatedType();
 
-                try {
-                    // Lê a próxima entrada do console (separada por espaço/enter)
-                    if (scanner.hasNext()) {
-                        String input = scanner.next();
-                        
-                        // Converte a string de entrada para o tipo da variável
-                        if (varType == GoType.INT) {
-                            memory.update(varName, Integer.parseInt(input));
-                        } else if (varType == GoType.FLOAT64) {
-                            memory.update(varName, Float.parseFloat(input));
-                        } else if (varType == GoType.BOOL) {
-                            memory.update(varName, Boolean.parseBoolean(input));
-                        } else if (varType == GoType.STRING) {
-                            memory.update(varName, input);
-                        }
-                        successfulScans++;
+            try {
+                // Lê a próxima entrada do console (separada por espaço/enter)
+                if (scanner.hasNext()) {
+                    String input = scanner.next();
+                    
+                    // Converte a string de entrada para o tipo da variável
+                    if (varType == GoType.INT) {
+                        memory.store(depth, slot, Integer.parseInt(input));
+                    } else if (varType == GoType.FLOAT64) {
+                        memory.store(depth, slot, Float.parseFloat(input));
+                    } else if (varType == GoType.BOOL) {
+                        memory.store(depth, slot, Boolean.parseBoolean(input));
+                    } else if (varType == GoType.STRING) {
+                        memory.store(depth, slot, input);
                     }
-                } catch (NumberFormatException e) {
-                    System.err.println("Erro de execução: entrada '" + e.getMessage() + "' não corresponde ao tipo esperado " + varType);
-                    // Em caso de erro, a variável mantém seu valor ou pode-se atribuir um valor zero
+                    successfulScans++;
                 }
+            } catch (NumberFormatException e) {
+                System.err.println("Erro de execução: entrada '" + e.getMessage() + "' não corresponde ao tipo esperado " + varType);
+                // Em caso de erro, a variável mantém seu valor ou pode-se atribuir um valor zero
             }
-             // Consome o resto da linha (comportamento do Scanln)
-            if (scanner.hasNextLine()) {
-                scanner.nextLine();
+        }
+        // Consome o resto da linha (comportamento do Scanln)
+        if (scanner.hasNextLine()) {
+            scanner.nextLine();
+        }
+        // Empilha o número de leituras bem-sucedidas (o valor de retorno de scanln)
+        stack.pushInt(successfulScans);
+    }
+    // len(s) de um slice, ou o tamanho em bytes (UTF-8) de uma string, como em Go
+    private void handleLen(AST callNode) {
+        AST argNode = callNode.getChild(1);
+        visit(argNode);
+        if (argNode.getAnnotatedType() == GoType.STRING) {
+            stack.pushInt(stack.popString().getBytes(StandardCharsets.UTF_8).length);
+        } else {
+            stack.pushInt(stack.popSlice().len());
+        }
+    }
+    // append(s, x1, x2, ...): cada elemento é anexado ao resultado do anterior
+    private void handleAppend(AST callNode) {
+        visit(callNode.getChild(1));
+        GoType elementType = callNode.getAnnotatedType().getElementType();
+        for (int i = 2; i < callNode.getChildCount(); i++) {
+            visit(callNode.getChild(i));
+            if (elementType == GoType.INT) {
+                int value = stack.popInt();
+                stack.pushSlice(((IntSlice) stack.popSlice()).append(value));
+            } else if (elementType == GoType.FLOAT64) {
+                float value = stack.popFloat();
+                stack.pushSlice(((FloatSlice) stack.popSlice()).append(value));
+            } else if (elementType == GoType.BOOL) {
+                boolean value = stack.popBool();
+                stack.pushSlice(((BoolSlice) stack.popSlice()).append(value));
+            } else if (elementType == GoType.STRING) {
+                String value = stack.popString();
+                stack.pushSlice(((StringSlice) stack.popSlice()).append(value));
             }
-            // Empilha o número de leituras bem-sucedidas (o valor de retorno de scanln)
-            stack.pushInt(successfulScans);
         }
     }
-    private void popAndDeclare(String varName, GoType type) {
-        if (type == GoType.INT) memory.declare(varName, stack.popInt());
-        else if (type == GoType.FLOAT64) memory.declare(varName, stack.popFloat());
-        else if (type == GoType.BOOL) memory.declare(varName, stack.popBool());
-        else if (type == GoType.STRING) memory.declare(varName, stack.popString());
+    // Desempilha um valor do tipo dado (null se o tipo não tiver representação na pilha).
+    private Object popValue(GoType type) {
+        if (type == GoType.INT) return stack.popInt();
+        if (type == GoType.FLOAT64) return stack.popFloat();
+        if (type == GoType.BOOL) return stack.popBool();
+        if (type == GoType.STRING) return stack.popString();
+        if (type.isArray()) return stack.popSlice();
+        return null;
     }
-    private void popAndUpdate(String varName, GoType type) {
-        if (type == GoType.INT) memory.update(varName, stack.popInt());
-        else if (type == GoType.FLOAT64) memory.update(varName, stack.popFloat());
-        else if (type == GoType.BOOL) memory.update(varName, stack.popBool());
-        else if (type == GoType.STRING) memory.update(varName, stack.popString());
+    // Desempilha um valor e o grava no slot da variável (declaração ou atribuição).
+    private void popAndStore(AST idNode) {
+        GoType type = idNode.getAnnotatedType();
+        int depth = idNode.getScopeDepth();
+        int slot = idNode.getSlot();
+        if (type == GoType.INT) memory.store(depth, slot, stack.popInt());
+        else if (type == GoType.FLOAT64) memory.store(depth, slot, stack.popFloat());
+        else if (type == GoType.BOOL) memory.store(depth, slot, stack.popBool());
+        else if (type == GoType.STRING) memory.store(depth, slot, stack.popString());
+        else if (type.isArray()) memory.store(depth, slot, stack.popSlice());
     }
     private Object getZeroValue(GoType type) {
         if (type == GoType.INT) return 0;
         if (type == GoType.FLOAT64) return 0.0f;
         if (type == GoType.BOOL) return false;
         if (type == GoType.STRING) return "";
+        if (type.isArray()) return Slice.zero(type);
         return null;
     }
 }
@@ -0,0 +1,49 @@
+package compiler.interpreter;
+
+import java.util.Arrays;
+
+/**
+ * Slice de int apoiado num int[].
+ */
+public final class IntSlice extends Slice {
+
+    public static final IntSlice NIL = new IntSlice(new int[0], 0);
+
+    private final int[] data;
+
+    private IntSlice(int[] data, int len) {
+        super(len, data.length);
+        this.data = data;
+    }
+
+    /**
+     * Slice com os valores dados (o array passa a ser o array de apoio).
+     */
+    public static IntSlice of(int[] values) {
+        return values.length == 0 ? NIL : new IntSlice(values, values.length);
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        data[index] = value;
+    }
+
+    /**
+     * append(s, value). Se houver capacidade, o novo slice compartilha o array de apoio.
+     */
+    public IntSlice append(int value) {
+        int[] target = len < cap ? data : Arrays.copyOf(data, grow(cap));
+        target[len] = value;
+        return new IntSlice(target, len + 1);
+    }
+
+    @Override
+    protected String elementString(int index) {
+        return Integer.toString(data[index]);
+    }
+}
@@ -1,57 +1,50 @@
 package compiler.interpreter;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Stack;
-
+/**
+ * Memória do interpretador organizada em frames planos.
+ * Os endereços (depth, slot) são calculados previamente pelo ScopeResolver, então
+ * cada leitura ou escrita é um acesso direto a um array.
+ */
 public class Memory {
 
-    private final Stack<Map<String, Object>> scopeStack;
+    private final Object[] globals; // Frame global (depth 0)
+    private Object[] frame;         // Frame da função em execução (depth 1)
 
-    public Memory() {
-        this.scopeStack = new Stack<>();
-        enterScope(); // Escopo global
+    public Memory(int globalSize) {
+        this.globals = new Object[globalSize];
+        this.frame = this.globals; // Fora de funções, o frame atual é o global
     }
 
-    public void enterScope() {
-        scopeStack.push(new HashMap<>());
+    public Object load(int depth, int slot) {
+        return depth == ScopeResolver.GLOBAL ? globals[slot] : frame[slot];
     }
 
-    public void exitScope() {
-        if (scopeStack.size() > 1) {
-            scopeStack.pop();
+    public void store(int depth, int slot, Object value) {
+        if (depth == ScopeResolver.GLOBAL) {
+            globals[slot] = value;
+        } else {
+            frame[slot] = value;
         }
     }
 
     /**
-     * Declara uma nova variável no escopo ATUAL. Usado para 'var', ':=', e parâmetros de função.
+     * Torna o frame de uma chamada (já com os argumentos nos slots dos parâmetros)
+     * o frame atual. Devolve o frame do chamador, que deve ser restaurado com exitFrame.
      */
-    public void declare(String name, Object value) {
-        scopeStack.peek().put(name, value);
+    public Object[] enterFrame(Object[] calleeFrame) {
+        Object[] caller = frame;
+        frame = calleeFrame;
+        return caller;
     }
 
-    /**
-     * Atualiza o valor de uma variável existente, procurando do escopo mais interno
-     * para o mais externo. Usado para '='.
-     */
-    public void update(String name, Object value) {
-        for (int i = scopeStack.size() - 1; i >= 0; i--) {
-            Map<String, Object> scope = scopeStack.get(i);
-            if (scope.containsKey(name)) {
-                scope.put(name, value);
-                return;
-            }
-        }
-        // Este caso não deve acontecer se o analisador semântico funcionou.
+    public void exitFrame(Object[] caller) {
+        frame = caller;
     }
 
-    public Object fetch(String name) {
-        for (int i = scopeStack.size() - 1; i >= 0; i--) {
-            Map<String, Object> scope = scopeStack.get(i);
-            if (scope.containsKey(name)) {
-                return scope.get(name);
-            }
-        }
-        return null; 
+    /**
+     * Frame da função em execução; uma chamada em cauda para a mesma função o reaproveita.
+     */
+    public Object[] currentFrame() {
+        return frame;
     }
 }
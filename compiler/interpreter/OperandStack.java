@@ -1,64 +1,147 @@
 package compiler.interpreter;
 
+import java.util.Arrays;
 import java.util.EmptyStackException;
-import java.util.Stack;
 
+/**
+ * Pilha de operandos especializada por tipo primitivo.
+ * Inteiros, floats (como bits) e booleanos ficam crus num long[], e referências
+ * (strings e slices) num Object[] paralelo. Nenhum push/pop de primitivo aloca objetos.
+ * Cada posição guarda também o tipo do valor, e um pop do tipo errado falha com
+ * ClassCastException em vez de ler um valor sem sentido.
+ */
 public class OperandStack {
 
-    private final Stack<Object> stack;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Marcadores de tipo de cada posição
+    private static final byte TAG_INT = 0;
+    private static final byte TAG_FLOAT = 1;
+    private static final byte TAG_BOOL = 2;
+    private static final byte TAG_REF = 3;
+
+    private long[] values;
+    private Object[] refs;
+    private byte[] tags;
+    private int top; // Número de elementos na pilha
 
     public OperandStack() {
-        this.stack = new Stack<>();
+        this.values = new long[INITIAL_CAPACITY];
+        this.refs = new Object[INITIAL_CAPACITY];
+        this.tags = new byte[INITIAL_CAPACITY];
+        this.top = 0;
     }
 
     private void checkEmpty() {
-        if (stack.isEmpty()) {
+        if (top == 0) {
             throw new EmptyStackException();
         }
     }
 
+    private void ensureCapacity() {
+        if (top == values.length) {
+            int newCapacity = values.length * 2;
+            values = Arrays.copyOf(values, newCapacity);
+            refs = Arrays.copyOf(refs, newCapacity);
+            tags = Arrays.copyOf(tags, newCapacity);
+        }
+    }
+
+    private void pushRaw(long value, byte tag) {
+        ensureCapacity();
+        values[top] = value;
+        tags[top] = tag;
+        top++;
+    }
+
+    private void checkTag(byte tag) {
+        checkEmpty();
+        if (tags[top - 1] != tag) {
+            throw new ClassCastException("Operando do tipo " + tagName(tags[top - 1]) + " lido como " + tagName(tag));
+        }
+    }
+
+    private static String tagName(byte tag) {
+        switch (tag) {
+            case TAG_INT:   return "int";
+            case TAG_FLOAT: return "float64";
+            case TAG_BOOL:  return "bool";
+            default:        return "referência";
+        }
+    }
+
+    private long popRaw(byte tag) {
+        checkTag(tag);
+        return values[--top];
+    }
+
     // --- Métodos para Inteiros ---
     public void pushInt(int value) {
-        stack.push(value);
+        pushRaw(value, TAG_INT);
     }
 
     public int popInt() {
-        checkEmpty();
-        return (Integer) stack.pop();
+        return (int) popRaw(TAG_INT);
     }
 
     // --- Métodos para Floats ---
     public void pushFloat(float value) {
-        stack.push(value);
+        pushRaw(Float.floatToRawIntBits(value), TAG_FLOAT);
     }
 
     public float popFloat() {
-        checkEmpty();
-        return (Float) stack.pop();
+        return Float.intBitsToFloat((int) popRaw(TAG_FLOAT));
     }
 
     // --- Métodos para Booleanos ---
     public void pushBool(boolean value) {
-        stack.push(value);
+        pushRaw(value ? 1L : 0L, TAG_BOOL);
     }
 
     public boolean popBool() {
-        checkEmpty();
-        return (Boolean) stack.pop();
+        return popRaw(TAG_BOOL) != 0L;
+    }
+
+    // --- Métodos para referências (strings e slices) ---
+    private void pushRef(Object value) {
+        ensureCapacity();
+        refs[top] = value;
+        tags[top] = TAG_REF;
+        top++;
+    }
+
+    private Object popRef() {
+        checkTag(TAG_REF);
+        top--;
+        Object value = refs[top];
+        refs[top] = null; // Libera a referência para o GC
+        return value;
     }
-    
-    // --- Métodos para Strings ---
+
     public void pushString(String value) {
-        stack.push(value);
+        pushRef(value);
     }
 
     public String popString() {
-        checkEmpty();
-        return (String) stack.pop();
+        return (String) popRef();
+    }
+
+    public void pushSlice(Slice value) {
+        pushRef(value);
     }
-    
+
+    public Slice popSlice() {
+        return (Slice) popRef();
+    }
+
     public Object peek() {
         checkEmpty();
-        return stack.peek();
+        int i = top - 1;
+        switch (tags[i]) {
+            case TAG_INT:   return (int) values[i];
+            case TAG_FLOAT: return Float.intBitsToFloat((int) values[i]);
+            case TAG_BOOL:  return values[i] != 0L;
+            default:        return refs[i];
+        }
     }
 }
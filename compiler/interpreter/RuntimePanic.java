@@ -0,0 +1,17 @@
+package compiler.interpreter;
+
+/**
+ * Erro de execução do programa Go (o equivalente a um panic do runtime),
+ * por exemplo um índice fora dos limites de um slice.
+ * Os motores de execução o reportam como "Erro de execução" sem stack trace Java.
+ */
+public class RuntimePanic extends RuntimeException {
+
+    public RuntimePanic(String message) {
+        super(message);
+    }
+
+    public static RuntimePanic indexOutOfRange(int index, int length) {
+        return new RuntimePanic("index out of range [" + index + "] with length " + length);
+    }
+}
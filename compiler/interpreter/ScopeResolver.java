@@ -0,0 +1,183 @@
+package compiler.interpreter;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import compiler.tables.BuiltinFunction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passo de resolução executado uma única vez antes da interpretação.
+ * Atribui a cada variável um endereço (depth, slot): depth 0 é o frame global e
+ * depth 1 é o frame da função em execução. Assim o interpretador lê e escreve
+ * variáveis por índice, sem procurar nomes em mapas a cada acesso.
+ *
+ * Segue as mesmas regras de escopo do GoSemanticChecker: cada bloco, laço 'for' e
+ * função abre um escopo novo. Slots de escopos já fechados são reaproveitados.
+ *
+ * Também liga cada chamada à declaração da função (ou à função nativa) que ela
+ * invoca, para que o interpretador não procure a função pelo nome a cada chamada.
+ */
+public class ScopeResolver {
+
+    public static final int GLOBAL = 0;
+    public static final int LOCAL = 1;
+
+    // Pilha de escopos (nome -> slot). O índice 0 é sempre o escopo global.
+    private final List<Map<String, Integer>> scopes;
+    private final Map<String, AST> functions; // Declarações de função por nome
+
+    private int functionBase; // Índice do primeiro escopo que pertence ao frame local
+    private int nextSlot;   // Próximo slot livre no frame atual
+    private int maxSlots;   // Maior número de slots usados ao mesmo tempo no frame atual
+
+    public ScopeResolver() {
+        this.scopes = new ArrayList<>();
+        this.functions = new HashMap<>();
+        this.functionBase = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Resolve o programa inteiro. O tamanho do frame global fica em root.getFrameSize()
+     * e o de cada função no respectivo FUNC_DECL_NODE.
+     */
+    public void resolve(AST root) {
+        if (root == null) return;
+        scopes.clear();
+        scopes.add(new HashMap<>());
+        functionBase = Integer.MAX_VALUE;
+        nextSlot = 0;
+        maxSlots = 0;
+        functions.clear();
+        // As funções são registradas antes para que chamadas possam vir antes da declaração
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.hasChildren()) {
+                functions.put(child.getChild(0).text, child);
+            }
+        }
+        for (AST child : root.getChildren()) {
+            resolveNode(child);
+        }
+        root.setFrameSize(maxSlots);
+    }
+
+    private void resolveNode(AST node) {
+        if (node == null) return;
+
+        switch (node.kind) {
+            case FUNC_DECL_NODE:      resolveFuncDecl(node); break;
+            case BLOCK_NODE:
+            case FOR_CLAUSE_NODE:
+                int savedSlot = enterScope();
+                resolveChildren(node);
+                exitScope(savedSlot);
+                break;
+            case VAR_SPEC_NODE:
+            case CONST_SPEC_NODE:
+                // A expressão é resolvida antes de declarar os nomes: em 'var x int = x'
+                // o 'x' da direita ainda é o do escopo externo.
+                for (AST child : node.getChildren()) {
+                    if (child != null && child.kind == NodeKind.EXPR_LIST_NODE) resolveNode(child);
+                }
+                for (AST child : node.getChildren()) {
+                    if (child != null && child.kind == NodeKind.ID_NODE) declare(child);
+                }
+                break;
+            case SHORT_VAR_DECL_NODE:
+                if (node.getChildCount() < 2) break;
+                resolveNode(node.getChild(1));
+                for (AST idNode : node.getChild(0).getChildren()) {
+                    declare(idNode);
+                }
+                break;
+            case CALL_NODE:
+                linkCall(node);
+                // O primeiro filho é o nome da função, não uma variável.
+                for (int i = 1; i < node.getChildCount(); i++) {
+                    resolveNode(node.getChild(i));
+                }
+                break;
+            case INC_DEC_STMT_NODE:
+                // O segundo filho é o operador ("++"/"--") guardado como ID_NODE.
+                resolveNode(node.getChild(0));
+                break;
+            case ID_NODE:             resolveUse(node); break;
+            default:                  resolveChildren(node); break;
+        }
+    }
+
+    private void resolveChildren(AST node) {
+        for (AST child : node.getChildren()) {
+            resolveNode(child);
+        }
+    }
+
+    private void resolveFuncDecl(AST node) {
+        if (node.getChildCount() < 4) return;
+
+        // Guarda o estado do frame global; a função ganha um frame próprio.
+        int savedBase = functionBase;
+        int savedNext = nextSlot;
+        int savedMax = maxSlots;
+        functionBase = scopes.size();
+        nextSlot = 0;
+        maxSlots = 0;
+
+        scopes.add(new HashMap<>());
+        // Os parâmetros ocupam os primeiros slots, na ordem da declaração.
+        for (AST paramNode : node.getChild(1).getChildren()) {
+            declare(paramNode.getChild(0));
+        }
+        resolveNode(node.getChild(3));
+        scopes.remove(scopes.size() - 1);
+
+        node.setFrameSize(maxSlots);
+        functionBase = savedBase;
+        nextSlot = savedNext;
+        maxSlots = savedMax;
+    }
+
+    private void linkCall(AST callNode) {
+        String name = callNode.getChild(0).text;
+        BuiltinFunction builtin = BuiltinFunction.lookup(name);
+        if (builtin != null) {
+            callNode.setBuiltin(builtin);
+        } else {
+            callNode.setCallee(functions.get(name));
+        }
+    }
+
+    private int enterScope() {
+        scopes.add(new HashMap<>());
+        return nextSlot;
+    }
+
+    private void exitScope(int savedSlot) {
+        scopes.remove(scopes.size() - 1);
+        nextSlot = savedSlot; // Os slots do escopo fechado podem ser reutilizados
+    }
+
+    private void declare(AST idNode) {
+        int slot = nextSlot++;
+        maxSlots = Math.max(maxSlots, nextSlot);
+        scopes.get(scopes.size() - 1).put(idNode.text, slot);
+        idNode.setAddress(depthOf(scopes.size() - 1), slot);
+    }
+
+    private int depthOf(int scopeIndex) {
+        return scopeIndex >= functionBase ? LOCAL : GLOBAL;
+    }
+
+    private void resolveUse(AST idNode) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Integer slot = scopes.get(i).get(idNode.text);
+            if (slot != null) {
+                idNode.setAddress(depthOf(i), slot);
+                return;
+            }
+        }
+        // Nome não encontrado: o checker já reportou o erro, o nó fica sem endereço.
+    }
+}
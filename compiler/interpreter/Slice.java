@@ -0,0 +1,62 @@
+package compiler.interpreter;
+
+import compiler.typing.GoType;
+
+/**
+ * Cabeçalho de um slice: o array de apoio, o tamanho e a capacidade.
+ * O cabeçalho é imutável e copiado por valor, como em Go; escritas em elementos
+ * vão para o array de apoio, que é compartilhado entre cópias do mesmo slice.
+ * Cada tipo de elemento tem uma subclasse com um array primitivo próprio, então
+ * ler e escrever elementos nunca cria objetos.
+ */
+public abstract class Slice {
+
+    protected final int len;
+    protected final int cap;
+
+    protected Slice(int len, int cap) {
+        this.len = len;
+        this.cap = cap;
+    }
+
+    public int len() { return len; }
+    public int cap() { return cap; }
+
+    protected final void checkIndex(int index) {
+        if (index < 0 || index >= len) {
+            throw RuntimePanic.indexOutOfRange(index, len);
+        }
+    }
+
+    // Capacidade após um append que não cabe: dobra, como o runtime de Go faz para slices pequenos
+    protected static int grow(int cap) {
+        return cap == 0 ? 4 : cap * 2;
+    }
+
+    /**
+     * Valor zero (nil) de um tipo slice: len e cap 0.
+     */
+    public static Slice zero(GoType sliceType) {
+        switch (sliceType.getElementType()) {
+            case INT:     return IntSlice.NIL;
+            case FLOAT32:
+            case FLOAT64: return FloatSlice.NIL;
+            case BOOL:    return BoolSlice.NIL;
+            case STRING:  return StringSlice.NIL;
+            default:      return null;
+        }
+    }
+
+    protected abstract String elementString(int index);
+
+    // Formato do println de Go: [a b c]
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < len; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(elementString(i));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,49 @@
+package compiler.interpreter;
+
+import java.util.Arrays;
+
+/**
+ * Slice de string apoiado num String[].
+ */
+public final class StringSlice extends Slice {
+
+    public static final StringSlice NIL = new StringSlice(new String[0], 0);
+
+    private final String[] data;
+
+    private StringSlice(String[] data, int len) {
+        super(len, data.length);
+        this.data = data;
+    }
+
+    /**
+     * Slice com os valores dados (o array passa a ser o array de apoio).
+     */
+    public static StringSlice of(String[] values) {
+        return values.length == 0 ? NIL : new StringSlice(values, values.length);
+    }
+
+    public String get(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    public void set(int index, String value) {
+        checkIndex(index);
+        data[index] = value;
+    }
+
+    /**
+     * append(s, value). Se houver capacidade, o novo slice compartilha o array de apoio.
+     */
+    public StringSlice append(String value) {
+        String[] target = len < cap ? data : Arrays.copyOf(data, grow(cap));
+        target[len] = value;
+        return new StringSlice(target, len + 1);
+    }
+
+    @Override
+    protected String elementString(int index) {
+        return data[index];
+    }
+}
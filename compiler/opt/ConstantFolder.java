@@ -0,0 +1,318 @@
+package compiler.opt;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import compiler.typing.GoType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dobra de constantes sobre a AST anotada, executada uma única vez depois do
+ * GoSemanticChecker e antes de qualquer back-end (interpretadores e LLVM).
+ *
+ * Expressões cujos operandos são literais viram um literal só, usos de 'const'
+ * são trocados pelo valor da constante e 'if' com condição constante é
+ * substituído pelo ramo que seria executado (ou removido, se não houver ramo).
+ *
+ * Os valores seguem a semântica do interpretador: int é um int de Java (com
+ * overflow circular). Contas com float64 ficam para o back-end, que as faz na sua
+ * própria precisão (float nos interpretadores, double no LLVM).
+ * Divisão ou resto por zero não são dobrados: cada back-end mantém o seu
+ * comportamento em tempo de execução.
+ *
+ * Os escopos seguem as mesmas regras do ScopeResolver, para que uma variável ou
+ * parâmetro com o mesmo nome de uma constante a esconda.
+ */
+public class ConstantFolder {
+
+    // Pilha de escopos: nome -> literal da constante, ou null para variáveis e parâmetros.
+    private final List<Map<String, AST>> scopes = new ArrayList<>();
+    private int foldedCount;
+
+    /**
+     * Dobra o programa inteiro no próprio lugar e devolve quantos nós foram substituídos.
+     */
+    public int fold(AST root) {
+        if (root == null) return 0;
+        scopes.clear();
+        scopes.add(new HashMap<>());
+        foldedCount = 0;
+        foldChildren(root);
+        return foldedCount;
+    }
+
+    // Devolve o nó que fica no lugar de 'node' (ele mesmo, um literal novo ou um dos
+    // seus filhos); null só para um 'if' que não executa nada.
+    private AST foldNode(AST node) {
+        if (node == null) return null;
+
+        switch (node.kind) {
+            case FUNC_DECL_NODE:
+                if (node.getChildCount() < 4) return node;
+                scopes.add(new HashMap<>());
+                for (AST paramNode : node.getChild(1).getChildren()) {
+                    declare(paramNode.getChild(0).text, null);
+                }
+                node.setChild(3, foldNode(node.getChild(3)));
+                scopes.remove(scopes.size() - 1);
+                return node;
+            case BLOCK_NODE:
+            case FOR_CLAUSE_NODE:
+                scopes.add(new HashMap<>());
+                foldChildren(node);
+                scopes.remove(scopes.size() - 1);
+                return node;
+            case VAR_SPEC_NODE:
+            case CONST_SPEC_NODE:
+                foldSpec(node);
+                return node;
+            case SHORT_VAR_DECL_NODE:
+                if (node.getChildCount() < 2) return node;
+                foldChildren(node.getChild(1));
+                for (AST idNode : node.getChild(0).getChildren()) {
+                    declare(idNode.text, null);
+                }
+                return node;
+            case CALL_NODE:
+                // O primeiro filho é o nome da função, não uma variável.
+                for (int i = 1; i < node.getChildCount(); i++) {
+                    node.setChild(i, foldNode(node.getChild(i)));
+                }
+                return node;
+            case INC_DEC_STMT_NODE:
+                // O segundo filho é o operador ("++"/"--") guardado como ID_NODE.
+                node.setChild(0, foldNode(node.getChild(0)));
+                return node;
+            case ID_NODE:
+                AST value = lookup(node.text);
+                return value == null ? node : literal(node, value);
+            case IF_NODE:
+                foldChildren(node);
+                return foldIf(node);
+            default:
+                foldChildren(node);
+                return foldExpression(node);
+        }
+    }
+
+    // Um filho que some (um 'if' sem ramo a executar) é retirado da lista.
+    private void foldChildren(AST node) {
+        for (int i = 0; i < node.getChildCount(); i++) {
+            AST child = node.getChild(i);
+            if (child == null) continue;
+            AST folded = foldNode(child);
+            if (folded == null) {
+                node.removeChild(i--);
+            } else if (folded != child) {
+                node.setChild(i, folded);
+            }
+        }
+    }
+
+    private void foldSpec(AST node) {
+        // A expressão é dobrada antes de declarar os nomes, como no ScopeResolver.
+        AST exprList = null;
+        for (AST child : node.getChildren()) {
+            if (child != null && child.kind == NodeKind.EXPR_LIST_NODE) {
+                foldChildren(child);
+                exprList = child;
+            }
+        }
+        int exprIndex = 0;
+        for (AST child : node.getChildren()) {
+            if (child == null || child.kind != NodeKind.ID_NODE) continue;
+            AST value = null;
+            if (node.kind == NodeKind.CONST_SPEC_NODE && exprList != null && exprIndex < exprList.getChildCount()) {
+                AST expr = exprList.getChild(exprIndex);
+                if (isLiteral(expr)) value = expr;
+            }
+            declare(child.text, value);
+            exprIndex++;
+        }
+    }
+
+    private AST foldIf(AST node) {
+        AST condition = node.getChild(0);
+        if (condition == null || condition.kind != NodeKind.BOOL_VAL_NODE) return node;
+        foldedCount++;
+        // O ramo escolhido continua sendo um BLOCK_NODE (ou o 'if' do else), então o escopo não muda.
+        if (condition.boolData) return node.getChild(1);
+        return node.getChildCount() > 2 ? node.getChild(2) : null;
+    }
+
+    private AST foldExpression(AST node) {
+        switch (node.kind) {
+            case PLUS_NODE:
+            case MINUS_NODE:
+            case TIMES_NODE:
+            case OVER_NODE:
+            case MOD_NODE:
+                return foldArithmetic(node);
+            case EQUAL_NODE:
+            case NOT_EQUAL_NODE:
+            case LESS_NODE:
+            case GREATER_NODE:
+            case LESS_EQ_NODE:
+            case GREATER_EQ_NODE:
+                return foldComparison(node);
+            case AND_NODE:
+            case OR_NODE:
+                return foldLogical(node);
+            case NOT_NODE: {
+                AST operand = node.getChild(0);
+                if (operand.kind != NodeKind.BOOL_VAL_NODE) return node;
+                return literal(node, AST.boolLit(!operand.boolData, node.line, node.column));
+            }
+            case UNARY_MINUS_NODE: {
+                AST operand = node.getChild(0);
+                if (operand.kind == NodeKind.INT_VAL_NODE) return literal(node, AST.intLit(-operand.intData, node.line, node.column));
+                if (operand.kind == NodeKind.REAL_VAL_NODE) return literal(node, AST.realLit(-operand.floatData, node.line, node.column));
+                return node;
+            }
+            case UNARY_PLUS_NODE:
+                foldedCount++;
+                return node.getChild(0);
+            case TYPE_CONV_NODE:
+                return foldConversion(node);
+            default:
+                return node;
+        }
+    }
+
+    // Aritmética de float64 não é dobrada: os interpretadores calculam em float e o LLVM
+    // em double, então nenhum valor dobrado serviria aos dois. Negar e comparar literais
+    // dá o mesmo resultado nas duas precisões e continua sendo dobrado.
+    private AST foldArithmetic(AST node) {
+        AST left = node.getChild(0);
+        AST right = node.getChild(1);
+        if (!isLiteral(left) || left.kind != right.kind) return node;
+
+        switch (left.kind) {
+            case INT_VAL_NODE: {
+                int l = left.intData, r = right.intData;
+                int result;
+                switch (node.kind) {
+                    case PLUS_NODE:  result = l + r; break;
+                    case MINUS_NODE: result = l - r; break;
+                    case TIMES_NODE: result = l * r; break;
+                    case OVER_NODE:  if (r == 0) return node; result = l / r; break;
+                    default:         if (r == 0) return node; result = l % r; break;
+                }
+                return literal(node, AST.intLit(result, node.line, node.column));
+            }
+            case STR_VAL_NODE:
+                if (node.kind != NodeKind.PLUS_NODE) return node;
+                // O texto guarda os escapes ainda crus, e concatená-los continua válido
+                return literal(node, AST.strLit(left.text + right.text, node.line, node.column));
+            default:
+                return node;
+        }
+    }
+
+    private AST foldComparison(AST node) {
+        AST left = node.getChild(0);
+        AST right = node.getChild(1);
+        if (!isLiteral(left) || left.kind != right.kind) return node;
+
+        int order;
+        switch (left.kind) {
+            case INT_VAL_NODE:  order = Integer.compare(left.intData, right.intData); break;
+            case REAL_VAL_NODE:
+                // Comparações com NaN são sempre falsas, o que o compare de Java não reproduz
+                if (Float.isNaN(left.floatData) || Float.isNaN(right.floatData)) return node;
+                order = left.floatData < right.floatData ? -1 : left.floatData > right.floatData ? 1 : 0;
+                break;
+            case BOOL_VAL_NODE:
+            case STR_VAL_NODE: {
+                // Só igualdade é definida para bool e string
+                if (node.kind != NodeKind.EQUAL_NODE && node.kind != NodeKind.NOT_EQUAL_NODE) return node;
+                boolean equal = left.kind == NodeKind.BOOL_VAL_NODE ? left.boolData == right.boolData : left.text.equals(right.text);
+                order = equal ? 0 : 1;
+                break;
+            }
+            default:
+                return node;
+        }
+
+        boolean result;
+        switch (node.kind) {
+            case EQUAL_NODE:     result = order == 0; break;
+            case NOT_EQUAL_NODE: result = order != 0; break;
+            case LESS_NODE:      result = order < 0; break;
+            case GREATER_NODE:   result = order > 0; break;
+            case LESS_EQ_NODE:   result = order <= 0; break;
+            default:             result = order >= 0; break;
+        }
+        return literal(node, AST.boolLit(result, node.line, node.column));
+    }
+
+    // && e || avaliam em curto-circuito: com o operando da esquerda constante o da direita
+    // é o resultado ou nunca é avaliado. Com o da direita constante, o da esquerda só pode
+    // ser descartado quando ele também decide o resultado (x && true, x || false).
+    private AST foldLogical(AST node) {
+        AST left = node.getChild(0);
+        AST right = node.getChild(1);
+        boolean identity = node.kind == NodeKind.AND_NODE; // true && x == x, false || x == x
+
+        if (left.kind == NodeKind.BOOL_VAL_NODE) {
+            foldedCount++;
+            return left.boolData == identity ? right : left;
+        }
+        if (right.kind == NodeKind.BOOL_VAL_NODE && right.boolData == identity) {
+            foldedCount++;
+            return left;
+        }
+        return node;
+    }
+
+    private AST foldConversion(AST node) {
+        AST operand = node.getChild(0);
+        GoType target = node.type;
+        if (operand.kind == NodeKind.INT_VAL_NODE && target == GoType.INT) return literal(node, operand);
+        if (operand.kind == NodeKind.REAL_VAL_NODE && target == GoType.FLOAT64) return literal(node, operand);
+        // As que trocam entre int e float64 (e as para string) ficam para o back-end, pelo
+        // mesmo motivo da aritmética de float64 em foldArithmetic
+        return node;
+    }
+
+    // Literal que substitui 'node': uma cópia de 'value' na posição e com o tipo anotado de 'node'.
+    private AST literal(AST node, AST value) {
+        AST copy;
+        switch (value.kind) {
+            case INT_VAL_NODE:  copy = AST.intLit(value.intData, node.line, node.column); break;
+            case REAL_VAL_NODE: copy = AST.realLit(value.floatData, node.line, node.column); break;
+            case BOOL_VAL_NODE: copy = AST.boolLit(value.boolData, node.line, node.column); break;
+            default:            copy = AST.strLit(value.text, node.line, node.column); break;
+        }
+        copy.setAnnotatedType(node.getAnnotatedType());
+        foldedCount++;
+        return copy;
+    }
+
+    private static boolean isLiteral(AST node) {
+        if (node == null) return false;
+        switch (node.kind) {
+            case INT_VAL_NODE:
+            case REAL_VAL_NODE:
+            case BOOL_VAL_NODE:
+            case STR_VAL_NODE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void declare(String name, AST value) {
+        scopes.get(scopes.size() - 1).put(name, value);
+    }
+
+    private AST lookup(String name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Map<String, AST> scope = scopes.get(i);
+            if (scope.containsKey(name)) return scope.get(name);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package compiler.opt;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Eliminação de código morto sobre a AST anotada, executada depois do ConstantFolder
+ * (um 'if false' já dobrado não mantém viva a função que ele chamaria).
+ *
+ * Remove os statements que vêm depois de um return, break ou continue no mesmo bloco
+ * (ou de um if/else em que os dois ramos desviam) e as funções que não são
+ * alcançáveis a partir de main no grafo de chamadas. As chamadas feitas nos
+ * statements globais (ex.: 'var x = f()') também contam como raízes.
+ */
+public class DeadCodeEliminator {
+
+    private final List<String> removedFunctions = new ArrayList<>();
+    private int removedStatements;
+
+    /**
+     * Remove o código morto do programa no próprio lugar.
+     */
+    public void eliminate(AST root) {
+        removedFunctions.clear();
+        removedStatements = 0;
+        if (root == null) return;
+
+        removeDeadStatements(root);
+        removeUnreachableFunctions(root);
+    }
+
+    public List<String> getRemovedFunctions() {
+        return removedFunctions;
+    }
+
+    public int getRemovedStatements() {
+        return removedStatements;
+    }
+
+    // --- Statements depois de um desvio ---
+
+    private void removeDeadStatements(AST node) {
+        for (AST child : node.getChildren()) {
+            if (child != null) removeDeadStatements(child);
+        }
+        if (node.kind != NodeKind.BLOCK_NODE) return;
+
+        for (int i = 0; i < node.getChildCount() - 1; i++) {
+            if (alwaysJumps(node.getChild(i))) {
+                while (node.getChildCount() > i + 1) {
+                    node.removeChild(node.getChildCount() - 1);
+                    removedStatements++;
+                }
+                break;
+            }
+        }
+    }
+
+    // Se o statement sempre sai do bloco em que está (por return, break ou continue).
+    // Depois de removeDeadStatements, um bloco só pode desviar pelo último statement.
+    private static boolean alwaysJumps(AST node) {
+        if (node == null) return false;
+        switch (node.kind) {
+            case RETURN_NODE:
+            case BREAK_NODE:
+            case CONTINUE_NODE:
+                return true;
+            case BLOCK_NODE:
+                return node.hasChildren() && alwaysJumps(node.getChild(node.getChildCount() - 1));
+            case IF_NODE:
+                return node.getChildCount() > 2 && alwaysJumps(node.getChild(1)) && alwaysJumps(node.getChild(2));
+            default:
+                return false;
+        }
+    }
+
+    // --- Funções fora do grafo de chamadas ---
+
+    private void removeUnreachableFunctions(AST root) {
+        Map<String, AST> functions = new HashMap<>();
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.hasChildren()) {
+                functions.put(child.getChild(0).text, child);
+            }
+        }
+        // Sem main não há ponto de entrada para medir o alcance; nada é removido.
+        if (!functions.containsKey("main")) return;
+
+        Set<String> reachable = new HashSet<>();
+        Deque<AST> pending = new ArrayDeque<>();
+        reachable.add("main");
+        pending.push(functions.get("main"));
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind != NodeKind.FUNC_DECL_NODE) {
+                collectCalls(child, functions, reachable, pending);
+            }
+        }
+        while (!pending.isEmpty()) {
+            collectCalls(pending.pop(), functions, reachable, pending);
+        }
+
+        for (int i = root.getChildCount() - 1; i >= 0; i--) {
+            AST child = root.getChild(i);
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.hasChildren()
+                    && !reachable.contains(child.getChild(0).text)) {
+                root.removeChild(i);
+                removedFunctions.add(0, child.getChild(0).text);
+            }
+        }
+    }
+
+    // Marca como alcançáveis as funções chamadas em 'node' e as enfileira para visitar.
+    private static void collectCalls(AST node, Map<String, AST> functions, Set<String> reachable, Deque<AST> pending) {
+        if (node.kind == NodeKind.CALL_NODE) {
+            String name = node.getChild(0).text;
+            AST callee = functions.get(name);
+            if (callee != null && reachable.add(name)) {
+                pending.push(callee);
+            }
+        }
+        for (AST child : node.getChildren()) {
+            if (child != null) collectCalls(child, functions, reachable, pending);
+        }
+    }
+}
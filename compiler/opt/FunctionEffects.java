@@ -0,0 +1,226 @@
+package compiler.opt;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import compiler.typing.GoType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Análise interprocedural dos efeitos de cada função sobre a memória, feita na AST
+ * já dobrada e sem código morto (a que o back-end vai gerar).
+ *
+ * Uma função não toca memória (NONE) se só trabalha com parâmetros e locais; lê
+ * memória (READS) se lê variáveis globais ou compara strings; escreve (WRITES) se
+ * atribui a globais, faz E/S, aloca (append, literais de slice, concatenação) ou
+ * indexa slices (o acesso fora dos limites imprime o panic e encerra o programa).
+ * O efeito de uma chamada é o da função chamada, propagado pelo grafo de chamadas
+ * até um ponto fixo, então recursão não precisa de tratamento especial.
+ *
+ * Também marca as funções pequenas que não chamam nenhuma função do programa
+ * (folhas), candidatas a serem sempre expandidas no lugar da chamada.
+ */
+public class FunctionEffects {
+
+    public enum Effect { NONE, READS, WRITES }
+
+    // Maior corpo (em nós da AST) de uma função considerada pequena
+    private static final int SMALL_FUNCTION_NODES = 32;
+
+    private final Map<String, Effect> effects = new HashMap<>();
+    private final Map<String, Set<String>> callees = new HashMap<>();
+    private final Map<String, Integer> sizes = new HashMap<>();
+    private final Set<String> globals = new HashSet<>();
+
+    // Estado da função sendo percorrida
+    private final List<Set<String>> scopes = new ArrayList<>();
+    private Effect current;
+    private Set<String> currentCallees;
+    private int currentSize;
+
+    public void analyze(AST root) {
+        effects.clear();
+        callees.clear();
+        sizes.clear();
+        globals.clear();
+        if (root == null) return;
+
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.VAR_DECL_NODE) {
+                for (AST spec : child.getChildren()) {
+                    if (spec == null) continue;
+                    for (AST id : spec.getChildren()) {
+                        if (id != null && id.kind == NodeKind.ID_NODE) globals.add(id.text);
+                    }
+                }
+            }
+        }
+
+        Map<String, AST> functions = new HashMap<>();
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.getChildCount() >= 4) {
+                functions.put(child.getChild(0).text, child);
+            }
+        }
+        for (Map.Entry<String, AST> function : functions.entrySet()) {
+            analyzeFunction(function.getKey(), function.getValue(), functions.keySet());
+        }
+
+        // Ponto fixo: o efeito de uma função inclui o de tudo que ela chama
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, Set<String>> entry : callees.entrySet()) {
+                Effect effect = effects.get(entry.getKey());
+                for (String callee : entry.getValue()) {
+                    effect = max(effect, effects.get(callee));
+                }
+                if (effect != effects.get(entry.getKey())) {
+                    effects.put(entry.getKey(), effect);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Efeito da função sobre a memória; WRITES para funções desconhecidas.
+     */
+    public Effect getEffect(String function) {
+        return effects.getOrDefault(function, Effect.WRITES);
+    }
+
+    /**
+     * Se a função é pequena e não chama nenhuma função do programa.
+     */
+    public boolean isSmallLeaf(String function) {
+        Set<String> called = callees.get(function);
+        return called != null && called.isEmpty() && sizes.get(function) <= SMALL_FUNCTION_NODES;
+    }
+
+    private void analyzeFunction(String name, AST node, Set<String> functionNames) {
+        current = Effect.NONE;
+        currentCallees = new HashSet<>();
+        currentSize = 0;
+        scopes.clear();
+        scopes.add(new HashSet<>());
+        for (AST paramNode : node.getChild(1).getChildren()) {
+            declare(paramNode.getChild(0).text);
+        }
+        visit(node.getChild(3), functionNames);
+
+        effects.put(name, current);
+        callees.put(name, currentCallees);
+        sizes.put(name, currentSize);
+    }
+
+    private void visit(AST node, Set<String> functionNames) {
+        if (node == null) return;
+        currentSize++;
+
+        switch (node.kind) {
+            case BLOCK_NODE:
+            case FOR_CLAUSE_NODE:
+                scopes.add(new HashSet<>());
+                visitChildren(node, functionNames);
+                scopes.remove(scopes.size() - 1);
+                return;
+            case VAR_SPEC_NODE:
+            case CONST_SPEC_NODE:
+                // A expressão é avaliada antes de os nomes existirem, como no ScopeResolver
+                for (AST child : node.getChildren()) {
+                    if (child != null && child.kind != NodeKind.ID_NODE) visit(child, functionNames);
+                }
+                for (AST child : node.getChildren()) {
+                    if (child != null && child.kind == NodeKind.ID_NODE) declare(child.text);
+                }
+                return;
+            case SHORT_VAR_DECL_NODE:
+                if (node.getChildCount() < 2) return;
+                visit(node.getChild(1), functionNames);
+                for (AST idNode : node.getChild(0).getChildren()) {
+                    declare(idNode.text);
+                }
+                return;
+            case ASSIGN_NODE:
+            case INC_DEC_STMT_NODE: {
+                AST target = node.getChild(0);
+                if (target != null && target.kind == NodeKind.ID_NODE && isGlobal(target.text)) {
+                    current = Effect.WRITES;
+                }
+                visitChildren(node, functionNames);
+                return;
+            }
+            case ID_NODE:
+                if (isGlobal(node.text)) current = max(current, Effect.READS);
+                return;
+            case CALL_NODE:
+                visitCall(node, functionNames);
+                return;
+            case INDEX_NODE:
+            case COMPOSITE_LITERAL_NODE:
+                current = Effect.WRITES;
+                break;
+            case PLUS_NODE:
+                if (node.getAnnotatedType() == GoType.STRING) current = Effect.WRITES; // Concatenação aloca
+                break;
+            case EQUAL_NODE:
+            case NOT_EQUAL_NODE:
+            case LESS_NODE:
+            case GREATER_NODE:
+            case LESS_EQ_NODE:
+            case GREATER_EQ_NODE:
+                if (node.getChild(0).getAnnotatedType() == GoType.STRING) current = max(current, Effect.READS);
+                break;
+            default:
+                break;
+        }
+        visitChildren(node, functionNames);
+    }
+
+    private void visitCall(AST node, Set<String> functionNames) {
+        String name = node.getChild(0).text;
+        switch (name) {
+            case "println":
+            case "scanln":
+            case "append":
+                current = Effect.WRITES;
+                break;
+            case "len":
+                break;
+            default:
+                if (functionNames.contains(name)) currentCallees.add(name);
+                else current = Effect.WRITES;
+        }
+        // O primeiro filho é o nome da função, não uma variável.
+        for (int i = 1; i < node.getChildCount(); i++) {
+            visit(node.getChild(i), functionNames);
+        }
+    }
+
+    private void visitChildren(AST node, Set<String> functionNames) {
+        for (AST child : node.getChildren()) {
+            visit(child, functionNames);
+        }
+    }
+
+    private void declare(String name) {
+        scopes.get(scopes.size() - 1).add(name);
+    }
+
+    // Um nome é global se nenhum escopo da função o declara
+    private boolean isGlobal(String name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            if (scopes.get(i).contains(name)) return false;
+        }
+        return globals.contains(name);
+    }
+
+    private static Effect max(Effect a, Effect b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
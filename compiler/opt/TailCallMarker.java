@@ -0,0 +1,103 @@
+package compiler.opt;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import compiler.typing.GoType;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Marca as chamadas a funções do programa que estão em posição de cauda: depois
+ * delas a função que chama só devolve o resultado (ou nada). São elas:
+ *
+ * - o valor de 'return f(...)';
+ * - em funções sem retorno, uma chamada a função void que é o último statement
+ *   executado: no fim do corpo, no fim de um ramo de if que termina o corpo, ou
+ *   logo antes de um 'return' vazio.
+ *
+ * Cada back-end decide o que fazer com a marca: o LLVM transforma a recursão direta
+ * num laço e emite 'tail call' nas outras; o interpretador troca o frame em vez de
+ * empilhar mais uma chamada Java.
+ */
+public class TailCallMarker {
+
+    private final Set<String> functions = new HashSet<>();
+    private int marked;
+
+    /**
+     * Marca as chamadas em posição de cauda e devolve quantas foram marcadas.
+     */
+    public int mark(AST root) {
+        functions.clear();
+        marked = 0;
+        if (root == null) return 0;
+
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.hasChildren()) {
+                functions.add(child.getChild(0).text);
+            }
+        }
+        for (AST child : root.getChildren()) {
+            if (child == null || child.kind != NodeKind.FUNC_DECL_NODE || child.getChildCount() < 4) continue;
+            boolean isVoid = child.getChild(2).type == GoType.VOID;
+            markReturns(child.getChild(3), isVoid);
+            if (isVoid) markTailStatement(child.getChild(3));
+        }
+        return marked;
+    }
+
+    // 'return f(...)' em qualquer ponto do corpo e, em funções void, o statement
+    // que vem logo antes de um 'return' vazio.
+    private void markReturns(AST node, boolean isVoid) {
+        if (node.kind == NodeKind.RETURN_NODE && node.hasChildren()) {
+            markCall(node.getChild(0));
+        }
+        if (isVoid && node.kind == NodeKind.BLOCK_NODE) {
+            int count = node.getChildCount();
+            if (count >= 2 && isEmptyReturn(node.getChild(count - 1))) {
+                markTailStatement(node.getChild(count - 2));
+            }
+        }
+        for (AST child : node.getChildren()) {
+            if (child != null) markReturns(child, isVoid);
+        }
+    }
+
+    // 'stmt' é o último statement executado antes de a função void retornar.
+    private void markTailStatement(AST stmt) {
+        if (stmt == null) return;
+        switch (stmt.kind) {
+            case BLOCK_NODE: {
+                int count = stmt.getChildCount();
+                if (count == 0) return;
+                AST last = stmt.getChild(count - 1);
+                // O 'return' vazio já foi tratado por markReturns
+                if (!isEmptyReturn(last)) markTailStatement(last);
+                break;
+            }
+            case IF_NODE:
+                markTailStatement(stmt.getChild(1));
+                if (stmt.getChildCount() > 2) markTailStatement(stmt.getChild(2));
+                break;
+            case EXPR_STMT_NODE: {
+                AST call = stmt.hasChildren() ? stmt.getChild(0) : null;
+                // Uma chamada com resultado descartado ainda precisaria jogá-lo fora
+                if (call != null && call.getAnnotatedType() == GoType.VOID) markCall(call);
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void markCall(AST node) {
+        if (node == null || node.kind != NodeKind.CALL_NODE || node.isTailCall()) return;
+        if (!functions.contains(node.getChild(0).text)) return;
+        node.setTailCall(true);
+        marked++;
+    }
+
+    private static boolean isEmptyReturn(AST node) {
+        return node != null && node.kind == NodeKind.RETURN_NODE && !node.hasChildren();
+    }
+}
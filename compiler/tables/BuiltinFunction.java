@@ -0,0 +1,35 @@
+package compiler.tables;
+
+/**
+ * Funções nativas da linguagem.
+ * O nome de uma chamada é convertido para esta enum uma única vez, na resolução,
+ * e os interpretadores despacham com um switch em vez de comparar strings.
+ */
+public enum BuiltinFunction {
+    PRINTLN("println"),
+    SCANLN("scanln"),
+    LEN("len"),
+    APPEND("append");
+
+    private final String functionName;
+
+    BuiltinFunction(String functionName) {
+        this.functionName = functionName;
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    /**
+     * Devolve a função nativa com o nome dado, ou null se o nome não for de uma built-in.
+     */
+    public static BuiltinFunction lookup(String name) {
+        for (BuiltinFunction builtin : values()) {
+            if (builtin.functionName.equals(name)) {
+                return builtin;
+            }
+        }
+        return null;
+    }
+}
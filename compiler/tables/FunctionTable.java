@@ -42,6 +42,14 @@ public class FunctionTable {
         addFunction("scanln", scanlnParamNames, scanlnParamTypes, GoType.INT, 0);
         markAsDefined("scanln");
 
+        // Função append (o tipo de retorno é o do slice passado; o checker o define em cada chamada)
+        List<String> appendParamNames = new ArrayList<>();
+        List<GoType> appendParamTypes = new ArrayList<>();
+        appendParamNames.add("slice");
+        appendParamTypes.add(GoType.UNKNOWN);
+        addFunction("append", appendParamNames, appendParamTypes, GoType.UNKNOWN, 0);
+        markAsDefined("append");
+
     }
     
     /**
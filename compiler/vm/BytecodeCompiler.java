@@ -0,0 +1,617 @@
+package compiler.vm;
+
+import compiler.ast.AST;
+import compiler.ast.NodeKind;
+import compiler.interpreter.ScopeResolver;
+import compiler.tables.BuiltinFunction;
+import compiler.typing.GoType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static compiler.vm.Opcode.*;
+
+/**
+ * Traduz a AST anotada pelo checker para o bytecode de registradores da VM.
+ *
+ * As variáveis locais usam os slots do ScopeResolver como registradores; os
+ * temporários de uma expressão vêm logo depois e são liberados ao fim de cada
+ * comando. Variáveis globais são lidas e escritas com GLOAD/GSTORE.
+ */
+final class BytecodeCompiler {
+
+    // Buffer de código da função sendo compilada
+    private int[] code;
+    private int size;
+
+    // Registradores: [0, base) são variáveis locais, [base, nextTemp) temporários
+    private int base;
+    private int nextTemp;
+    private int maxRegs;
+
+    // Listas de desvios a corrigir no fim do laço atual (break) e no post (continue)
+    private final List<List<Integer>> breakPatches = new ArrayList<>();
+    private final List<List<Integer>> continuePatches = new ArrayList<>();
+
+    private String currentFunction; // Nome da função sendo compilada (null no <init>)
+
+    private final Map<String, Integer> functionIndex = new HashMap<>();
+    private final List<VmFunction> functions = new ArrayList<>();
+    private final Map<Float, Integer> floatIndex = new HashMap<>();
+    private final List<Float> floats = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Compila o programa inteiro. O ScopeResolver já precisa ter anotado a AST.
+     */
+    Program compile(AST root) {
+        List<AST> funcDecls = new ArrayList<>();
+        // Registra todas as funções antes, para ligar chamadas a qualquer uma delas
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind == NodeKind.FUNC_DECL_NODE && child.getChildCount() >= 4) {
+                String name = child.getChild(0).text;
+                functionIndex.put(name, functions.size());
+                functions.add(new VmFunction(name, child.getChild(1).getChildCount()));
+                funcDecls.add(child);
+            }
+        }
+
+        for (AST decl : funcDecls) {
+            VmFunction fn = functions.get(functionIndex.get(decl.getChild(0).text));
+            currentFunction = fn.name;
+            beginFunction(decl.getFrameSize());
+            stmt(decl.getChild(3));
+            emit(RETV);
+            endFunction(fn);
+        }
+
+        currentFunction = null;
+        VmFunction init = new VmFunction("<init>", 0);
+        beginFunction(0);
+        for (AST child : root.getChildren()) {
+            if (child != null && child.kind != NodeKind.FUNC_DECL_NODE) stmt(child);
+        }
+        emit(RETV);
+        endFunction(init);
+
+        float[] floatPool = new float[floats.size()];
+        for (int i = 0; i < floatPool.length; i++) floatPool[i] = floats.get(i);
+        Integer main = functionIndex.get("main");
+        return new Program(functions.toArray(new VmFunction[0]), init, main != null ? main : -1,
+                floatPool, strings.toArray(new String[0]), root.getFrameSize());
+    }
+
+    private void beginFunction(int frameSize) {
+        code = new int[64];
+        size = 0;
+        base = frameSize;
+        nextTemp = frameSize;
+        maxRegs = frameSize;
+    }
+
+    private void endFunction(VmFunction fn) {
+        fn.code = Arrays.copyOf(code, size);
+        fn.numRegs = maxRegs;
+    }
+
+    // ---------------------------------------------------------------
+    // Emissão
+    // ---------------------------------------------------------------
+
+    private void emit(int... words) {
+        if (size + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+        }
+        for (int w : words) code[size++] = w;
+    }
+
+    // Emite um desvio com destino ainda desconhecido e devolve a posição a corrigir.
+    private int emitJump(int op, int... operands) {
+        emit(op);
+        emit(operands);
+        emit(-1);
+        return size - 1;
+    }
+
+    private void patch(int at) {
+        code[at] = size;
+    }
+
+    private int temp() {
+        int r = nextTemp++;
+        maxRegs = Math.max(maxRegs, nextTemp);
+        return r;
+    }
+
+    private int floatConst(float value) {
+        return floatIndex.computeIfAbsent(value, v -> { floats.add(v); return floats.size() - 1; });
+    }
+
+    private int stringConst(String value) {
+        return stringIndex.computeIfAbsent(value, v -> { strings.add(v); return strings.size() - 1; });
+    }
+
+    // ---------------------------------------------------------------
+    // Comandos
+    // ---------------------------------------------------------------
+
+    private void stmt(AST node) {
+        if (node == null) return;
+        nextTemp = base; // Temporários não sobrevivem entre comandos
+
+        switch (node.kind) {
+            case VAR_SPEC_NODE:
+            case CONST_SPEC_NODE:       varSpec(node); break;
+            case SHORT_VAR_DECL_NODE:
+                for (int i = 0; i < node.getChild(0).getChildCount(); i++) {
+                    store(node.getChild(0).getChild(i), node.getChild(1).getChild(i));
+                }
+                break;
+            case ASSIGN_NODE:           store(node.getChild(0), node.getChild(1)); break;
+            case EXPR_STMT_NODE:        discard(node.getChild(0)); break;
+            case CALL_NODE:             discard(node); break;
+            case IF_NODE:               ifStmt(node); break;
+            case FOR_CLAUSE_NODE:       forStmt(node); break;
+            case RETURN_NODE:           returnStmt(node); break;
+            case INC_DEC_STMT_NODE:     incDec(node); break;
+            case BREAK_NODE:
+                breakPatches.get(breakPatches.size() - 1).add(emitJump(JMP));
+                break;
+            case CONTINUE_NODE:
+                continuePatches.get(continuePatches.size() - 1).add(emitJump(JMP));
+                break;
+            case FOR_COND_NODE:         break; // O checker não gera este nó
+            default:
+                for (AST child : node.getChildren()) stmt(child);
+                break;
+        }
+    }
+
+    private void varSpec(AST node) {
+        List<AST> idNodes = new ArrayList<>();
+        AST exprListNode = null;
+        for (AST child : node.getChildren()) {
+            if (child.kind == NodeKind.ID_NODE) idNodes.add(child);
+            else if (child.kind == NodeKind.EXPR_LIST_NODE) exprListNode = child;
+        }
+        for (int i = 0; i < idNodes.size(); i++) {
+            nextTemp = base;
+            if (exprListNode != null) {
+                store(idNodes.get(i), exprListNode.getChild(i));
+            } else {
+                storeZero(idNodes.get(i));
+            }
+        }
+    }
+
+    private void store(AST idNode, AST expr) {
+        if (idNode.kind == NodeKind.INDEX_NODE) {
+            storeIndex(idNode, expr);
+            return;
+        }
+        GoType type = idNode.getAnnotatedType();
+        checkValueType(idNode, type);
+        boolean ref = isRef(type);
+        if (isGlobal(idNode)) {
+            int r = expr(expr);
+            emit(ref ? GSTORER : GSTORE, idNode.getSlot(), r);
+        } else {
+            int r = expr(expr);
+            if (r != idNode.getSlot()) emit(ref ? MOVR : MOV, idNode.getSlot(), r);
+        }
+    }
+
+    // a[i] = valor: o slice e o índice são avaliados antes do valor, como em Go.
+    private void storeIndex(AST indexNode, AST expr) {
+        int s = expr(indexNode.getChild(0));
+        int i = expr(indexNode.getChild(1));
+        int v = expr(expr);
+        emit(elementOp(indexNode, IASTORE, FASTORE, BASTORE, SASTORE), s, i, v);
+    }
+
+    private void storeZero(AST idNode) {
+        GoType type = idNode.getAnnotatedType();
+        checkValueType(idNode, type);
+        boolean ref = isRef(type);
+        int r = isGlobal(idNode) ? temp() : idNode.getSlot();
+        if (type.isArray()) emit(NEWSLICE, r, typeTag(idNode, type.getElementType()), 0, 0); // slice nil
+        else if (ref) emit(SCONST, r, stringConst(""));
+        else emit(ICONST, r, 0); // Os bits de 0, 0.0f e false são todos zero
+        if (isGlobal(idNode)) emit(ref ? GSTORER : GSTORE, idNode.getSlot(), r);
+    }
+
+    private void discard(AST expr) {
+        if (expr == null) return;
+        if (expr.kind == NodeKind.CALL_NODE && expr.getBuiltin() == BuiltinFunction.PRINTLN) {
+            println(expr);
+            return;
+        }
+        if (isSelfTailCall(expr)) {
+            // Chamada void no fim de uma função void
+            selfTailCall(expr);
+            return;
+        }
+        expr(expr);
+    }
+
+    private void ifStmt(AST node) {
+        int c = expr(node.getChild(0));
+        int toElse = emitJump(JMPF, c);
+        stmt(node.getChild(1));
+        if (node.getChildCount() > 2 && node.getChild(2) != null) {
+            int toEnd = emitJump(JMP);
+            patch(toElse);
+            stmt(node.getChild(2));
+            patch(toEnd);
+        } else {
+            patch(toElse);
+        }
+    }
+
+    private void forStmt(AST node) {
+        // O checker sempre gera 4 filhos: init, cond, post e body (os três primeiros podem ser null).
+        if (node.getChildCount() != 4) {
+            throw unsupported(node, "laço 'for' com " + node.getChildCount() + " filhos");
+        }
+        stmt(node.getChild(0));
+
+        int top = size;
+        int toEnd = -1;
+        if (node.getChild(1) != null) {
+            nextTemp = base;
+            toEnd = emitJump(JMPF, expr(node.getChild(1)));
+        }
+
+        breakPatches.add(new ArrayList<>());
+        continuePatches.add(new ArrayList<>());
+        stmt(node.getChild(3));
+
+        for (int at : continuePatches.remove(continuePatches.size() - 1)) patch(at);
+        stmt(node.getChild(2));
+        emit(JMP, top);
+
+        if (toEnd >= 0) patch(toEnd);
+        for (int at : breakPatches.remove(breakPatches.size() - 1)) patch(at);
+    }
+
+    private void returnStmt(AST node) {
+        if (!node.hasChildren() || node.getChild(0) == null) {
+            emit(RETV);
+            return;
+        }
+        AST expr = node.getChild(0);
+        if (isSelfTailCall(expr)) {
+            selfTailCall(expr);
+            return;
+        }
+        int r = expr(expr);
+        emit(isRef(typeOf(expr)) ? RETR : RET, r);
+    }
+
+    private boolean isSelfTailCall(AST node) {
+        return currentFunction != null && node.kind == NodeKind.CALL_NODE && node.isTailCall()
+                && node.getChild(0).text.equals(currentFunction);
+    }
+
+    // Chamada da função a si mesma em posição de cauda: os argumentos vão para os
+    // registradores dos parâmetros e a execução volta ao início do código, sem CALL.
+    // Todos são avaliados em temporários antes de o primeiro parâmetro ser sobrescrito.
+    private void selfTailCall(AST node) {
+        int argc = node.getChildCount() - 1;
+        int first = nextTemp;
+        for (int i = 0; i < argc; i++) temp();
+        for (int i = 0; i < argc; i++) exprInto(node.getChild(i + 1), first + i);
+        for (int i = 0; i < argc; i++) {
+            emit(isRef(typeOf(node.getChild(i + 1))) ? MOVR : MOV, i, first + i);
+        }
+        emit(JMP, 0);
+    }
+
+    private void incDec(AST node) {
+        AST lvalue = node.getChild(0);
+        boolean increment = "++".equals(node.getChild(1).text);
+        GoType type = lvalue.getAnnotatedType();
+        if (type != GoType.INT && type != GoType.FLOAT64) {
+            throw unsupported(node, "incremento/decremento em tipo não numérico: " + type);
+        }
+
+        if (lvalue.kind == NodeKind.INDEX_NODE) {
+            // a[i]++: carrega o elemento, soma e grava de volta
+            int s = expr(lvalue.getChild(0));
+            int i = expr(lvalue.getChild(1));
+            int v = temp();
+            emit(elementOp(lvalue, IALOAD, FALOAD, BALOAD, SALOAD), v, s, i);
+            addOne(type, v, increment);
+            emit(elementOp(lvalue, IASTORE, FASTORE, BASTORE, SASTORE), s, i, v);
+            return;
+        }
+
+        int r = lvalue.getSlot();
+        if (isGlobal(lvalue)) {
+            r = temp();
+            emit(GLOAD, r, lvalue.getSlot());
+        }
+        addOne(type, r, increment);
+        if (isGlobal(lvalue)) emit(GSTORE, lvalue.getSlot(), r);
+    }
+
+    private void addOne(GoType type, int r, boolean increment) {
+        if (type == GoType.INT) {
+            emit(IINC, r, increment ? 1 : -1);
+        } else {
+            int one = temp();
+            emit(FCONST, one, floatConst(increment ? 1.0f : -1.0f));
+            emit(FADD, r, r, one);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Expressões
+    // ---------------------------------------------------------------
+
+    // Devolve o registrador com o valor da expressão. Variáveis locais são lidas
+    // diretamente do seu registrador, sem cópia.
+    private int expr(AST node) {
+        if (node.kind == NodeKind.ID_NODE && !isGlobal(node)) {
+            return node.getSlot();
+        }
+        int dst = temp();
+        exprInto(node, dst);
+        return dst;
+    }
+
+    private void exprInto(AST node, int dst) {
+        switch (node.kind) {
+            case INT_VAL_NODE:   emit(ICONST, dst, node.intData); break;
+            case REAL_VAL_NODE:  emit(FCONST, dst, floatConst(node.floatData)); break;
+            case BOOL_VAL_NODE:  emit(ICONST, dst, node.boolData ? 1 : 0); break;
+            case STR_VAL_NODE:   emit(SCONST, dst, stringConst(node.text)); break;
+            case ID_NODE: {
+                boolean ref = isRef(typeOf(node));
+                if (isGlobal(node)) emit(ref ? GLOADR : GLOAD, dst, node.getSlot());
+                else if (dst != node.getSlot()) emit(ref ? MOVR : MOV, dst, node.getSlot());
+                break;
+            }
+            case PLUS_NODE:
+            case MINUS_NODE:
+            case TIMES_NODE:
+            case OVER_NODE:
+            case MOD_NODE:
+                arithmetic(node, dst);
+                break;
+            case EQUAL_NODE:
+            case NOT_EQUAL_NODE:
+            case LESS_NODE:
+            case GREATER_NODE:
+            case LESS_EQ_NODE:
+            case GREATER_EQ_NODE:
+                comparison(node, dst);
+                break;
+            case AND_NODE:
+            case OR_NODE: {
+                // Curto-circuito: o resultado do lado esquerdo decide se o direito é avaliado
+                exprInto(node.getChild(0), dst);
+                int toEnd = emitJump(node.kind == NodeKind.AND_NODE ? JMPF : JMPT, dst);
+                exprInto(node.getChild(1), dst);
+                patch(toEnd);
+                break;
+            }
+            case NOT_NODE:
+                emit(NOT, dst, expr(node.getChild(0)));
+                break;
+            case UNARY_MINUS_NODE:
+                emit(typeOf(node) == GoType.FLOAT64 ? FNEG : INEG, dst, expr(node.getChild(0)));
+                break;
+            case TYPE_CONV_NODE: {
+                AST source = node.getChild(0);
+                GoType from = typeOf(source), to = node.type;
+                if (from == GoType.INT && to == GoType.FLOAT64) emit(I2F, dst, expr(source));
+                else if (from == GoType.FLOAT64 && to == GoType.INT) emit(F2I, dst, expr(source));
+                else exprInto(source, dst);
+                break;
+            }
+            case INDEX_NODE: {
+                int s = expr(node.getChild(0));
+                int i = expr(node.getChild(1));
+                emit(elementOp(node, IALOAD, FALOAD, BALOAD, SALOAD), dst, s, i);
+                break;
+            }
+            case COMPOSITE_LITERAL_NODE: {
+                // Os elementos vão para registradores consecutivos, lidos de uma vez pelo NEWSLICE
+                AST elements = node.getChild(0);
+                int count = elements.getChildCount();
+                int first = nextTemp;
+                for (int i = 0; i < count; i++) temp();
+                for (int i = 0; i < count; i++) exprInto(elements.getChild(i), first + i);
+                emit(NEWSLICE, dst, typeTag(node, node.getAnnotatedType().getElementType()), first, count);
+                break;
+            }
+            case CALL_NODE:
+                call(node, dst);
+                break;
+            default:
+                throw unsupported(node, "expressão " + node.kind);
+        }
+    }
+
+    private void arithmetic(AST node, int dst) {
+        GoType type = typeOf(node);
+        int a = expr(node.getChild(0));
+        int b = expr(node.getChild(1));
+        int op;
+        if (type == GoType.STRING && node.kind == NodeKind.PLUS_NODE) {
+            op = SCONCAT;
+        } else if (type == GoType.FLOAT64) {
+            switch (node.kind) {
+                case PLUS_NODE:  op = FADD; break;
+                case MINUS_NODE: op = FSUB; break;
+                case TIMES_NODE: op = FMUL; break;
+                case OVER_NODE:  op = FDIV; break;
+                default: throw unsupported(node, "operador % em float64");
+            }
+        } else {
+            switch (node.kind) {
+                case PLUS_NODE:  op = IADD; break;
+                case MINUS_NODE: op = ISUB; break;
+                case TIMES_NODE: op = IMUL; break;
+                case OVER_NODE:  op = IDIV; break;
+                default:         op = IMOD; break;
+            }
+        }
+        emit(op, dst, a, b);
+    }
+
+    // O tipo da comparação é o dos operandos, não o do nó (que é sempre bool).
+    private void comparison(AST node, int dst) {
+        GoType type = typeOf(node.getChild(0));
+        int a = expr(node.getChild(0));
+        int b = expr(node.getChild(1));
+        int op;
+        if (type == GoType.STRING) {
+            switch (node.kind) {
+                case EQUAL_NODE:     op = SEQ; break;
+                case NOT_EQUAL_NODE: op = SNE; break;
+                case LESS_NODE:      op = SLT; break;
+                case GREATER_NODE:   op = SGT; break;
+                case LESS_EQ_NODE:   op = SLE; break;
+                default:             op = SGE; break;
+            }
+        } else if (type == GoType.FLOAT64) {
+            switch (node.kind) {
+                case EQUAL_NODE:     op = FEQ; break;
+                case NOT_EQUAL_NODE: op = FNE; break;
+                case LESS_NODE:      op = FLT; break;
+                case GREATER_NODE:   op = FGT; break;
+                case LESS_EQ_NODE:   op = FLE; break;
+                default:             op = FGE; break;
+            }
+        } else {
+            // int e bool (0/1) compartilham as comparações inteiras
+            switch (node.kind) {
+                case EQUAL_NODE:     op = IEQ; break;
+                case NOT_EQUAL_NODE: op = INE; break;
+                case LESS_NODE:      op = ILT; break;
+                case GREATER_NODE:   op = IGT; break;
+                case LESS_EQ_NODE:   op = ILE; break;
+                default:             op = IGE; break;
+            }
+        }
+        emit(op, dst, a, b);
+    }
+
+    private void call(AST node, int dst) {
+        String name = node.getChild(0).text;
+        if (node.getBuiltin() == BuiltinFunction.SCANLN) {
+            scanln(node, dst);
+            return;
+        }
+        if (node.getBuiltin() == BuiltinFunction.LEN) {
+            AST arg = node.getChild(1);
+            emit(typeOf(arg) == GoType.STRING ? SLEN : LEN, dst, expr(arg));
+            return;
+        }
+        if (node.getBuiltin() == BuiltinFunction.APPEND) {
+            // Cada elemento é anexado ao resultado do anterior, acumulado em dst
+            exprInto(node.getChild(1), dst);
+            int op = elementOp(node, IAPPEND, FAPPEND, BAPPEND, SAPPEND);
+            for (int i = 2; i < node.getChildCount(); i++) {
+                emit(op, dst, dst, expr(node.getChild(i)));
+            }
+            return;
+        }
+        Integer fn = functionIndex.get(name);
+        if (fn == null) {
+            throw unsupported(node, "chamada a função não definida '" + name + "'");
+        }
+        // Os argumentos vão para registradores consecutivos, copiados de uma vez pelo CALL
+        int argc = node.getChildCount() - 1;
+        int first = nextTemp;
+        for (int i = 0; i < argc; i++) temp();
+        for (int i = 0; i < argc; i++) exprInto(node.getChild(i + 1), first + i);
+        emit(CALL, dst, fn, first, argc);
+    }
+
+    private void println(AST node) {
+        int count = node.getChildCount() - 1;
+        int first = nextTemp;
+        for (int i = 0; i < count; i++) temp();
+        int[] tags = new int[count];
+        for (int i = 0; i < count; i++) {
+            AST arg = node.getChild(i + 1);
+            tags[i] = typeTag(arg, typeOf(arg));
+            exprInto(arg, first + i);
+        }
+        emit(PRINT, first, count);
+        emit(tags);
+    }
+
+    private void scanln(AST node, int dst) {
+        int count = node.getChildCount() - 1;
+        emit(SCAN, dst, count);
+        for (int i = 0; i < count; i++) {
+            AST arg = node.getChild(i + 1);
+            // Como no interpretador, o erro de um argumento que não é variável só aparece na execução
+            if (arg.kind != NodeKind.ID_NODE) {
+                emit(T_NONE, 0, 0);
+                continue;
+            }
+            emit(typeTag(arg, arg.getAnnotatedType()), isGlobal(arg) ? 1 : 0, arg.getSlot());
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------------
+
+    private static GoType typeOf(AST node) {
+        switch (node.kind) {
+            case INT_VAL_NODE:   return GoType.INT;
+            case REAL_VAL_NODE:  return GoType.FLOAT64;
+            case BOOL_VAL_NODE:  return GoType.BOOL;
+            case STR_VAL_NODE:   return GoType.STRING;
+            case TYPE_CONV_NODE: return node.type;
+            default:             return node.getAnnotatedType();
+        }
+    }
+
+    private static int typeTag(AST node, GoType type) {
+        if (type == GoType.INT) return T_INT;
+        if (type == GoType.FLOAT64) return T_FLOAT;
+        if (type == GoType.BOOL) return T_BOOL;
+        if (type == GoType.STRING) return T_STRING;
+        if (type != null && type.isArray()) return T_SLICE;
+        throw unsupported(node, "valor do tipo " + type);
+    }
+
+    private static void checkValueType(AST node, GoType type) {
+        typeTag(node, type);
+    }
+
+    // Strings e slices ficam no array de referências
+    private static boolean isRef(GoType type) {
+        return type == GoType.STRING || (type != null && type.isArray());
+    }
+
+    // Escolhe a variante da instrução pelo tipo do elemento: o de um INDEX_NODE
+    // é o próprio tipo anotado, o de um append é o elemento do slice resultante.
+    private static int elementOp(AST node, int intOp, int floatOp, int boolOp, int stringOp) {
+        GoType type = node.kind == NodeKind.INDEX_NODE ? node.getAnnotatedType() : node.getAnnotatedType().getElementType();
+        if (type == GoType.INT) return intOp;
+        if (type == GoType.FLOAT64) return floatOp;
+        if (type == GoType.BOOL) return boolOp;
+        if (type == GoType.STRING) return stringOp;
+        throw unsupported(node, "slice de " + type);
+    }
+
+    private static boolean isGlobal(AST idNode) {
+        return idNode.getScopeDepth() == ScopeResolver.GLOBAL;
+    }
+
+    private static UnsupportedOperationException unsupported(AST node, String what) {
+        return new UnsupportedOperationException(
+                "Linha " + node.line + ": construção não suportada pela VM: " + what);
+    }
+}
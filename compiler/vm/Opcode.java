@@ -0,0 +1,109 @@
+package compiler.vm;
+
+/**
+ * Opcodes do bytecode de registradores.
+ * Cada instrução é o opcode seguido dos operandos, tudo no mesmo int[].
+ * 'd' é o registrador de destino, 'a'/'b' são registradores de origem,
+ * 'g' é um slot global e 'L' um endereço absoluto dentro da função.
+ * Floats ficam nos registradores como bits (Float.floatToRawIntBits) e
+ * booleanos como 0/1; strings e slices ficam no array de referências paralelo.
+ */
+final class Opcode {
+
+    private Opcode() {}
+
+    // Constantes e cópias
+    static final int ICONST  = 0;  // d imm          r[d] = imm
+    static final int FCONST  = 1;  // d k            r[d] = floatPool[k]
+    static final int SCONST  = 2;  // d k            o[d] = stringPool[k]
+    static final int MOV     = 3;  // d a            r[d] = r[a]
+    static final int MOVR    = 4;  // d a            o[d] = o[a]
+    static final int GLOAD   = 5;  // d g            r[d] = globals[g]
+    static final int GLOADR  = 6;  // d g            o[d] = globalRefs[g]
+    static final int GSTORE  = 7;  // g a            globals[g] = r[a]
+    static final int GSTORER = 8;  // g a            globalRefs[g] = o[a]
+
+    // Aritmética inteira
+    static final int IADD = 10;    // d a b
+    static final int ISUB = 11;
+    static final int IMUL = 12;
+    static final int IDIV = 13;    // divisão por zero dá 0, como no GoInterpreter
+    static final int IMOD = 14;
+    static final int INEG = 15;    // d a
+    static final int IINC = 16;    // d imm          r[d] += imm
+
+    // Aritmética float
+    static final int FADD = 20;    // d a b
+    static final int FSUB = 21;
+    static final int FMUL = 22;
+    static final int FDIV = 23;
+    static final int FNEG = 24;    // d a
+
+    // Strings
+    static final int SCONCAT = 30; // d a b          o[d] = o[a] + o[b]
+    static final int SEQ     = 31; // d a b          r[d] = o[a].equals(o[b])
+    static final int SNE     = 32;
+    static final int SLT     = 33; // d a b          r[d] = o[a].compareTo(o[b]) < 0
+    static final int SLE     = 34;
+    static final int SGT     = 35;
+    static final int SGE     = 36;
+
+    // Comparações (resultado 0/1 em r[d])
+    static final int IEQ = 40;     // d a b
+    static final int INE = 41;
+    static final int ILT = 42;
+    static final int ILE = 43;
+    static final int IGT = 44;
+    static final int IGE = 45;
+    static final int FEQ = 46;
+    static final int FNE = 47;
+    static final int FLT = 48;
+    static final int FLE = 49;
+    static final int FGT = 50;
+    static final int FGE = 51;
+    static final int NOT = 52;     // d a
+
+    // Conversões
+    static final int I2F = 60;     // d a
+    static final int F2I = 61;     // d a
+
+    // Desvios
+    static final int JMP  = 70;    // L
+    static final int JMPF = 71;    // a L            se r[a] == 0
+    static final int JMPT = 72;    // a L            se r[a] != 0
+
+    // Chamadas e retorno
+    static final int CALL = 80;    // d fn first argc   args em r/o[first .. first+argc)
+    static final int RET  = 81;    // a
+    static final int RETR = 82;    // a
+    static final int RETV = 83;    // (sem operandos)
+
+    // Built-ins
+    static final int PRINT = 90;   // first count tipo_1 .. tipo_count
+    static final int SCAN  = 91;   // d count (tipo global slot)_1 .. (tipo global slot)_count
+    static final int LEN   = 92;   // d a            r[d] = len(o[a]) (slice)
+    static final int SLEN  = 93;   // d a            r[d] = len(o[a]) (bytes UTF-8 da string)
+
+    // Slices (o[a] é o slice, r[i] o índice, v o registrador do valor)
+    static final int NEWSLICE = 100; // d tipo first count   o[d] = []tipo{ r/o[first .. first+count) }
+    static final int IALOAD   = 101; // d a i          r[d] = o[a][r[i]]
+    static final int FALOAD   = 102;
+    static final int BALOAD   = 103;
+    static final int SALOAD   = 104; // d a i          o[d] = o[a][r[i]]
+    static final int IASTORE  = 105; // a i v          o[a][r[i]] = r[v]
+    static final int FASTORE  = 106;
+    static final int BASTORE  = 107;
+    static final int SASTORE  = 108; // a i v          o[a][r[i]] = o[v]
+    static final int IAPPEND  = 109; // d a v          o[d] = append(o[a], r[v])
+    static final int FAPPEND  = 110;
+    static final int BAPPEND  = 111;
+    static final int SAPPEND  = 112; // d a v          o[d] = append(o[a], o[v])
+
+    // Tags de tipo usados por PRINT, SCAN e NEWSLICE
+    static final int T_INT = 0;
+    static final int T_FLOAT = 1;
+    static final int T_BOOL = 2;
+    static final int T_STRING = 3;
+    static final int T_SLICE = 4;  // em PRINT; em SCAN consome o token sem guardar
+    static final int T_NONE = 5;   // só em SCAN: argumento que não é variável
+}
@@ -0,0 +1,26 @@
+package compiler.vm;
+
+/**
+ * Programa compilado: funções, pools de constantes e tamanho do frame global.
+ * É imutável depois de criado pelo BytecodeCompiler, então pode ser guardado e
+ * executado várias vezes sem recompilar.
+ */
+final class Program {
+
+    final VmFunction[] functions;
+    final VmFunction init;      // Inicialização das variáveis globais
+    final int mainIndex;        // -1 se o programa não tem 'main'
+    final float[] floatPool;
+    final String[] stringPool;
+    final int globalCount;
+
+    Program(VmFunction[] functions, VmFunction init, int mainIndex,
+            float[] floatPool, String[] stringPool, int globalCount) {
+        this.functions = functions;
+        this.init = init;
+        this.mainIndex = mainIndex;
+        this.floatPool = floatPool;
+        this.stringPool = stringPool;
+        this.globalCount = globalCount;
+    }
+}
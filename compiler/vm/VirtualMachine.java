@@ -0,0 +1,287 @@
+package compiler.vm;
+
+import compiler.ast.AST;
+import compiler.interpreter.BoolSlice;
+import compiler.interpreter.FloatSlice;
+import compiler.interpreter.IntSlice;
+import compiler.interpreter.RuntimePanic;
+import compiler.interpreter.ScopeResolver;
+import compiler.interpreter.Slice;
+import compiler.interpreter.StringSlice;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+import static compiler.vm.Opcode.*;
+
+/**
+ * Máquina virtual de registradores para o subconjunto de Go.
+ * Compila a AST para bytecode (BytecodeCompiler) e o executa num laço de despacho
+ * sobre um int[] plano. Cada chamada ganha um frame long[] para os valores
+ * primitivos e um Object[] para as strings e os slices.
+ * A saída é a mesma do GoInterpreter.
+ */
+public class VirtualMachine {
+
+    private final Scanner scanner;
+
+    private Program program;
+    private long[] globals;
+    private Object[] globalRefs;
+
+    // Valor devolvido pela última função que executou 'return'
+    private long retPrim;
+    private Object retRef;
+
+    public VirtualMachine() {
+        this.scanner = new Scanner(System.in);
+    }
+
+    public void execute(AST root) {
+        if (root == null) return;
+        try {
+            // Fase 0: Resolver cada variável para um endereço (depth, slot)
+            new ScopeResolver().resolve(root);
+
+            // Fase 1: Gerar o bytecode
+            program = new BytecodeCompiler().compile(root);
+            globals = new long[program.globalCount];
+            globalRefs = new Object[program.globalCount];
+
+            // Fase 2: Inicializar as globais e executar a função 'main'
+            run(program.init, null, null, 0);
+            if (program.mainIndex >= 0) {
+                run(program.functions[program.mainIndex], null, null, 0);
+            } else {
+                System.err.println("Erro de execução: função 'main' não definida.");
+            }
+        } catch (RuntimePanic e) {
+            System.err.println("Erro de execução: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Erro durante a execução: " + e.getClass().getSimpleName());
+            e.printStackTrace();
+        }
+    }
+
+    // Executa uma função. Os argumentos estão em callerR/callerO[first .. first+numParams).
+    private void run(VmFunction fn, long[] callerR, Object[] callerO, int first) {
+        final int[] code = fn.code;
+        final long[] r = new long[fn.numRegs];
+        final Object[] o = new Object[fn.numRegs];
+        if (fn.numParams > 0) {
+            System.arraycopy(callerR, first, r, 0, fn.numParams);
+            System.arraycopy(callerO, first, o, 0, fn.numParams);
+        }
+
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case ICONST:  r[code[pc + 1]] = code[pc + 2]; pc += 3; break;
+                case FCONST:  r[code[pc + 1]] = Float.floatToRawIntBits(program.floatPool[code[pc + 2]]); pc += 3; break;
+                case SCONST:  o[code[pc + 1]] = program.stringPool[code[pc + 2]]; pc += 3; break;
+                case MOV:     r[code[pc + 1]] = r[code[pc + 2]]; pc += 3; break;
+                case MOVR:    o[code[pc + 1]] = o[code[pc + 2]]; pc += 3; break;
+                case GLOAD:   r[code[pc + 1]] = globals[code[pc + 2]]; pc += 3; break;
+                case GLOADR:  o[code[pc + 1]] = globalRefs[code[pc + 2]]; pc += 3; break;
+                case GSTORE:  globals[code[pc + 1]] = r[code[pc + 2]]; pc += 3; break;
+                case GSTORER: globalRefs[code[pc + 1]] = o[code[pc + 2]]; pc += 3; break;
+
+                case IADD: r[code[pc + 1]] = (int) r[code[pc + 2]] + (int) r[code[pc + 3]]; pc += 4; break;
+                case ISUB: r[code[pc + 1]] = (int) r[code[pc + 2]] - (int) r[code[pc + 3]]; pc += 4; break;
+                case IMUL: r[code[pc + 1]] = (int) r[code[pc + 2]] * (int) r[code[pc + 3]]; pc += 4; break;
+                case IDIV: {
+                    int b = (int) r[code[pc + 3]];
+                    r[code[pc + 1]] = b == 0 ? 0 : (int) r[code[pc + 2]] / b;
+                    pc += 4; break;
+                }
+                case IMOD: {
+                    int b = (int) r[code[pc + 3]];
+                    r[code[pc + 1]] = b == 0 ? 0 : (int) r[code[pc + 2]] % b;
+                    pc += 4; break;
+                }
+                case INEG: r[code[pc + 1]] = -(int) r[code[pc + 2]]; pc += 3; break;
+                case IINC: r[code[pc + 1]] = (int) r[code[pc + 1]] + code[pc + 2]; pc += 3; break;
+
+                case FADD: r[code[pc + 1]] = fbits(f(r[code[pc + 2]]) + f(r[code[pc + 3]])); pc += 4; break;
+                case FSUB: r[code[pc + 1]] = fbits(f(r[code[pc + 2]]) - f(r[code[pc + 3]])); pc += 4; break;
+                case FMUL: r[code[pc + 1]] = fbits(f(r[code[pc + 2]]) * f(r[code[pc + 3]])); pc += 4; break;
+                case FDIV: {
+                    float b = f(r[code[pc + 3]]);
+                    r[code[pc + 1]] = fbits(b == 0.0f ? 0.0f : f(r[code[pc + 2]]) / b);
+                    pc += 4; break;
+                }
+                case FNEG: r[code[pc + 1]] = fbits(-f(r[code[pc + 2]])); pc += 3; break;
+
+                case SCONCAT: o[code[pc + 1]] = ((String) o[code[pc + 2]]).concat((String) o[code[pc + 3]]); pc += 4; break;
+                case SEQ: r[code[pc + 1]] = o[code[pc + 2]].equals(o[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case SNE: r[code[pc + 1]] = o[code[pc + 2]].equals(o[code[pc + 3]]) ? 0 : 1; pc += 4; break;
+                case SLT: r[code[pc + 1]] = ((String) o[code[pc + 2]]).compareTo((String) o[code[pc + 3]]) < 0 ? 1 : 0; pc += 4; break;
+                case SLE: r[code[pc + 1]] = ((String) o[code[pc + 2]]).compareTo((String) o[code[pc + 3]]) <= 0 ? 1 : 0; pc += 4; break;
+                case SGT: r[code[pc + 1]] = ((String) o[code[pc + 2]]).compareTo((String) o[code[pc + 3]]) > 0 ? 1 : 0; pc += 4; break;
+                case SGE: r[code[pc + 1]] = ((String) o[code[pc + 2]]).compareTo((String) o[code[pc + 3]]) >= 0 ? 1 : 0; pc += 4; break;
+
+                case IEQ: r[code[pc + 1]] = r[code[pc + 2]] == r[code[pc + 3]] ? 1 : 0; pc += 4; break;
+                case INE: r[code[pc + 1]] = r[code[pc + 2]] != r[code[pc + 3]] ? 1 : 0; pc += 4; break;
+                case ILT: r[code[pc + 1]] = (int) r[code[pc + 2]] < (int) r[code[pc + 3]] ? 1 : 0; pc += 4; break;
+                case ILE: r[code[pc + 1]] = (int) r[code[pc + 2]] <= (int) r[code[pc + 3]] ? 1 : 0; pc += 4; break;
+                case IGT: r[code[pc + 1]] = (int) r[code[pc + 2]] > (int) r[code[pc + 3]] ? 1 : 0; pc += 4; break;
+                case IGE: r[code[pc + 1]] = (int) r[code[pc + 2]] >= (int) r[code[pc + 3]] ? 1 : 0; pc += 4; break;
+                case FEQ: r[code[pc + 1]] = f(r[code[pc + 2]]) == f(r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case FNE: r[code[pc + 1]] = f(r[code[pc + 2]]) != f(r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case FLT: r[code[pc + 1]] = f(r[code[pc + 2]]) < f(r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case FLE: r[code[pc + 1]] = f(r[code[pc + 2]]) <= f(r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case FGT: r[code[pc + 1]] = f(r[code[pc + 2]]) > f(r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case FGE: r[code[pc + 1]] = f(r[code[pc + 2]]) >= f(r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case NOT: r[code[pc + 1]] = r[code[pc + 2]] == 0 ? 1 : 0; pc += 3; break;
+
+                case I2F: r[code[pc + 1]] = fbits((float) (int) r[code[pc + 2]]); pc += 3; break;
+                case F2I: r[code[pc + 1]] = (int) f(r[code[pc + 2]]); pc += 3; break;
+
+                case JMP:  pc = code[pc + 1]; break;
+                case JMPF: pc = r[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3; break;
+                case JMPT: pc = r[code[pc + 1]] != 0 ? code[pc + 2] : pc + 3; break;
+
+                case CALL: {
+                    run(program.functions[code[pc + 2]], r, o, code[pc + 3]);
+                    r[code[pc + 1]] = retPrim;
+                    o[code[pc + 1]] = retRef;
+                    pc += 5; break;
+                }
+                case RET:  retPrim = r[code[pc + 1]]; retRef = null; return;
+                case RETR: retRef = o[code[pc + 1]]; return;
+                case RETV: return;
+
+                case PRINT: pc = print(code, pc, r, o); break;
+                case SCAN:  pc = scan(code, pc, r, o); break;
+                case LEN:   r[code[pc + 1]] = ((Slice) o[code[pc + 2]]).len(); pc += 3; break;
+                case SLEN:  r[code[pc + 1]] = ((String) o[code[pc + 2]]).getBytes(StandardCharsets.UTF_8).length; pc += 3; break;
+
+                case NEWSLICE: pc = newSlice(code, pc, r, o); break;
+                case IALOAD: r[code[pc + 1]] = ((IntSlice) o[code[pc + 2]]).get((int) r[code[pc + 3]]); pc += 4; break;
+                case FALOAD: r[code[pc + 1]] = fbits(((FloatSlice) o[code[pc + 2]]).get((int) r[code[pc + 3]])); pc += 4; break;
+                case BALOAD: r[code[pc + 1]] = ((BoolSlice) o[code[pc + 2]]).get((int) r[code[pc + 3]]) ? 1 : 0; pc += 4; break;
+                case SALOAD: o[code[pc + 1]] = ((StringSlice) o[code[pc + 2]]).get((int) r[code[pc + 3]]); pc += 4; break;
+                case IASTORE: ((IntSlice) o[code[pc + 1]]).set((int) r[code[pc + 2]], (int) r[code[pc + 3]]); pc += 4; break;
+                case FASTORE: ((FloatSlice) o[code[pc + 1]]).set((int) r[code[pc + 2]], f(r[code[pc + 3]])); pc += 4; break;
+                case BASTORE: ((BoolSlice) o[code[pc + 1]]).set((int) r[code[pc + 2]], r[code[pc + 3]] != 0); pc += 4; break;
+                case SASTORE: ((StringSlice) o[code[pc + 1]]).set((int) r[code[pc + 2]], (String) o[code[pc + 3]]); pc += 4; break;
+                case IAPPEND: o[code[pc + 1]] = ((IntSlice) o[code[pc + 2]]).append((int) r[code[pc + 3]]); pc += 4; break;
+                case FAPPEND: o[code[pc + 1]] = ((FloatSlice) o[code[pc + 2]]).append(f(r[code[pc + 3]])); pc += 4; break;
+                case BAPPEND: o[code[pc + 1]] = ((BoolSlice) o[code[pc + 2]]).append(r[code[pc + 3]] != 0); pc += 4; break;
+                case SAPPEND: o[code[pc + 1]] = ((StringSlice) o[code[pc + 2]]).append((String) o[code[pc + 3]]); pc += 4; break;
+
+                default:
+                    throw new IllegalStateException("Opcode inválido " + code[pc] + " em " + fn.name + ":" + pc);
+            }
+        }
+    }
+
+    private static float f(long bits) {
+        return Float.intBitsToFloat((int) bits);
+    }
+
+    private static long fbits(float value) {
+        return Float.floatToRawIntBits(value);
+    }
+
+    // PRINT first count tipo_1 .. tipo_count
+    private int print(int[] code, int pc, long[] r, Object[] o) {
+        int first = code[pc + 1];
+        int count = code[pc + 2];
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) line.append(' ');
+            int reg = first + i;
+            switch (code[pc + 3 + i]) {
+                case T_INT:   line.append((int) r[reg]); break;
+                case T_FLOAT: line.append(Float.toString(f(r[reg]))); break;
+                case T_BOOL:  line.append(r[reg] != 0 ? "true" : "false"); break;
+                default:      line.append(o[reg]); break; // string ou slice
+            }
+        }
+        System.out.println(line);
+        return pc + 3 + count;
+    }
+
+    // NEWSLICE d tipo first count
+    private int newSlice(int[] code, int pc, long[] r, Object[] o) {
+        int first = code[pc + 3];
+        int count = code[pc + 4];
+        Object slice;
+        switch (code[pc + 2]) {
+            case T_INT: {
+                int[] values = new int[count];
+                for (int i = 0; i < count; i++) values[i] = (int) r[first + i];
+                slice = IntSlice.of(values);
+                break;
+            }
+            case T_FLOAT: {
+                float[] values = new float[count];
+                for (int i = 0; i < count; i++) values[i] = f(r[first + i]);
+                slice = FloatSlice.of(values);
+                break;
+            }
+            case T_BOOL: {
+                boolean[] values = new boolean[count];
+                for (int i = 0; i < count; i++) values[i] = r[first + i] != 0;
+                slice = BoolSlice.of(values);
+                break;
+            }
+            default: {
+                String[] values = new String[count];
+                for (int i = 0; i < count; i++) values[i] = (String) o[first + i];
+                slice = StringSlice.of(values);
+                break;
+            }
+        }
+        o[code[pc + 1]] = slice;
+        return pc + 5;
+    }
+
+    // SCAN d count (tipo global slot)_1 .. (tipo global slot)_count
+    private int scan(int[] code, int pc, long[] r, Object[] o) {
+        int dst = code[pc + 1];
+        int count = code[pc + 2];
+        int successfulScans = 0;
+        for (int i = 0; i < count; i++) {
+            int at = pc + 3 + 3 * i;
+            int type = code[at];
+            boolean global = code[at + 1] != 0;
+            int slot = code[at + 2];
+            if (type == T_NONE) {
+                System.err.println("Erro de execução: argumento para scanln deve ser uma variável.");
+                continue;
+            }
+            if (!scanner.hasNext()) continue;
+            String input = scanner.next();
+            long[] prims = global ? globals : r;
+            Object[] refs = global ? globalRefs : o;
+            try {
+                switch (type) {
+                    case T_INT:   prims[slot] = Integer.parseInt(input); break;
+                    case T_FLOAT: prims[slot] = fbits(Float.parseFloat(input)); break;
+                    case T_BOOL:  prims[slot] = Boolean.parseBoolean(input) ? 1 : 0; break;
+                    case T_SLICE: break;
+                    default:      refs[slot] = input; break;
+                }
+                successfulScans++;
+            } catch (NumberFormatException e) {
+                System.err.println("Erro de execução: entrada '" + e.getMessage() + "' não corresponde ao tipo esperado " + typeName(type));
+            }
+        }
+        // Consome o resto da linha (comportamento do Scanln)
+        if (scanner.hasNextLine()) {
+            scanner.nextLine();
+        }
+        r[dst] = successfulScans;
+        return pc + 3 + 3 * count;
+    }
+
+    private static String typeName(int tag) {
+        switch (tag) {
+            case T_INT:   return "int";
+            case T_FLOAT: return "float64";
+            case T_BOOL:  return "bool";
+            default:      return "string";
+        }
+    }
+}
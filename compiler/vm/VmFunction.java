@@ -0,0 +1,19 @@
+package compiler.vm;
+
+/**
+ * Uma função já compilada para bytecode.
+ * Os primeiros registradores são as variáveis locais (na mesma numeração de slots
+ * do ScopeResolver, parâmetros primeiro); os seguintes são temporários.
+ */
+final class VmFunction {
+
+    final String name;
+    final int numParams;
+    int numRegs;
+    int[] code;
+
+    VmFunction(String name, int numParams) {
+        this.name = name;
+        this.numParams = numParams;
+    }
+}
@@ -0,0 +1,104 @@
+#!/bin/bash
+
+# Script para comparar os motores de execução com o interpretador padrão
+# Roda cada .go com o interpretador de árvore e com --closure e --vm, e reporta os
+# arquivos cuja saída do programa difere.
+# Uso: ./test_parity.sh <diretorio_de_testes> [modos...]
+# Exemplo: ./test_parity.sh valid_tests --vm
+
+# --- Validação dos Argumentos de Entrada ---
+if [ -z "$1" ]; then
+    echo "❌ Erro: Por favor, forneça o diretório raiz dos casos de teste."
+    echo "Uso: $0 <diretorio_de_testes> [modos...]"
+    exit 1
+fi
+
+if [ ! -d "$1" ]; then
+    echo "❌ Erro: O diretório '$1' não foi encontrado."
+    exit 1
+fi
+
+TEST_DIR=$1
+shift
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+    MODES=(--closure --vm)
+fi
+
+# Mesma entrada para todos os modos, para os testes que usam scanln
+INPUT=$'5\n7\n3\n2\n1\nabc\n4\n'
+
+FAILED_TESTS=()
+PASSED_COUNT=0
+TOTAL_COUNT=0
+
+# Cores para o output
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+CYAN='\033[0;36m'
+NC='\033[0m' # Sem Cor
+
+# Só a saída do programa, entre os marcadores que o Main imprime em todos os modos.
+# O stderr fica de fora: as mensagens de erro de execução de cada motor são diferentes.
+run_program() {
+    printf '%s' "$INPUT" | make -s rcf FILE="$1 $2" 2>/dev/null \
+        | sed -n '/>>> Executando o interpretador/,/>>> Execução concluída/p'
+}
+
+echo -e "${YELLOW}🚀 Comparando ${MODES[*]} com o interpretador padrão em: $TEST_DIR${NC}"
+echo "============================================================"
+
+for GO_FILE in $(find "$TEST_DIR" -type f -name "*.go" | sort); do
+    ((TOTAL_COUNT++))
+    EXPECTED=$(mktemp)
+    ACTUAL=$(mktemp)
+    run_program "" "$GO_FILE" > "$EXPECTED"
+
+    # Sem os marcadores o programa nem chegou a executar (ex.: projeto não compilado),
+    # e duas saídas vazias não provam nada
+    if [ ! -s "$EXPECTED" ]; then
+        echo -e "\n▶️  ${RED}Não executou${NC} com o interpretador padrão: ${YELLOW}$GO_FILE${NC}"
+        FAILED_TESTS+=("$GO_FILE")
+        rm -f "$EXPECTED" "$ACTUAL"
+        continue
+    fi
+
+    OK=true
+    for MODE in "${MODES[@]}"; do
+        run_program "$MODE" "$GO_FILE" > "$ACTUAL"
+        if ! cmp -s "$EXPECTED" "$ACTUAL"; then
+            OK=false
+            echo -e "\n▶️  ${RED}Diferença${NC} em ${YELLOW}$GO_FILE${NC} com $MODE:"
+            echo -e "      ${CYAN}--- Diff (padrão / $MODE) ---${NC}"
+            diff "$EXPECTED" "$ACTUAL" | sed 's/^/      /'
+            echo -e "      ${CYAN}-------------------${NC}"
+        fi
+    done
+
+    if [ "$OK" = true ]; then
+        echo -e "${GREEN}✅ Igual:${NC} $GO_FILE"
+        ((PASSED_COUNT++))
+    else
+        FAILED_TESTS+=("$GO_FILE")
+    fi
+    rm -f "$EXPECTED" "$ACTUAL"
+done
+
+# --- Relatório Final ---
+echo ""
+echo "============================================================"
+echo -e "${YELLOW}🏁 Comparação concluída!${NC}"
+echo ""
+echo -e "Resumo: ${GREEN}${PASSED_COUNT}${NC} de ${TOTAL_COUNT} programas com a mesma saída."
+
+if [ ${#FAILED_TESTS[@]} -ne 0 ]; then
+    echo -e "\n${RED}❌ Arquivos com saída diferente:${NC}"
+    for FAILED in "${FAILED_TESTS[@]}"; do
+        echo "  - $FAILED"
+    done
+    exit 1
+else
+    echo -e "\n${GREEN}🎉 Todos os motores produziram a mesma saída!${NC}"
+    exit 0
+fi
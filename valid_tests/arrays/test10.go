@@ -0,0 +1,32 @@
+// Test: Slice literals, len, append and element updates
+func sum(values []int) int {
+    total := 0
+    for i := 0; i < len(values); i++ {
+        total = total + values[i]
+    }
+    return total
+}
+
+func main() {
+    var squares []int
+    for i := 0; i < 8; i++ {
+        squares = append(squares, i*i)
+    }
+    println(squares, len(squares), sum(squares))
+
+    primes := []int{2, 3, 5, 7}
+    primes[0] = 1
+    primes[3]++
+    println(primes, sum(primes))
+
+    words := []string{"go", "llvm"}
+    words = append(words, "java", "antlr")
+    println(words[2], len(words), len(words[1]))
+
+    weights := []float64{0.5, 1.5}
+    weights[1] = weights[0] * 4.0
+    println(weights)
+
+    flags := append([]bool{true}, false, true)
+    println(flags, flags[1])
+}
@@ -0,0 +1,43 @@
+// Test 11: Laços canônicos sobre slices (sem verificação de limites no LLVM)
+func sum(s []int) int {
+    total := 0
+    for i := 0; i < len(s); i++ {
+        total = total + s[i]
+    }
+    return total
+}
+
+func scale(a []float64, k float64) {
+    for i := 0; i < len(a); i++ {
+        a[i] = a[i] * k
+    }
+}
+
+func main() {
+    xs := []int{3, 1, 4, 1, 5, 9, 2, 6}
+    println(sum(xs))
+
+    ys := []float64{0.5, 1.5, 2.5}
+    scale(ys, 2.0)
+    println(ys)
+
+    // Começando em 1, com i sombreado no corpo
+    diffs := 0
+    for i := 1; i < len(xs); i++ {
+        d := xs[i] - xs[i - 1]
+        if d > 0 {
+            i := 0
+            diffs = diffs + xs[i]
+        }
+    }
+    println(diffs)
+
+    // O corpo muda o slice: os acessos continuam verificados
+    grow := []int{1}
+    for i := 0; i < len(grow); i++ {
+        if grow[i] < 20 {
+            grow = append(grow, grow[i] * 2)
+        }
+    }
+    println(grow)
+}
@@ -0,0 +1,13 @@
+// Test 4: Aritmética de float64, com e sem dobra de constantes
+const k = 3.0
+
+func main() {
+    var a float64 = 100000.1
+    println(a * 3.0)
+    println(100000.1 * 3.0)
+    println(a * k)
+    println(100000.1 * k)
+    println(float64(7) / 3.0)
+    println(int(2.5 * 3.0))
+    println(-1.5 < 2.0)
+}
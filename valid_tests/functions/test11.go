@@ -0,0 +1,31 @@
+// Test 11: Recursão em cauda profunda (acumulador)
+var steps int
+
+func count(n int, acc int) int {
+    if n == 0 {
+        return acc
+    }
+    return count(n - 1, acc + 1)
+}
+
+func repeat(s string, n int, out string) string {
+    if n == 0 {
+        return out
+    }
+    return repeat(s, n - 1, out + s)
+}
+
+func walk(n int) {
+    if n > 0 {
+        steps = steps + 1
+        walk(n - 1)
+    }
+}
+
+func main() {
+    println(count(100000, 0))
+    println(len(repeat("ab", 2000, "")))
+    steps = 0
+    walk(200000)
+    println(steps)
+}
@@ -0,0 +1,12 @@
+// Test 4: Comparações de ordem entre strings
+func main() {
+    a := "abc"
+    b := "abd"
+    println(a < b, a > b, a <= b, a >= b)
+    println(b < a, b > a, b <= a, b >= a)
+    println(a <= "abc", a >= "abc", a < "abc", a > "abc")
+    println("ab" < a, "" < a, "b" > a, "Z" < "a")
+    if a < b {
+        println("ordem ok")
+    }
+}
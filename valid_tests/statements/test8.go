@@ -0,0 +1,7 @@
+// Test 8: scanln com um argumento que não é variável
+func main() {
+    a := []int{1, 2, 3}
+    var x int
+    n := scanln(a[1], x)
+    println(n, x, a[1])
+}